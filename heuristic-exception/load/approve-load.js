@@ -27,12 +27,13 @@ export default function () {
   });
 
   const res = http.post(`${baseUrl}/approve`, payload, {
-    headers: { 'Content-Type': 'application/json' },
+    // 서버도 클라이언트가 포기하는 시점(5s) 이후의 작업은 하지 않는다
+    headers: { 'Content-Type': 'application/json', 'X-Request-Timeout': '5000' },
     timeout: '5s',
   });
 
   check(res, {
-    'status is 200/500': (r) => r.status === 200 || r.status === 500,
+    'status is 200/500/503/504': (r) => [200, 500, 503, 504].includes(r.status),
   });
 
   sleep(0.1);
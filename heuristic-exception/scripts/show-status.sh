@@ -9,3 +9,5 @@ docker compose exec mysql-ums mysql -uapp -papp -e "SELECT COUNT(*) AS cnt FROM
 DB1=$(docker compose exec mysql-approval mysql -N -B -uapp -papp -e "SELECT COUNT(*) FROM approval_db.approval_history;" 2>/dev/null | tr -d '\r')
 DB2=$(docker compose exec mysql-ums mysql -N -B -uapp -papp -e "SELECT COUNT(*) FROM ums_db.ums_send_history;" 2>/dev/null | tr -d '\r')
 echo "차이(DB1-DB2): $((DB1-DB2))"
+echo "DB1 ums_outbox (outbox 모드에서 DB2로 아직 옮기지 않은 건):"
+docker compose exec mysql-approval mysql -uapp -papp -e "SELECT COUNT(*) AS cnt FROM approval_db.ums_outbox;"
@@ -0,0 +1,70 @@
+package com.example.heuristicexception;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.service.ApprovalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * /approve 한 건의 서비스 경로 비용: aspect → CompositeTransactionManager(lazy enlistment, 저널) → MyBatis insert → 복합 커밋.
+ * direct는 DB1·DB2 두 자원 커밋(+ 저널 fsync), outbox는 DB1 커밋 하나.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApprovalServiceBenchmark {
+
+    @Param({"direct", "outbox"})
+    public String umsMode;
+
+    @Param({"true", "false"})
+    public boolean journal;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private ApprovalService approvalService;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BenchmarkDatabases.startApplication(Map.of(
+                "heuristic.ums.mode", umsMode,
+                "heuristic.journal.enabled", journal));
+        approvalService = context.getBean(ApprovalService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        BenchmarkDatabases.truncate(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void approveAndSendUms() {
+        long id = sequence.incrementAndGet();
+        approvalService.approveAndSendUms(new ApprovalRequest("BENCH-" + id, BigDecimal.TEN, "010-0000-0000", "benchmark"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.heuristicexception;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * 벤치마크용 인메모리 DB1·DB2 (H2, MySQL 호환 모드).
+ * 트라이얼마다 이름이 다른 DB를 만들어 이전 트라이얼의 행이 남지 않게 한다.
+ */
+final class BenchmarkDatabases {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private BenchmarkDatabases() {
+    }
+
+    static String url(String name) {
+        return "jdbc:h2:mem:" + name + "-" + SEQUENCE.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    static HikariDataSource dataSource(String url, int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+
+    static void createSchema(DataSource db1, DataSource db2) {
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/db1-schema.sql")).execute(db1);
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/db2-schema.sql")).execute(db2);
+    }
+
+    static void truncate(DataSource db1, DataSource db2) {
+        JdbcTemplate db1Template = new JdbcTemplate(db1);
+        db1Template.execute("TRUNCATE TABLE approval_history");
+        db1Template.execute("TRUNCATE TABLE ums_outbox");
+        new JdbcTemplate(db2).execute("TRUNCATE TABLE ums_send_history");
+    }
+
+    /**
+     * 실제 애플리케이션 설정(DatabaseConfig, aspect, MyBatis 매퍼)을 그대로 쓰고 접속 정보만 인메모리 DB로 바꿔 띄운다.
+     */
+    static ConfigurableApplicationContext startApplication(Map<String, Object> overrides) throws Exception {
+        String db1Url = url("approval_db");
+        String db2Url = url("ums_db");
+        Path journalDir = Files.createTempDirectory("journal-bench");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.db1.url", db1Url);
+        properties.put("spring.datasource.db2.url", db2Url);
+        properties.put("spring.datasource.db2root.url", db2Url);
+        for (String db : new String[]{"db1", "db2", "db2root"}) {
+            properties.put("spring.datasource." + db + ".driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource." + db + ".username", "sa");
+            properties.put("spring.datasource." + db + ".password", "");
+        }
+        properties.put("heuristic.journal.path", journalDir.resolve("commit-journal.log").toString());
+        // 측정 중에 reconciler가 끼어들지 않도록
+        properties.put("heuristic.journal.reconciler.interval", "1h");
+        properties.put("logging.level.root", "WARN");
+        // 벤치마크는 컨트롤러를 거치지 않고, 스트리밍 fetchSize(Integer.MIN_VALUE)는 MySQL 드라이버 전용이다
+        properties.put("heuristic.approve.idempotency.enabled", "false");
+        properties.putAll(overrides);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(HeuristicExceptionApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+        createSchema(context.getBean("db1DataSource", DataSource.class), context.getBean("db2DataSource", DataSource.class));
+        return context;
+    }
+
+    static void truncate(ConfigurableApplicationContext context) {
+        truncate(context.getBean("db1DataSource", DataSource.class), context.getBean("db2DataSource", DataSource.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.heuristicexception;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * Spring 컨텍스트/aspect/MyBatis 없이 CompositeTransactionManager만 잰다.
+ * - unused: 시작 + 커밋, 자원 참여 없음 (lazy enlistment의 최소 비용)
+ * - commit/rollback: DB1·DB2 모두 참여해 자원마다 batchSize행을 JDBC batch로 넣고 커밋/롤백
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompositeTransactionManagerBenchmark {
+
+    private static final String INSERT_APPROVAL = "INSERT INTO approval_history (approval_id, amount) VALUES (?, 10)";
+    private static final String INSERT_UMS = "INSERT INTO ums_send_history (approval_id, phone_number, message) VALUES (?, '010-0000-0000', 'benchmark')";
+
+    @Param({"1", "16"})
+    public int batchSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+    private HikariDataSource db1;
+    private HikariDataSource db2;
+    private JdbcTemplate db1Template;
+    private JdbcTemplate db2Template;
+    private CompositeTransactionManager compositeTxManager;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // 스레드 수(-PjmhThreads)보다 작으면 풀 대기 시간이 섞이므로 넉넉히
+        db1 = BenchmarkDatabases.dataSource(BenchmarkDatabases.url("approval_db"), 64);
+        db2 = BenchmarkDatabases.dataSource(BenchmarkDatabases.url("ums_db"), 64);
+        BenchmarkDatabases.createSchema(db1, db2);
+        db1Template = new JdbcTemplate(db1);
+        db2Template = new JdbcTemplate(db2);
+        Map<String, PlatformTransactionManager> delegates = new LinkedHashMap<>();
+        delegates.put("db1", new DataSourceTransactionManager(db1));
+        delegates.put("db2", new DataSourceTransactionManager(db2));
+        compositeTxManager = new CompositeTransactionManager(delegates, true);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        BenchmarkDatabases.truncate(db1, db2);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        db1.close();
+        db2.close();
+    }
+
+    @Benchmark
+    public boolean unused() {
+        TransactionStatus status = compositeTxManager.getTransaction(definition);
+        compositeTxManager.commit(status);
+        return status.isCompleted();
+    }
+
+    @Benchmark
+    public boolean commit() {
+        TransactionStatus status = compositeTxManager.getTransaction(definition);
+        insertBoth();
+        compositeTxManager.commit(status);
+        return status.isCompleted();
+    }
+
+    @Benchmark
+    public boolean rollback() {
+        TransactionStatus status = compositeTxManager.getTransaction(definition);
+        insertBoth();
+        compositeTxManager.rollback(status);
+        return status.isCompleted();
+    }
+
+    private void insertBoth() {
+        List<Object[]> rows = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            rows.add(new Object[]{"BENCH-" + sequence.incrementAndGet()});
+        }
+        // MyBatis 경로와 같은 순서로 참여: 커넥션을 잡기 직전에 enlist
+        compositeTxManager.enlist(db1);
+        db1Template.batchUpdate(INSERT_APPROVAL, rows);
+        compositeTxManager.enlist(db2);
+        db2Template.batchUpdate(INSERT_UMS, rows);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.heuristicexception;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.heuristicexception.batch.ApprovalGroupCommitter;
+import com.example.heuristicexception.domain.ApprovalOutcome;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * group commit 경로: 호출 한 번에 batchSize건을 제출하고 모두 끝날 때까지 기다린다.
+ * 점수는 호출(batchSize건) 단위이므로 건당 비용은 점수 / batchSize. 여러 스레드(-PjmhThreads)면 스레드 간 요청도 한 배치로 묶인다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"1", "16", "64"})
+    public int batchSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private ApprovalGroupCommitter groupCommitter;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = BenchmarkDatabases.startApplication(Map.of(
+                "heuristic.approve.group-commit.enabled", true,
+                "heuristic.approve.group-commit.max-batch", batchSize));
+        groupCommitter = context.getBean(ApprovalGroupCommitter.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        BenchmarkDatabases.truncate(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int submitAndWait() {
+        List<CompletableFuture<ApprovalOutcome>> outcomes = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            long id = sequence.incrementAndGet();
+            outcomes.add(groupCommitter.submit(new ApprovalRequest("BENCH-" + id, BigDecimal.TEN, "010-0000-0000", "benchmark")));
+        }
+        int approved = 0;
+        for (CompletableFuture<ApprovalOutcome> outcome : outcomes) {
+            if (outcome.join().status() == ApprovalOutcome.Status.APPROVED) {
+                approved++;
+            }
+        }
+        return approved;
+    }
+}
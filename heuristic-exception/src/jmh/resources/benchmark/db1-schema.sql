@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS approval_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    approval_id VARCHAR(64) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_approval_id UNIQUE (approval_id)
+);
+
+CREATE TABLE IF NOT EXISTS ums_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    approval_id VARCHAR(64) NOT NULL,
+    phone_number VARCHAR(32) NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_outbox_approval_id UNIQUE (approval_id)
+);
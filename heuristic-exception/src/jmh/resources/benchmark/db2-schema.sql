@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS ums_send_history (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    approval_id VARCHAR(64) NOT NULL,
+    phone_number VARCHAR(32) NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_ums_approval_id UNIQUE (approval_id)
+);
@@ -0,0 +1,229 @@
+package com.example.heuristicexception.batch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.example.heuristicexception.config.GroupCommitProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.deadline.DeadlineExceededException;
+import com.example.heuristicexception.deadline.RequestDeadline;
+import com.example.heuristicexception.domain.ApprovalOutcome;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.service.ApprovalService;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.HeuristicCompletionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * /approve group commit (heuristic.approve.group-commit.enabled=true).
+ * 동시에 들어온 요청을 maxWait 동안 또는 maxBatch건까지 모아 DB1·DB2에 테이블당 multi-row insert 1회, 복합 트랜잭션 1회로 적재한다.
+ * - 배치 안 중복과 DB1에 이미 있는 approvalId는 IN 조회로 미리 걸러 DUPLICATE로 돌려준다.
+ * - 배치 적재가 실패하면(경합으로 인한 중복 등) 해당 배치만 건별 ApprovalService 호출로 다시 처리해 행 단위 결과를 돌려준다.
+ * - STATE_MIXED는 재시도하면 DB1 중복만 생기므로 배치 전체를 FAILED로 끝낸다.
+ * - 큐에서 기다리는 동안 요청 마감({@link RequestDeadline})이 지난 건은 적재하지 않고 EXPIRED로 돌려준다.
+ * - 배치 처리 중 어떤 예외(Error 포함)가 나도 그 배치의 남은 요청은 FAILED로 끝내고 워커는 계속 돈다.
+ * - 종료 시 큐에 남은 요청과 처리 중이던 배치를 모두 FAILED로 끝내, 기다리는 쪽이 멈춰 있지 않게 한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "heuristic.approve.group-commit.enabled", havingValue = "true")
+public class ApprovalGroupCommitter implements InitializingBean, DisposableBean {
+
+    private static final IllegalStateException SHUTDOWN = new IllegalStateException("group commit is shutting down");
+
+    private final GroupCommitProperties properties;
+    private final UmsProperties umsProperties;
+    private final ApprovalHistoryMapper approvalHistoryMapper;
+    private final UmsSendHistoryMapper umsSendHistoryMapper;
+    private final UmsOutboxMapper umsOutboxMapper;
+    private final ApprovalService approvalService;
+    private final CompositeTransactionManager compositeTxManager;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Pending> queue;
+    private volatile boolean closed;
+    private Thread worker;
+
+    public ApprovalGroupCommitter(GroupCommitProperties properties,
+                                  UmsProperties umsProperties,
+                                  ApprovalHistoryMapper approvalHistoryMapper,
+                                  UmsSendHistoryMapper umsSendHistoryMapper,
+                                  UmsOutboxMapper umsOutboxMapper,
+                                  ApprovalService approvalService,
+                                  CompositeTransactionManager compositeTxManager) {
+        this.properties = properties;
+        this.umsProperties = umsProperties;
+        this.approvalHistoryMapper = approvalHistoryMapper;
+        this.umsSendHistoryMapper = umsSendHistoryMapper;
+        this.umsOutboxMapper = umsOutboxMapper;
+        this.approvalService = approvalService;
+        this.compositeTxManager = compositeTxManager;
+        this.transactionTemplate = new TransactionTemplate(compositeTxManager);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public CompletableFuture<ApprovalOutcome> submit(ApprovalRequest request) {
+        Pending pending = new Pending(request, new CompletableFuture<>(), RequestDeadline.get());
+        if (closed) {
+            pending.fail(SHUTDOWN);
+        } else if (!queue.offer(pending)) {
+            pending.fail(new IllegalStateException("group commit queue is full"));
+        } else if (closed && queue.remove(pending)) {
+            // 종료 중 drain과 엇갈려 큐에 남은 건
+            pending.fail(SHUTDOWN);
+        }
+        return pending.future();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        worker = new Thread(this::run, "approval-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        closed = true;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        failQueued();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(properties.getMaxBatch());
+        long maxWaitNanos = properties.getMaxWait().toNanos();
+        try {
+            while (!closed && !Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < properties.getMaxBatch()) {
+                    if (queue.drainTo(batch, properties.getMaxBatch() - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    commit(batch);
+                } catch (Throwable ex) {
+                    log.error("[GROUP-COMMIT] batch of {} failed unexpectedly", batch.size(), ex);
+                    batch.forEach(pending -> pending.fail(ex));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // 모으던 중 종료된 배치
+            batch.forEach(pending -> pending.fail(SHUTDOWN));
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.fail(SHUTDOWN);
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        Map<String, Pending> accepted = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            if (RequestDeadline.remainingNanos(pending.deadlineNanos()) <= 0) {
+                pending.complete(ApprovalOutcome.expired(pending.request().approvalId()));
+            } else if (accepted.putIfAbsent(pending.request().approvalId(), pending) != null) {
+                pending.complete(ApprovalOutcome.duplicate(pending.request().approvalId()));
+            }
+        }
+        try {
+            Set<String> existing = new HashSet<>(approvalHistoryMapper.findExistingApprovalIds(accepted.keySet()));
+            for (String approvalId : existing) {
+                Pending duplicate = accepted.remove(approvalId);
+                if (duplicate != null) {
+                    duplicate.complete(ApprovalOutcome.duplicate(approvalId));
+                }
+            }
+            if (accepted.isEmpty()) {
+                return;
+            }
+            List<ApprovalRequest> requests = accepted.values().stream().map(Pending::request).toList();
+            transactionTemplate.executeWithoutResult(status -> insertAll(requests));
+            log.info("[GROUP-COMMIT] committed {} approvals (batch={})", requests.size(), batch.size());
+            accepted.values().forEach(pending -> pending.complete(ApprovalOutcome.approved(pending.request().approvalId())));
+        } catch (HeuristicCompletionException ex) {
+            log.error("[GROUP-COMMIT] mixed outcome for {} approvals", accepted.size(), ex);
+            accepted.values().forEach(pending -> pending.complete(ApprovalOutcome.failed(pending.request().approvalId(), ex)));
+        } catch (Exception ex) {
+            log.warn("[GROUP-COMMIT] batch of {} failed, retrying one by one, ex={}", accepted.size(), ex.getClass().getSimpleName());
+            accepted.values().forEach(this::commitOne);
+        }
+    }
+
+    private void insertAll(List<ApprovalRequest> requests) {
+        approvalHistoryMapper.insertApprovals(requests);
+        if (umsProperties.getMode() == UmsProperties.Mode.OUTBOX) {
+            umsOutboxMapper.insertOutboxes(requests);
+        } else {
+            umsSendHistoryMapper.insertUmsHistories(requests.stream()
+                    .map(request -> new UmsOutboxMessage(null, request.approvalId(), request.phoneNumber(), request.message()))
+                    .toList());
+            requests.forEach(request -> compositeTxManager.tag(request.approvalId(), request.phoneNumber(), request.message()));
+        }
+    }
+
+    private void commitOne(Pending pending) {
+        String approvalId = pending.request().approvalId();
+        // 건별 재처리는 원래 요청의 마감을 따른다
+        Long previous = RequestDeadline.set(pending.deadlineNanos());
+        try {
+            approvalService.approveAndSendUms(pending.request());
+            pending.complete(ApprovalOutcome.approved(approvalId));
+        } catch (DuplicateKeyException ex) {
+            pending.complete(ApprovalOutcome.duplicate(approvalId));
+        } catch (DeadlineExceededException ex) {
+            pending.complete(ApprovalOutcome.expired(approvalId));
+        } catch (Exception ex) {
+            pending.complete(ApprovalOutcome.failed(approvalId, ex));
+        } finally {
+            RequestDeadline.set(previous);
+        }
+    }
+
+    private record Pending(ApprovalRequest request, CompletableFuture<ApprovalOutcome> future, Long deadlineNanos) {
+        void complete(ApprovalOutcome outcome) {
+            future.complete(outcome);
+        }
+
+        /**
+         * 이미 결과가 정해진 건은 그대로 둔다
+         */
+        void fail(Throwable ex) {
+            future.complete(ApprovalOutcome.failed(request.approvalId(), ex));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.heuristicexception.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * approvalId 키의 크기 제한 맵. 두 세대(current/previous)로 나눠 current가 capacity/2에 차면 previous를 통째로 버린다.
+ * - 메모리는 capacity 건으로 묶이고, 항목별 LRU 기록 없이 세대 교체 한 번으로 오래된 키를 비운다.
+ * - 새 키는 current에만 넣고, 조회·교체·삭제는 두 세대를 모두 본다.
+ * - falsePositiveRate가 0보다 크면 세대마다 Bloom filter를 앞에 두어 처음 보는 키는 맵 조회 없이 통과시킨다.
+ */
+public class TwoGenerationMap<V> {
+
+    private final int generationCapacity;
+    private final double falsePositiveRate;
+    private final ReentrantLock rotateLock = new ReentrantLock();
+    private volatile Generation<V> current;
+    private volatile Generation<V> previous;
+
+    /**
+     * @param falsePositiveRate 세대별 Bloom filter 오탐률, 0 이하면 Bloom filter를 두지 않음
+     */
+    public TwoGenerationMap(int capacity, double falsePositiveRate) {
+        this.generationCapacity = Math.max(1, capacity / 2);
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = newGeneration();
+        this.previous = newGeneration();
+    }
+
+    public V get(String key) {
+        V value = current.get(key);
+        return value != null ? value : previous.get(key);
+    }
+
+    /**
+     * previous에 있던 값은 지우고 current에 넣는다
+     */
+    public void put(String key, V value) {
+        previous.entries.remove(key);
+        Generation<V> generation = current;
+        generation.mark(key);
+        if (generation.entries.put(key, value) == null) {
+            added(generation);
+        }
+    }
+
+    /**
+     * current에 없을 때만 넣는다 (previous는 보지 않는다)
+     *
+     * @return current에 이미 있던 값, 새로 넣었으면 null
+     */
+    public V putIfAbsent(String key, V value) {
+        Generation<V> generation = current;
+        generation.mark(key);
+        V existing = generation.entries.putIfAbsent(key, value);
+        if (existing == null) {
+            added(generation);
+        }
+        return existing;
+    }
+
+    /**
+     * 어느 세대든 키가 있으면 값을 바꾼다
+     *
+     * @return 바꿨으면 true, 두 세대 모두에 없으면 false
+     */
+    public boolean replace(String key, V value) {
+        return current.entries.replace(key, value) != null || previous.entries.replace(key, value) != null;
+    }
+
+    /**
+     * 값이 oldValue일 때만 newValue로 바꾼다
+     *
+     * @return 바꿨으면 true
+     */
+    public boolean replace(String key, V oldValue, V newValue) {
+        return current.entries.replace(key, oldValue, newValue) || previous.entries.replace(key, oldValue, newValue);
+    }
+
+    public void remove(String key) {
+        // Bloom filter 비트는 남지만 맵에서 확인하므로 결과에는 영향이 없다
+        current.entries.remove(key);
+        previous.entries.remove(key);
+    }
+
+    /**
+     * 값이 value일 때만 지운다
+     */
+    public void remove(String key, V value) {
+        current.entries.remove(key, value);
+        previous.entries.remove(key, value);
+    }
+
+    private void added(Generation<V> generation) {
+        if (generation.size.incrementAndGet() >= generationCapacity) {
+            rotate(generation);
+        }
+    }
+
+    private void rotate(Generation<V> full) {
+        rotateLock.lock();
+        try {
+            if (current == full) {
+                previous = full;
+                current = newGeneration();
+            }
+        } finally {
+            rotateLock.unlock();
+        }
+    }
+
+    private Generation<V> newGeneration() {
+        BloomFilter bloom = falsePositiveRate > 0 ? new BloomFilter(generationCapacity, falsePositiveRate) : null;
+        return new Generation<>(bloom, new ConcurrentHashMap<>(generationCapacity), new AtomicInteger());
+    }
+
+    private record Generation<V>(BloomFilter bloom, ConcurrentHashMap<String, V> entries, AtomicInteger size) {
+
+        V get(String key) {
+            return bloom == null || bloom.mightContain(key) ? entries.get(key) : null;
+        }
+
+        // 맵보다 먼저 세워 동시 조회가 Bloom filter에서 놓치지 않게 한다
+        void mark(String key) {
+            if (bloom != null) {
+                bloom.put(key);
+            }
+        }
+    }
+}
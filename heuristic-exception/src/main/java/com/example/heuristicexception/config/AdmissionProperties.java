@@ -0,0 +1,22 @@
+package com.example.heuristicexception.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.admission")
+public class AdmissionProperties {
+
+    /** true면 복합 트랜잭션이 DB 자원에 참여하기 전에 풀 크기만큼의 세마포어 permit을 먼저 얻는다 */
+    private boolean enabled;
+    /** permit 대기 최대 시간, 넘으면 503 */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+    /** DB별 permit 대기 요청 상한, 넘으면 기다리지 않고 503 */
+    private int maxWaiting = 10_000;
+    /** 복합 트랜잭션 밖(relay, reconciler)에서 쓰도록 permit에서 빼 두는 커넥션 수 */
+    private int reservedConnections = 1;
+}
@@ -0,0 +1,24 @@
+package com.example.heuristicexception.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.approve.status")
+public class ApprovalStatusProperties {
+
+    /** true면 GET /approve 조회 결과를 메모리(near-cache)에 두고, false면 매번 두 DB를 조회 */
+    private boolean cacheEnabled = true;
+    /** 메모리에 두는 상태 최대 수 (절반씩 두 세대로 나눠 오래된 세대를 통째로 버린다) */
+    private int capacity = 100_000;
+    /** COMMITTED가 아닌 상태(RELAYING/MIXED/MISSING)를 두는 시간, 0이면 두지 않음 */
+    private Duration transientTtl = Duration.ofSeconds(1);
+    /** cache miss를 모아 보내는 IN 조회 한 번의 최대 approvalId 수 */
+    private int batchSize = 500;
+    /** 다건 조회 한 번에 받는 approvalId 최대 수, 넘으면 400 */
+    private int maxIds = 1000;
+}
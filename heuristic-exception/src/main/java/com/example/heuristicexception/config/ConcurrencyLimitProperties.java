@@ -0,0 +1,35 @@
+package com.example.heuristicexception.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.approve.limit")
+public class ConcurrencyLimitProperties {
+
+    /** true면 /approve 동시 처리 수를 DB2 커밋 RTT로 학습한 한도 안으로 제한 */
+    private boolean enabled;
+    /** 커밋 RTT를 관찰할 자원 이름, db2면 ums.mode=outbox에서 릴레이의 DB2 적재 시간도 샘플로 쓴다 */
+    private String resource = "db2";
+    private int initialLimit = 10;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    /** 추정 대기열(limit × (1 - minRtt/rtt))이 log10(limit) × alpha 미만이면 한도를 늘린다 */
+    private int alpha = 3;
+    /** 추정 대기열이 log10(limit) × beta를 넘으면 한도를 줄인다 */
+    private int beta = 6;
+    /** 새 한도를 반영하는 비율 (1이면 즉시) */
+    private double smoothing = 1.0;
+    /** 이 값을 넘는 커밋 RTT는 실패와 같이 보고 한도를 줄인다 (DB2 socket timeout보다 충분히 작게) */
+    private Duration maxRtt = Duration.ofSeconds(2);
+    /** limit × probeMultiplier 샘플마다 minRtt를 현재 RTT로 다시 잡는다 */
+    private int probeMultiplier = 30;
+    /** 한도를 넘은 요청이 슬롯을 기다리는 최대 시간, 넘으면 503 */
+    private Duration maxQueueWait = Duration.ofMillis(50);
+    /** 슬롯을 기다리는 요청 수 상한, 넘으면 기다리지 않고 503 */
+    private int maxQueued = 64;
+}
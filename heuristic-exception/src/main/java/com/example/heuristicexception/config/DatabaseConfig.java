@@ -1,12 +1,25 @@
 package com.example.heuristicexception.config;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import javax.sql.DataSource;
 
+import com.example.heuristicexception.deadline.DeadlineAwareDataSource;
+import com.example.heuristicexception.fault.FaultInjectingDataSource;
+import com.example.heuristicexception.fault.FaultInjector;
+import com.example.heuristicexception.journal.CommitJournal;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import com.example.heuristicexception.tx.ConnectionAdmission;
+import com.example.heuristicexception.tx.EnlistingTransactionFactory;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.mybatis.spring.SqlSessionFactoryBean;
 import org.mybatis.spring.SqlSessionTemplate;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +28,7 @@ import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 
 @Configuration
@@ -28,8 +42,10 @@ public class DatabaseConfig {
 
     @Bean
     @Primary
-    public DataSource db1DataSource(@Qualifier("db1Properties") DataSourceProperties properties) {
-        return properties.initializeDataSourceBuilder().type(com.zaxxer.hikari.HikariDataSource.class).build();
+    public DataSource db1DataSource(@Qualifier("db1Properties") DataSourceProperties properties,
+                                    FaultProperties faultProperties, ObjectProvider<FaultInjector> faultInjector) {
+        DataSource dataSource = DeadlineAwareDataSource.wrap(properties.initializeDataSourceBuilder().type(com.zaxxer.hikari.HikariDataSource.class).build());
+        return FaultInjectingDataSource.wrapIfEnabled("db1", dataSource, faultInjector.getIfAvailable(), faultProperties.getDataSources());
     }
 
     @Bean
@@ -44,9 +60,15 @@ public class DatabaseConfig {
         return new DataSourceProperties();
     }
 
+    /**
+     * 풀 바로 바깥에서 커넥션 대기를 요청 마감으로 줄이고(DeadlineAwareDataSource),
+     * heuristic.fault.enabled=true면 그 바깥을 FaultInjectingDataSource로 감싼다 (트랜잭션 매니저·MyBatis 모두 같은 빈을 본다)
+     */
     @Bean
-    public DataSource db2DataSource(@Qualifier("db2Properties") DataSourceProperties properties) {
-        return properties.initializeDataSourceBuilder().type(com.zaxxer.hikari.HikariDataSource.class).build();
+    public DataSource db2DataSource(@Qualifier("db2Properties") DataSourceProperties properties,
+                                    FaultProperties faultProperties, ObjectProvider<FaultInjector> faultInjector) {
+        DataSource dataSource = DeadlineAwareDataSource.wrap(properties.initializeDataSourceBuilder().type(com.zaxxer.hikari.HikariDataSource.class).build());
+        return FaultInjectingDataSource.wrapIfEnabled("db2", dataSource, faultInjector.getIfAvailable(), faultProperties.getDataSources());
     }
 
     @Bean
@@ -65,11 +87,38 @@ public class DatabaseConfig {
         return new DataSourceTransactionManager(dataSource);
     }
 
+    /**
+     * 자원 이름(db1, db2)은 @MultiResourceTransactional(dataSources)에서 쓴다.
+     * heuristic.tx.lazy-enlistment=false면 예전처럼 서비스 진입 시 DB1·DB2 트랜잭션을 모두 연다 (비교용)
+     */
+    @Bean
+    public CompositeTransactionManager compositeTxManager(
+            @Qualifier("db1TxManager") PlatformTransactionManager db1,
+            @Qualifier("db2TxManager") PlatformTransactionManager db2,
+            @Value("${heuristic.tx.lazy-enlistment:true}") boolean lazyEnlistment,
+            ObjectProvider<CommitJournal> journal,
+            ObjectProvider<ConnectionAdmission> admission) {
+        Map<String, PlatformTransactionManager> delegates = new LinkedHashMap<>();
+        delegates.put("db1", db1);
+        delegates.put("db2", db2);
+        CompositeTransactionManager compositeTxManager = new CompositeTransactionManager(delegates, lazyEnlistment);
+        compositeTxManager.setJournal(journal.getIfAvailable());
+        compositeTxManager.setAdmission(admission.getIfAvailable());
+        return compositeTxManager;
+    }
+
+    /**
+     * heuristic.admission.enabled=true(기본값은 spring.threads.virtual.enabled를 따름)면 DB1·DB2 풀 크기만큼 permit을 둔다
+     */
     @Bean
-    public org.springframework.transaction.PlatformTransactionManager compositeTxManager(
-            @Qualifier("db1TxManager") org.springframework.transaction.PlatformTransactionManager db1,
-            @Qualifier("db2TxManager") org.springframework.transaction.PlatformTransactionManager db2) {
-        return new com.example.heuristicexception.tx.CompositeTransactionManager(java.util.List.of(db1, db2));
+    @ConditionalOnProperty(name = "heuristic.admission.enabled", havingValue = "true")
+    public ConnectionAdmission connectionAdmission(AdmissionProperties properties,
+                                                   @Qualifier("db1DataSource") DataSource db1,
+                                                   @Qualifier("db2DataSource") DataSource db2) {
+        ConnectionAdmission admission = new ConnectionAdmission(properties);
+        admission.register("db1", db1, properties.getReservedConnections());
+        admission.register("db2", db2, properties.getReservedConnections());
+        return admission;
     }
 
     @Bean
@@ -86,9 +135,12 @@ public class DatabaseConfig {
     @MapperScan(basePackages = "com.example.heuristicexception.mapper.db1", sqlSessionTemplateRef = "db1SessionTemplate")
     static class Db1MyBatisConfig {
         @Bean
-        public SqlSessionFactory db1SqlSessionFactory(@Qualifier("db1DataSource") DataSource dataSource) throws Exception {
+        public SqlSessionFactory db1SqlSessionFactory(@Qualifier("db1DataSource") DataSource dataSource,
+                                                      CompositeTransactionManager compositeTxManager) throws Exception {
             SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
             factoryBean.setDataSource(dataSource);
+            // 매퍼가 처음 쓰일 때 DB1 트랜잭션을 시작 (lazy enlistment)
+            factoryBean.setTransactionFactory(new EnlistingTransactionFactory(compositeTxManager));
             factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver()
                     .getResources("classpath*:mapper/db1/*.xml"));
             return factoryBean.getObject();
@@ -104,9 +156,12 @@ public class DatabaseConfig {
     @MapperScan(basePackages = "com.example.heuristicexception.mapper.db2", sqlSessionTemplateRef = "db2SessionTemplate")
     static class Db2MyBatisConfig {
         @Bean
-        public SqlSessionFactory db2SqlSessionFactory(@Qualifier("db2DataSource") DataSource dataSource) throws Exception {
+        public SqlSessionFactory db2SqlSessionFactory(@Qualifier("db2DataSource") DataSource dataSource,
+                                                      CompositeTransactionManager compositeTxManager) throws Exception {
             SqlSessionFactoryBean factoryBean = new SqlSessionFactoryBean();
             factoryBean.setDataSource(dataSource);
+            // 매퍼가 처음 쓰일 때 DB2 트랜잭션을 시작 (lazy enlistment)
+            factoryBean.setTransactionFactory(new EnlistingTransactionFactory(compositeTxManager));
             factoryBean.setMapperLocations(new PathMatchingResourcePatternResolver()
                     .getResources("classpath*:mapper/db2/*.xml"));
             return factoryBean.getObject();
@@ -0,0 +1,20 @@
+package com.example.heuristicexception.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.deadline")
+public class DeadlineProperties {
+
+    /** true면 요청 헤더의 시간 예산을 커넥션 대기·트랜잭션 timeout에 반영한다 */
+    private boolean enabled = true;
+    /** 남은 시간 예산(밀리초)을 담는 요청 헤더 */
+    private String header = "X-Request-Timeout";
+    /** 헤더가 없을 때 쓸 예산, 비어 있으면 마감 없음 */
+    private Duration defaultTimeout;
+}
@@ -0,0 +1,20 @@
+package com.example.heuristicexception.config;
+
+import java.util.List;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.fault")
+public class FaultProperties {
+
+    /** true면 대상 DataSource를 FaultInjectingDataSource로 감싸고 /faults 엔드포인트를 연다 */
+    private boolean enabled;
+    /** 감쌀 DataSource 이름 (db1, db2) */
+    private List<String> dataSources = List.of("db2");
+    /** 확률 판정 난수 시드, 지정하면 같은 요청 순서에서 같은 결과 */
+    private Long seed;
+}
@@ -0,0 +1,24 @@
+package com.example.heuristicexception.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.approve.group-commit")
+public class GroupCommitProperties {
+
+    /** true면 /approve 요청을 모아 한 번의 복합 트랜잭션으로 적재 */
+    private boolean enabled;
+    /** 한 번에 묶는 최대 요청 수 */
+    private int maxBatch = 64;
+    /** 첫 요청 이후 더 모으기 위해 기다리는 최대 시간 */
+    private Duration maxWait = Duration.ofMillis(5);
+    /** 대기 큐 크기, 가득 차면 즉시 실패 */
+    private int queueCapacity = 4096;
+    /** 요청 마감이 없을 때 배치 결과를 기다리는 최대 시간, 넘기면 504 */
+    private Duration responseTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,20 @@
+package com.example.heuristicexception.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.approve.idempotency")
+public class IdempotencyProperties {
+
+    /** true면 최근 approvalId를 메모리에 두고 중복 /approve를 트랜잭션 없이 바로 응답 */
+    private boolean enabled = true;
+    /** 메모리에 두는 approvalId 최대 수 (절반씩 두 세대로 나눠 오래된 세대를 통째로 버린다) */
+    private int capacity = 200_000;
+    /** 세대별 Bloom filter 오탐률 */
+    private double falsePositiveRate = 0.01;
+    /** 기동 시 approval_history에서 읽어 둘 최근 approvalId 수, 0이면 읽지 않음 */
+    private int warmUpSize = 100_000;
+}
@@ -0,0 +1,40 @@
+package com.example.heuristicexception.config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.journal")
+public class JournalProperties {
+
+    /**
+     * 복합 커밋 intent 저널 사용 여부. 켜면 DB1·DB2가 모두 참여한 커밋마다 fsync 한 번(동시 요청끼리 묶임)을 기다리므로
+     * 디스크 fsync 지연만큼 커밋 지연이 늘어난다. STATE_MIXED 자동 복구가 필요할 때만 켠다.
+     */
+    private boolean enabled;
+    private Path path = Path.of("data/commit-journal.log");
+    /** BEGIN이 디스크에 내려갈 때까지 기다리는 최대 시간, 넘기면 커밋하지 않고 롤백 */
+    private Duration syncTimeout = Duration.ofSeconds(5);
+    /** 파일이 이 크기를 넘으면 미해결 항목만 남기고 다시 쓴다 */
+    private DataSize compactThreshold = DataSize.ofMegabytes(64);
+    private Reconciler reconciler = new Reconciler();
+
+    @Getter
+    @Setter
+    public static class Reconciler {
+        /** 미해결 저널 항목 복구 + 고아 행 스캔 주기 */
+        private Duration interval = Duration.ofSeconds(30);
+        /** 이보다 최근에 생성된 승인 건은 진행 중일 수 있으므로 고아 스캔에서 제외 */
+        private Duration grace = Duration.ofMinutes(1);
+        /** keyset 페이지 크기 */
+        private int pageSize = 1000;
+        /** 한 주기에 DB마다 훑는 최대 페이지 수. 커서는 다음 주기로 이어지고 끝에 닿으면 처음부터 다시 훑는다 */
+        private int scanPagesPerRun = 10;
+    }
+}
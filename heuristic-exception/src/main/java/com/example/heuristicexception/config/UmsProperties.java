@@ -0,0 +1,33 @@
+package com.example.heuristicexception.config;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("heuristic.ums")
+public class UmsProperties {
+
+    /** UMS 내역 적재 방식 */
+    private Mode mode = Mode.DIRECT;
+    private Relay relay = new Relay();
+
+    public enum Mode {
+        /** 같은 요청 안에서 DB2에 바로 insert (두 번째 커밋, 부분 커밋 재현용) */
+        DIRECT,
+        /** DB1 ums_outbox에 같은 로컬 트랜잭션으로 적재하고 릴레이가 DB2로 옮김 */
+        OUTBOX
+    }
+
+    @Getter
+    @Setter
+    public static class Relay {
+        /** 한 번에 DB2로 옮기는 최대 건수 (multi-row insert 1회) */
+        private int batchSize = 500;
+        /** 적재할 건이 없을 때 다음 폴링까지의 간격 */
+        private Duration interval = Duration.ofMillis(200);
+    }
+}
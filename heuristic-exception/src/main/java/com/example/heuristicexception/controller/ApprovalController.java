@@ -1,26 +1,165 @@
 package com.example.heuristicexception.controller;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.example.heuristicexception.batch.ApprovalGroupCommitter;
+import com.example.heuristicexception.config.ApprovalStatusProperties;
+import com.example.heuristicexception.config.GroupCommitProperties;
+import com.example.heuristicexception.deadline.DeadlineExceededException;
+import com.example.heuristicexception.deadline.RequestDeadline;
+import com.example.heuristicexception.domain.ApprovalOutcome;
 import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.ApprovalStatus;
+import com.example.heuristicexception.idempotency.ApprovalIdempotencyCache;
+import com.example.heuristicexception.limit.AdaptiveConcurrencyLimiter;
 import com.example.heuristicexception.service.ApprovalService;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/approve")
 public class ApprovalController {
 
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final ApprovalService approvalService;
+    // heuristic.approve.group-commit.enabled=true일 때만 존재
+    private final ApprovalGroupCommitter groupCommitter;
+    // heuristic.approve.limit.enabled=true일 때만 존재
+    private final AdaptiveConcurrencyLimiter limiter;
+    // heuristic.approve.idempotency.enabled=false면 null
+    private final ApprovalIdempotencyCache idempotency;
+    private final ApprovalStatusCache statusCache;
+    private final ApprovalStatusProperties statusProperties;
+    private final GroupCommitProperties groupCommitProperties;
 
-    public ApprovalController(ApprovalService approvalService) {
+    public ApprovalController(ApprovalService approvalService, ObjectProvider<ApprovalGroupCommitter> groupCommitter,
+                              ObjectProvider<AdaptiveConcurrencyLimiter> limiter, ObjectProvider<ApprovalIdempotencyCache> idempotency,
+                              ApprovalStatusCache statusCache, ApprovalStatusProperties statusProperties,
+                              GroupCommitProperties groupCommitProperties) {
         this.approvalService = approvalService;
+        this.groupCommitter = groupCommitter.getIfAvailable();
+        this.limiter = limiter.getIfAvailable();
+        this.idempotency = idempotency.getIfAvailable();
+        this.statusCache = statusCache;
+        this.statusProperties = statusProperties;
+        this.groupCommitProperties = groupCommitProperties;
     }
 
     @PostMapping
     public ResponseEntity<String> approve(@RequestBody ApprovalRequest request) {
+        if (idempotency == null) {
+            return respond(limiter == null ? process(request) : limiter.execute(() -> process(request)), false);
+        }
+        // 중복 요청은 한도 슬롯·커넥션을 쓰기 전에 원래 결과로 응답한다
+        ApprovalOutcome previous = idempotency.claim(request.approvalId());
+        if (previous != null) {
+            // 처리 중인 키는 재생할 결과가 아직 없다
+            return respond(previous, previous.status() != ApprovalOutcome.Status.IN_PROGRESS);
+        }
+        ApprovalOutcome outcome;
+        try {
+            outcome = limiter == null ? process(request) : limiter.execute(() -> process(request));
+        } catch (RuntimeException ex) {
+            idempotency.fail(request.approvalId(), ex);
+            throw ex;
+        }
+        idempotency.complete(request.approvalId(), outcome);
+        return respond(outcome, false);
+    }
+
+    /**
+     * DB1·DB2 적재 상태. 어느 쪽에도 없으면 404
+     */
+    @GetMapping("/{approvalId}")
+    public ResponseEntity<ApprovalStatus> status(@PathVariable String approvalId) {
+        ApprovalStatus status = statusCache.get(approvalId);
+        return status.state() == ApprovalStatus.State.MISSING
+                ? ResponseEntity.status(HttpStatus.NOT_FOUND).body(status)
+                : ResponseEntity.ok(status);
+    }
+
+    /**
+     * 다건 상태 조회 (GET /approve?ids=A,B,C), 요청 순서대로 돌려준다
+     */
+    @GetMapping
+    public ResponseEntity<List<ApprovalStatus>> statuses(@RequestParam("ids") List<String> approvalIds) {
+        if (approvalIds.isEmpty() || approvalIds.size() > statusProperties.getMaxIds()) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(statusCache.getAll(approvalIds));
+    }
+
+    /**
+     * 처리 결과를 상태 캐시에 반영한다. 성공이면 새 상태를 넣고, 그 밖에는 한쪽만 남았을 수 있으므로 지운다.
+     */
+    private ApprovalOutcome process(ApprovalRequest request) {
+        ApprovalOutcome outcome;
+        try {
+            outcome = groupCommitter == null ? approveNow(request) : awaitGroupCommit(request);
+        } catch (RuntimeException ex) {
+            statusCache.invalidate(List.of(request.approvalId()));
+            throw ex;
+        }
+        if (outcome.status() == ApprovalOutcome.Status.APPROVED) {
+            statusCache.approved(request.approvalId());
+        } else {
+            statusCache.invalidate(List.of(request.approvalId()));
+        }
+        return outcome;
+    }
+
+    private ApprovalOutcome approveNow(ApprovalRequest request) {
         approvalService.approveAndSendUms(request);
-        return ResponseEntity.ok("OK");
+        return ApprovalOutcome.approved(request.approvalId());
+    }
+
+    /**
+     * 요청 마감(없으면 responseTimeout)까지만 배치 결과를 기다린다. 넘기면 적재 여부를 모르므로 504로 끝낸다.
+     */
+    private ApprovalOutcome awaitGroupCommit(ApprovalRequest request) {
+        CompletableFuture<ApprovalOutcome> future = groupCommitter.submit(request);
+        long remainingNanos = RequestDeadline.remainingNanos();
+        long timeoutNanos = remainingNanos == RequestDeadline.NONE ? groupCommitProperties.getResponseTimeout().toNanos() : remainingNanos;
+        try {
+            return future.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            throw new DeadlineExceededException("Request deadline exceeded while waiting for group commit: " + request.approvalId());
+        } catch (ExecutionException ex) {
+            return ApprovalOutcome.failed(request.approvalId(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for group commit", ex);
+        }
+    }
+
+    /**
+     * @param replayed 메모리에 남은 이전 결과로 응답하는 경우 Idempotent-Replayed 헤더를 붙인다
+     */
+    private static ResponseEntity<String> respond(ApprovalOutcome outcome, boolean replayed) {
+        HttpStatus status = switch (outcome.status()) {
+            case APPROVED -> HttpStatus.OK;
+            case DUPLICATE, IN_PROGRESS -> HttpStatus.CONFLICT;
+            case FAILED -> HttpStatus.INTERNAL_SERVER_ERROR;
+            case EXPIRED -> HttpStatus.GATEWAY_TIMEOUT;
+        };
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (replayed) {
+            builder.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return builder.body(outcome.status() == ApprovalOutcome.Status.APPROVED ? "OK" : outcome.error());
     }
 }
@@ -0,0 +1,25 @@
+package com.example.heuristicexception.controller;
+
+import com.example.heuristicexception.limit.AdaptiveConcurrencyLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * /approve 적응형 동시성 한도 현재 값 (heuristic.approve.limit.enabled=true일 때만)
+ */
+@RestController
+@RequestMapping("/limits")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "heuristic.approve.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitController {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @GetMapping("/approve")
+    public AdaptiveConcurrencyLimiter.Snapshot approve() {
+        return limiter.snapshot();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.heuristicexception.controller;
+
+import java.util.List;
+
+import com.example.heuristicexception.fault.FaultInjector;
+import com.example.heuristicexception.fault.FaultRule;
+import com.example.heuristicexception.fault.FaultRuleRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 장애 주입 규칙 조회/추가/삭제 (heuristic.fault.enabled=true일 때만)
+ */
+@RestController
+@RequestMapping("/faults")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "heuristic.fault.enabled", havingValue = "true")
+public class FaultController {
+
+    private final FaultInjector faultInjector;
+
+    @GetMapping
+    public List<FaultRule.Snapshot> list() {
+        return faultInjector.snapshot();
+    }
+
+    @PostMapping
+    public FaultRule.Snapshot add(@RequestBody FaultRuleRequest request) {
+        return faultInjector.add(request).snapshot();
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> remove(@PathVariable long id) {
+        return faultInjector.remove(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        faultInjector.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
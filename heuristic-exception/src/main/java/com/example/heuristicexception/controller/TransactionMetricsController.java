@@ -0,0 +1,24 @@
+package com.example.heuristicexception.controller;
+
+import com.example.heuristicexception.metrics.TransactionMetricsReport;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 복합 트랜잭션 단계별 지연 히스토그램(마이크로초), 결과별 건수, Hikari 풀/admission 상태
+ */
+@RestController
+@RequestMapping("/tx")
+@RequiredArgsConstructor
+public class TransactionMetricsController {
+
+    private final CompositeTransactionManager compositeTxManager;
+
+    @GetMapping("/metrics")
+    public TransactionMetricsReport metrics() {
+        return compositeTxManager.metricsReport();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.heuristicexception.deadline;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Hikari 풀 바로 바깥에서 커넥션 대기를 요청의 남은 시간으로 줄인다.
+ * - 마감이 없으면 그대로 위임하고, 이미 지났으면 풀을 건드리지 않고 실패한다.
+ * - 남은 시간이 connection-timeout보다 짧으면 HikariPool.getConnection(hardTimeout)으로 그만큼만 기다린다.
+ * - 풀이 아직 시작되지 않았으면(첫 커넥션 전) 풀 기본값으로 기다린다.
+ * - 빈 destroy(추론된 close)가 이 객체에 걸리므로 close를 풀에 넘긴다.
+ */
+public class DeadlineAwareDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final HikariDataSource hikari;
+
+    public DeadlineAwareDataSource(HikariDataSource hikari) {
+        super(hikari);
+        this.hikari = hikari;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long remainingNanos = RequestDeadline.remainingNanos();
+        if (remainingNanos == RequestDeadline.NONE) {
+            return super.getConnection();
+        }
+        if (remainingNanos <= 0) {
+            throw new SQLTransientConnectionException("Request deadline exceeded before acquiring a connection from " + hikari.getPoolName());
+        }
+        long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        if (remainingMillis < hikari.getConnectionTimeout() && hikari.getHikariPoolMXBean() instanceof HikariPool pool) {
+            return pool.getConnection(remainingMillis);
+        }
+        return super.getConnection();
+    }
+
+    @Override
+    public void close() {
+        hikari.close();
+    }
+
+    /**
+     * DataSource가 Hikari 풀이면 감싸고, 아니면 그대로 돌려준다
+     */
+    public static DataSource wrap(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? new DeadlineAwareDataSource(hikari) : dataSource;
+    }
+}
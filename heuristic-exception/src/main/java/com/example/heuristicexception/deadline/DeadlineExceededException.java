@@ -0,0 +1,13 @@
+package com.example.heuristicexception.deadline;
+
+import org.springframework.transaction.TransactionTimedOutException;
+
+/**
+ * 요청 마감이 지나 커넥션을 잡거나 커밋하지 않고 포기함 (504)
+ */
+public class DeadlineExceededException extends TransactionTimedOutException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
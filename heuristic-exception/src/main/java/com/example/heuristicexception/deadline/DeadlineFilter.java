@@ -0,0 +1,52 @@
+package com.example.heuristicexception.deadline;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import com.example.heuristicexception.config.DeadlineProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 요청 헤더(기본 X-Request-Timeout, 밀리초)의 시간 예산을 요청 스레드의 {@link RequestDeadline}으로 건다.
+ * 헤더가 없거나 잘못되었으면 heuristic.deadline.default-timeout을 쓰고, 그것도 없으면 마감 없이 처리한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "heuristic.deadline.enabled", havingValue = "true", matchIfMissing = true)
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long received = System.nanoTime();
+        Duration budget = budget(request.getHeader(properties.getHeader()));
+        Long previous = RequestDeadline.set(budget == null ? null : received + budget.toNanos());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.set(previous);
+        }
+    }
+
+    private Duration budget(String header) {
+        if (header != null) {
+            try {
+                return Duration.ofMillis(Long.parseLong(header.trim()));
+            } catch (NumberFormatException ex) {
+                log.debug("[DEADLINE] ignoring invalid {}: {}", properties.getHeader(), header);
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.heuristicexception.deadline;
+
+/**
+ * 현재 스레드가 처리 중인 요청의 마감 시각(System.nanoTime 기준).
+ * {@link DeadlineFilter}가 요청 시작 시 걸고, 복합 트랜잭션이 이 값으로 커넥션 대기·트랜잭션/statement timeout을 줄인다.
+ */
+public final class RequestDeadline {
+
+    /** 마감이 없을 때 {@link #remainingNanos()} 값 */
+    public static final long NONE = Long.MAX_VALUE;
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * @return 마감 시각(ns), 없으면 null
+     */
+    public static Long get() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * 마감 시각을 바꾸고 이전 값을 돌려준다. null이면 해제
+     */
+    public static Long set(Long deadlineNanos) {
+        Long previous = DEADLINE.get();
+        if (deadlineNanos == null) {
+            DEADLINE.remove();
+        } else {
+            DEADLINE.set(deadlineNanos);
+        }
+        return previous;
+    }
+
+    public static long remainingNanos() {
+        return remainingNanos(DEADLINE.get());
+    }
+
+    public static long remainingNanos(Long deadlineNanos) {
+        return deadlineNanos == null ? NONE : deadlineNanos - System.nanoTime();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.heuristicexception.domain;
+
+public record ApprovalOutcome(
+        String approvalId,
+        Status status,
+        String error
+) {
+
+    public enum Status {
+        APPROVED, DUPLICATE, FAILED, EXPIRED, IN_PROGRESS
+    }
+
+    public static ApprovalOutcome approved(String approvalId) {
+        return new ApprovalOutcome(approvalId, Status.APPROVED, null);
+    }
+
+    public static ApprovalOutcome duplicate(String approvalId) {
+        return new ApprovalOutcome(approvalId, Status.DUPLICATE, "duplicate approvalId");
+    }
+
+    /**
+     * 같은 approvalId 요청이 아직 처리 중
+     */
+    public static ApprovalOutcome inProgress(String approvalId) {
+        return new ApprovalOutcome(approvalId, Status.IN_PROGRESS, "approval in progress");
+    }
+
+    /**
+     * 배치에 들어가기 전에 요청 마감이 지나 적재하지 않음
+     */
+    public static ApprovalOutcome expired(String approvalId) {
+        return new ApprovalOutcome(approvalId, Status.EXPIRED, "request deadline exceeded before group commit");
+    }
+
+    public static ApprovalOutcome failed(String approvalId, Throwable ex) {
+        return new ApprovalOutcome(approvalId, Status.FAILED, ex.getClass().getSimpleName() + ": " + ex.getMessage());
+    }
+}
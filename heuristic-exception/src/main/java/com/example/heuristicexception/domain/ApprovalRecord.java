@@ -0,0 +1,10 @@
+package com.example.heuristicexception.domain;
+
+/**
+ * approval_history 행과 같은 DB1의 ums_outbox 대기 여부
+ */
+public record ApprovalRecord(
+        String approvalId,
+        boolean relaying
+) {
+}
@@ -0,0 +1,55 @@
+package com.example.heuristicexception.domain;
+
+/**
+ * approvalId 하나의 DB1·DB2 적재 상태
+ *
+ * @param approvalCommitted DB1 approval_history 행 존재
+ * @param umsCommitted      DB2 ums_send_history 행 존재
+ */
+public record ApprovalStatus(
+        String approvalId,
+        State state,
+        boolean approvalCommitted,
+        boolean umsCommitted
+) {
+
+    public enum State {
+        /** 두 DB 모두 적재 */
+        COMMITTED,
+        /** DB1 승인 + ums_outbox 대기, 릴레이가 DB2로 옮기기 전 (outbox 모드) */
+        RELAYING,
+        /** 한쪽 DB에만 적재 (STATE_MIXED, reconciler 복구 대상) */
+        MIXED,
+        /** 어느 DB에도 없음 */
+        MISSING
+    }
+
+    public static ApprovalStatus committed(String approvalId) {
+        return new ApprovalStatus(approvalId, State.COMMITTED, true, true);
+    }
+
+    public static ApprovalStatus relaying(String approvalId) {
+        return new ApprovalStatus(approvalId, State.RELAYING, true, false);
+    }
+
+    public static ApprovalStatus of(String approvalId, boolean approvalCommitted, boolean relaying, boolean umsCommitted) {
+        State state;
+        if (approvalCommitted && umsCommitted) {
+            state = State.COMMITTED;
+        } else if (approvalCommitted && relaying) {
+            state = State.RELAYING;
+        } else if (approvalCommitted || umsCommitted) {
+            state = State.MIXED;
+        } else {
+            state = State.MISSING;
+        }
+        return new ApprovalStatus(approvalId, state, approvalCommitted, umsCommitted);
+    }
+
+    /**
+     * 더 바뀌지 않는 상태 (행을 지우는 경로가 없으므로 두 DB 모두 적재되면 끝)
+     */
+    public boolean isTerminal() {
+        return state == State.COMMITTED;
+    }
+}
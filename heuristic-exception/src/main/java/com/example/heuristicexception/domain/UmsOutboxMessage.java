@@ -0,0 +1,9 @@
+package com.example.heuristicexception.domain;
+
+public record UmsOutboxMessage(
+        Long id,
+        String approvalId,
+        String phoneNumber,
+        String message
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.heuristicexception.fault;
+
+public enum FaultAction {
+    /** latencyMs만큼 지연 후 원래 호출 진행 */
+    LATENCY,
+    /** 호출하지 않고 SQLTransientException */
+    EXCEPTION,
+    /** 호출하지 않고 물리 커넥션을 끊은 뒤 통신 장애(SQLState 08S01) */
+    RESET,
+    /** 호출은 수행한 뒤 커넥션을 끊고 통신 장애. COMMIT이면 서버에는 반영됐지만 응답을 못 받은 상태 */
+    RESET_AFTER
+}
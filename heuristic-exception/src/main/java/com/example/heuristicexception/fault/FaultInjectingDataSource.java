@@ -0,0 +1,190 @@
+package com.example.heuristicexception.fault;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * 커넥션 풀(Hikari) 바깥을 감싸 JDBC 호출 지점마다 {@link FaultInjector} 규칙을 적용한다.
+ * - 트랜잭션 매니저와 MyBatis가 같은 DataSource 빈(이 객체)을 보므로 CompositeTransactionManager의 자원 식별이 그대로 유지된다.
+ * - unwrap/isWrapperFor는 대상에 위임하므로 HikariDataSource 조회(admission 등)도 그대로 동작한다.
+ * - RESET은 물리 커넥션을 abort하고 08S01을 던진다. 풀에 돌아간 커넥션은 Hikari가 다음 검사/사용 시 폐기한다.
+ */
+@Slf4j
+public class FaultInjectingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_UPDATE_METHODS = Set.of("execute", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final String name;
+    private final FaultInjector injector;
+
+    public FaultInjectingDataSource(String name, DataSource target, FaultInjector injector) {
+        super(target);
+        this.name = name;
+        this.injector = injector;
+    }
+
+    /**
+     * injector가 없으면(heuristic.fault.enabled=false) 원래 DataSource를 그대로 돌려준다
+     */
+    public static DataSource wrapIfEnabled(String name, DataSource target, FaultInjector injector, Iterable<String> targets) {
+        if (injector == null) {
+            return target;
+        }
+        for (String candidate : targets) {
+            if (candidate.equals(name)) {
+                log.warn("[FAULT] {} is wrapped with FaultInjectingDataSource", name);
+                return new FaultInjectingDataSource(name, target, injector);
+            }
+        }
+        return target;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        FaultRule fault = injector.match(name, JdbcPhase.GET_CONNECTION);
+        if (fault != null) {
+            before(fault, null);
+        }
+        Connection connection = obtainTargetDataSource().getConnection();
+        if (fault != null) {
+            try {
+                after(fault, connection);
+            } catch (SQLException ex) {
+                // 호출자에게 넘어가지 않는 커넥션이므로 여기서 풀에 돌려준다
+                connection.close();
+                throw ex;
+            }
+        }
+        return wrap(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private Object invoke(JdbcPhase phase, Connection connection, Object target, Method method, Object[] args) throws Throwable {
+        FaultRule fault = injector.match(name, phase);
+        if (fault != null) {
+            before(fault, connection);
+        }
+        Object result = invoke(target, method, args);
+        if (fault != null) {
+            after(fault, connection);
+        }
+        return result;
+    }
+
+    private void before(FaultRule fault, Connection connection) throws SQLException {
+        switch (fault.action()) {
+            case LATENCY -> {
+                try {
+                    Thread.sleep(fault.latencyMs());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLTransientException("Interrupted during injected latency", ex);
+                }
+            }
+            case EXCEPTION -> throw new SQLTransientException("Injected fault at " + name + " " + fault.phase());
+            case RESET -> reset(fault, connection);
+            case RESET_AFTER -> {
+            }
+        }
+    }
+
+    private void after(FaultRule fault, Connection connection) throws SQLException {
+        if (fault.action() == FaultAction.RESET_AFTER) {
+            reset(fault, connection);
+        }
+    }
+
+    private void reset(FaultRule fault, Connection connection) throws SQLException {
+        if (connection != null) {
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException | RuntimeException ignored) {
+                // 이미 끊긴 커넥션
+            }
+        }
+        throw new SQLNonTransientConnectionException("Injected connection reset at " + name + " " + fault.phase(), "08S01");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            boolean noArgs = args == null || args.length == 0;
+            switch (method.getName()) {
+                case "commit":
+                    return FaultInjectingDataSource.this.invoke(JdbcPhase.COMMIT, target, target, method, args);
+                case "rollback":
+                    // rollback(Savepoint)은 대상이 아님
+                    return noArgs
+                            ? FaultInjectingDataSource.this.invoke(JdbcPhase.ROLLBACK, target, target, method, args)
+                            : FaultInjectingDataSource.invoke(target, method, args);
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    return wrapStatement((Statement) FaultInjectingDataSource.invoke(target, method, args), method.getReturnType());
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "FaultInjecting[" + target + "]";
+                default:
+                    return FaultInjectingDataSource.invoke(target, method, args);
+            }
+        }
+
+        private Object wrapStatement(Statement statement, Class<?> type) {
+            Class<?> statementType = type == CallableStatement.class ? CallableStatement.class
+                    : type == PreparedStatement.class ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{statementType},
+                    (proxy, method, args) -> EXECUTE_UPDATE_METHODS.contains(method.getName())
+                            ? FaultInjectingDataSource.this.invoke(JdbcPhase.EXECUTE_UPDATE, target, statement, method, args)
+                            : FaultInjectingDataSource.invoke(statement, method, args));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.heuristicexception.fault;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.heuristicexception.config.FaultProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 런타임에 바뀌는 장애 주입 규칙 목록. 규칙이 없으면 {@link #match}는 리스트 크기 확인만 하고 끝난다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "heuristic.fault.enabled", havingValue = "true")
+public class FaultInjector {
+
+    private final List<FaultRule> rules = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final Random random;
+
+    public FaultInjector(FaultProperties properties) {
+        this.random = properties.getSeed() == null ? new Random() : new Random(properties.getSeed());
+    }
+
+    public FaultRule add(FaultRuleRequest request) {
+        FaultRule rule = new FaultRule(ids.incrementAndGet(), request);
+        rules.add(rule);
+        log.warn("[FAULT] added {}", rule.snapshot());
+        return rule;
+    }
+
+    public boolean remove(long id) {
+        return rules.removeIf(rule -> rule.id() == id);
+    }
+
+    public void clear() {
+        rules.clear();
+        log.warn("[FAULT] cleared");
+    }
+
+    public List<FaultRule.Snapshot> snapshot() {
+        return rules.stream().map(FaultRule::snapshot).toList();
+    }
+
+    /**
+     * dataSource/phase에 맞는 첫 규칙을 확률로 판정해 돌려준다. 주입하지 않으면 null
+     */
+    FaultRule match(String dataSource, JdbcPhase phase) {
+        if (rules.isEmpty()) {
+            return null;
+        }
+        for (FaultRule rule : rules) {
+            if (!rule.matches(dataSource, phase) || rule.isExhausted()) {
+                continue;
+            }
+            if ((rule.probability() >= 1 || random.nextDouble() < rule.probability()) && rule.claim()) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.heuristicexception.fault;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 주입 규칙 하나. times가 0 이하면 무제한, 양수면 그 횟수만큼 주입한 뒤 더 이상 맞지 않는다.
+ */
+public final class FaultRule {
+
+    private final long id;
+    private final String dataSource;
+    private final JdbcPhase phase;
+    private final FaultAction action;
+    private final double probability;
+    private final long latencyMs;
+    private final AtomicInteger remaining;
+    private final AtomicLong injected = new AtomicLong();
+
+    FaultRule(long id, FaultRuleRequest request) {
+        this.id = id;
+        this.dataSource = request.dataSource();
+        this.phase = request.phase();
+        this.action = request.action();
+        this.probability = request.probability();
+        this.latencyMs = request.latencyMs();
+        this.remaining = request.times() > 0 ? new AtomicInteger(request.times()) : null;
+    }
+
+    boolean matches(String dataSource, JdbcPhase phase) {
+        return this.phase == phase && this.dataSource.equals(dataSource);
+    }
+
+    /**
+     * 남은 횟수를 하나 쓴다. 이미 다 썼으면 false
+     */
+    boolean claim() {
+        if (remaining != null && remaining.getAndUpdate(left -> left > 0 ? left - 1 : 0) == 0) {
+            return false;
+        }
+        injected.incrementAndGet();
+        return true;
+    }
+
+    boolean isExhausted() {
+        return remaining != null && remaining.get() == 0;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public JdbcPhase phase() {
+        return phase;
+    }
+
+    public FaultAction action() {
+        return action;
+    }
+
+    public double probability() {
+        return probability;
+    }
+
+    public long latencyMs() {
+        return latencyMs;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(id, dataSource, phase, action, probability, latencyMs,
+                remaining == null ? -1 : remaining.get(), injected.get());
+    }
+
+    /**
+     * @param remaining 무제한이면 -1
+     */
+    public record Snapshot(long id, String dataSource, JdbcPhase phase, FaultAction action, double probability,
+                           long latencyMs, int remaining, long injected) {
+    }
+}
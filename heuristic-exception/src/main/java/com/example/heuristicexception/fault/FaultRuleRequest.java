@@ -0,0 +1,24 @@
+package com.example.heuristicexception.fault;
+
+/**
+ * POST /faults 본문
+ *
+ * @param probability 0~1, 호출마다 이 확률로 주입
+ * @param latencyMs   LATENCY일 때 지연 시간
+ * @param times       0 이하면 무제한
+ */
+public record FaultRuleRequest(String dataSource, JdbcPhase phase, FaultAction action, double probability,
+                               long latencyMs, int times) {
+
+    public FaultRuleRequest {
+        if (dataSource == null || phase == null || action == null) {
+            throw new IllegalArgumentException("dataSource, phase and action are required");
+        }
+        if (probability <= 0 || probability > 1) {
+            throw new IllegalArgumentException("probability must be in (0, 1]: " + probability);
+        }
+        if (action == FaultAction.LATENCY && latencyMs <= 0) {
+            throw new IllegalArgumentException("latencyMs is required for LATENCY");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.heuristicexception.fault;
+
+/**
+ * 장애를 주입할 JDBC 호출 지점
+ */
+public enum JdbcPhase {
+    GET_CONNECTION,
+    /** Statement의 execute/executeUpdate/executeLargeUpdate/executeBatch (MyBatis insert는 PreparedStatement.execute) */
+    EXECUTE_UPDATE,
+    COMMIT,
+    ROLLBACK
+}
@@ -0,0 +1,148 @@
+package com.example.heuristicexception.idempotency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.heuristicexception.cache.TwoGenerationMap;
+import com.example.heuristicexception.config.IdempotencyProperties;
+import com.example.heuristicexception.domain.ApprovalOutcome;
+import com.example.heuristicexception.domain.ApprovalStatus;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.HeuristicCompletionException;
+
+/**
+ * 최근 approvalId와 그 결과를 메모리에 두어, 중복 /approve를 커넥션을 잡기 전에 원래 결과로 응답한다.
+ * - {@link TwoGenerationMap}에 capacity 건까지 두고, 세대마다 Bloom filter를 앞에 두어 처음 보는 키는 맵 조회 없이 통과시킨다.
+ * - 처리 중인 키는 IN_PROGRESS로 선점해 동시 중복 요청도 바로 막는다.
+ * - DB1에 승인 행이 남은 경우(성공, 중복 키, STATE_MIXED)만 그 결과(APPROVED, DUPLICATE, FAILED)를 남기고, 그 밖의 실패는 선점을 풀어 재시도를 허용한다.
+ * - 기동 시 approval_history의 최근 approvalId를 ResultHandler로 스트리밍해 "승인 행은 있으나 결과는 모름"으로 채운다.
+ *   그 키가 처음 다시 들어오면 ApprovalStatusCache로 DB2 적재 여부를 읽어 실행 중 남겼을 결과(APPROVED 또는 STATE_MIXED의 FAILED)로 바꾼다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "heuristic.approve.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class ApprovalIdempotencyCache implements InitializingBean {
+
+    // 기동 시 채운 키, 응답으로 나가지 않고 claim에서 실제 결과로 바뀐다
+    private static final ApprovalOutcome WARMED = new ApprovalOutcome(null, ApprovalOutcome.Status.IN_PROGRESS, "warmed from approval_history");
+
+    private final IdempotencyProperties properties;
+    private final ApprovalHistoryMapper approvalHistoryMapper;
+    private final ApprovalStatusCache statusCache;
+    private final TwoGenerationMap<ApprovalOutcome> outcomes;
+
+    public ApprovalIdempotencyCache(IdempotencyProperties properties, ApprovalHistoryMapper approvalHistoryMapper,
+                                    ApprovalStatusCache statusCache) {
+        this.properties = properties;
+        this.approvalHistoryMapper = approvalHistoryMapper;
+        this.statusCache = statusCache;
+        this.outcomes = new TwoGenerationMap<>(properties.getCapacity(), properties.getFalsePositiveRate());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (properties.getWarmUpSize() <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        AtomicInteger warmed = new AtomicInteger();
+        try {
+            approvalHistoryMapper.streamRecentApprovalIds(properties.getWarmUpSize(), context -> {
+                String approvalId = context.getResultObject();
+                remember(approvalId, WARMED);
+                warmed.incrementAndGet();
+            });
+            log.info("[IDEMPOTENCY] warmed {} approvalIds in {}ms", warmed.get(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception ex) {
+            // DB1이 아직 없으면 빈 상태로 시작한다 (중복은 uk_approval_id가 막는다)
+            log.warn("[IDEMPOTENCY] warm-up stopped after {} approvalIds: {}", warmed.get(), ex.getMessage());
+        }
+    }
+
+    /**
+     * approvalId를 선점한다.
+     *
+     * @return 처음 보는 키면 null, 이미 처리됐으면 남겨 둔 결과, 처리 중이면 IN_PROGRESS
+     */
+    public ApprovalOutcome claim(String approvalId) {
+        ApprovalOutcome seen = outcomes.get(approvalId);
+        if (seen == WARMED) {
+            seen = resolveWarmed(approvalId);
+        }
+        return seen != null ? seen : remember(approvalId, ApprovalOutcome.inProgress(approvalId));
+    }
+
+    /**
+     * {@link #claim} 이후 처리 결과. APPROVED/DUPLICATE면 승인 행이 있으므로 그대로 남기고, 그 밖이면 선점을 푼다.
+     */
+    public void complete(String approvalId, ApprovalOutcome outcome) {
+        if (outcome.status() == ApprovalOutcome.Status.APPROVED || outcome.status() == ApprovalOutcome.Status.DUPLICATE) {
+            record(approvalId, outcome);
+        } else {
+            release(approvalId);
+        }
+    }
+
+    /**
+     * {@link #claim} 이후 예외로 끝난 경우. DB1 승인 행이 남았을 수 있는 예외만 남긴다.
+     * 중복 키는 DUPLICATE, STATE_MIXED는 DB2가 빠졌으므로 APPROVED가 아닌 FAILED(원래 예외 메시지)로 남긴다.
+     */
+    public void fail(String approvalId, Throwable ex) {
+        if (ex instanceof DuplicateKeyException) {
+            record(approvalId, ApprovalOutcome.duplicate(approvalId));
+        } else if (ex instanceof HeuristicCompletionException heuristic
+                && heuristic.getOutcomeState() == HeuristicCompletionException.STATE_MIXED) {
+            record(approvalId, ApprovalOutcome.failed(approvalId, ex));
+        } else {
+            release(approvalId);
+        }
+    }
+
+    /**
+     * 기동 시 채운 키의 결과를 DB1·DB2 적재 상태로 정한다. 실행 중에 {@link #fail}이 남겼을 결과와 같게 맞춘다.
+     *
+     * @return 재생할 결과, 승인 행이 어느 DB에도 없으면 선점을 풀고 null
+     */
+    private ApprovalOutcome resolveWarmed(String approvalId) {
+        ApprovalStatus status = statusCache.get(approvalId);
+        ApprovalOutcome outcome = switch (status.state()) {
+            case COMMITTED, RELAYING -> ApprovalOutcome.approved(approvalId);
+            case MIXED -> ApprovalOutcome.failed(approvalId,
+                    new HeuristicCompletionException(HeuristicCompletionException.STATE_MIXED, null));
+            case MISSING -> null;
+        };
+        if (outcome == null) {
+            outcomes.remove(approvalId, WARMED);
+            return null;
+        }
+        if (!outcomes.replace(approvalId, WARMED, outcome)) {
+            // 동시에 들어온 같은 키가 먼저 바꿨으면 그 값을 따른다
+            ApprovalOutcome current = outcomes.get(approvalId);
+            return current != null ? current : outcome;
+        }
+        return outcome;
+    }
+
+    /**
+     * @return 이미 있던 값, 새로 넣었으면 null
+     */
+    private ApprovalOutcome remember(String approvalId, ApprovalOutcome outcome) {
+        return outcomes.putIfAbsent(approvalId, outcome);
+    }
+
+    private void record(String approvalId, ApprovalOutcome outcome) {
+        if (!outcomes.replace(approvalId, outcome)) {
+            // 처리 중에 세대가 밀려 선점이 사라졌으면 다시 넣는다
+            outcomes.putIfAbsent(approvalId, outcome);
+        }
+    }
+
+    private void release(String approvalId) {
+        outcomes.remove(approvalId, ApprovalOutcome.inProgress(approvalId));
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.heuristicexception.journal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.example.heuristicexception.config.JournalProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * STATE_MIXED 승인 건 자동 복구.
+ * 1) 저널의 미해결 항목: DB1에는 있고 DB2에는 없는 키를 저널 페이로드로 DB2에 다시 적재(중복 키는 그대로 두는 upsert)하고 해결 처리
+ * 2) 고아 스캔: approval_history와 ums_send_history를 approval_id keyset으로 페이지 단위로 훑으며 페이지마다 상대 DB(와 outbox)를 IN 조회로 대조한다.
+ *    주기마다 DB별로 scanPagesPerRun페이지까지만 보고 커서를 다음 주기로 넘기므로, 한 주기의 비용은 테이블 크기와 무관하다.
+ *    DB1에만 있는 행은 저널 페이로드로 채우고, 페이로드가 없거나 DB2에만 있는 행은 건수/샘플만 남긴다.
+ * 각 단계는 autocommit 단일 문장이며 @MultiResourceTransactional이 없으므로 복합 트랜잭션 대상이 아니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "heuristic.journal.enabled", havingValue = "true")
+public class ApprovalReconciler {
+
+    private static final int MAX_LOGGED_ORPHANS = 20;
+
+    private final CommitJournal journal;
+    private final JournalProperties properties;
+    private final UmsProperties umsProperties;
+    private final ApprovalHistoryMapper approvalHistoryMapper;
+    private final UmsSendHistoryMapper umsSendHistoryMapper;
+    private final UmsOutboxMapper umsOutboxMapper;
+    private final ApprovalStatusCache statusCache;
+    // 주기를 넘어 이어지는 keyset 커서 (reconcile은 한 스레드에서만 돈다)
+    private String db1Cursor = "";
+    private String db2Cursor = "";
+
+    @Scheduled(initialDelayString = "${heuristic.journal.reconciler.interval:30s}",
+            fixedDelayString = "${heuristic.journal.reconciler.interval:30s}")
+    public void reconcile() {
+        try {
+            replayJournal();
+            scanOrphans();
+            journal.compactIfNecessary();
+        } catch (Exception ex) {
+            log.warn("[RECONCILE] failed, will retry next round, ex={}", ex.getClass().getSimpleName(), ex);
+        }
+    }
+
+    private void replayJournal() {
+        for (CommitJournal.Entry entry : journal.unresolved()) {
+            List<String> keys = entry.tags().stream().map(CommitJournal.Tag::key).toList();
+            Set<String> inDb1 = new HashSet<>(approvalHistoryMapper.findExistingApprovalIds(keys));
+            Set<String> inDb2 = new HashSet<>(umsSendHistoryMapper.findExistingApprovalIds(keys));
+            List<UmsOutboxMessage> missing = new ArrayList<>();
+            for (CommitJournal.Tag tag : entry.tags()) {
+                if (inDb1.contains(tag.key()) && !inDb2.contains(tag.key())) {
+                    missing.add(toMessage(tag));
+                } else if (!inDb1.contains(tag.key()) && inDb2.contains(tag.key())) {
+                    log.warn("[RECONCILE] approvalId={} exists only in DB2, manual check required", tag.key());
+                }
+            }
+            if (!missing.isEmpty()) {
+                umsSendHistoryMapper.insertUmsHistories(missing);
+                statusCache.invalidate(missing.stream().map(UmsOutboxMessage::approvalId).toList());
+                log.info("[RECONCILE] txId={} repaired {} ums rows", entry.txId(), missing.size());
+            }
+            journal.resolve(entry.txId());
+        }
+    }
+
+    private void scanOrphans() {
+        db1Cursor = scanApprovals(db1Cursor);
+        db2Cursor = scanUmsHistories(db2Cursor);
+    }
+
+    /**
+     * DB1 approval_history에서 after 다음부터 최대 scanPagesPerRun페이지를 훑어 DB2에 짝이 없는 행을 저널 값으로 채운다.
+     *
+     * @return 다음 주기에 이어서 볼 커서, 끝까지 봤으면 ""
+     */
+    private String scanApprovals(String after) {
+        JournalProperties.Reconciler reconciler = properties.getReconciler();
+        long graceSeconds = reconciler.getGrace().toSeconds();
+        boolean outbox = umsProperties.getMode() == UmsProperties.Mode.OUTBOX;
+        int scanned = 0;
+        int repaired = 0;
+        int unrepairable = 0;
+        List<String> sample = new ArrayList<>();
+        for (int pages = 0; pages < reconciler.getScanPagesPerRun(); pages++) {
+            List<String> page = approvalHistoryMapper.findApprovalIdsAfter(after, graceSeconds, reconciler.getPageSize());
+            scanned += page.size();
+            Set<String> orphans = new HashSet<>(page);
+            if (!page.isEmpty()) {
+                umsSendHistoryMapper.findExistingApprovalIds(page).forEach(orphans::remove);
+            }
+            if (outbox && !orphans.isEmpty()) {
+                // 릴레이 대기 중인 건은 고아가 아니다
+                umsOutboxMapper.findExistingApprovalIds(orphans).forEach(orphans::remove);
+            }
+            List<UmsOutboxMessage> repairs = new ArrayList<>();
+            for (String approvalId : orphans) {
+                CommitJournal.Tag tag = journal.findTag(approvalId);
+                if (tag != null) {
+                    repairs.add(toMessage(tag));
+                } else if (unrepairable++ < MAX_LOGGED_ORPHANS) {
+                    sample.add(approvalId);
+                }
+            }
+            if (!repairs.isEmpty()) {
+                umsSendHistoryMapper.insertUmsHistories(repairs);
+                repaired += repairs.size();
+                statusCache.invalidate(repairs.stream().map(UmsOutboxMessage::approvalId).toList());
+            }
+            if (page.size() < reconciler.getPageSize()) {
+                after = "";
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+        if (repaired > 0 || unrepairable > 0) {
+            log.warn("[RECONCILE] DB1 scanned={}, repaired={}, orphansWithoutJournal={} sample={}", scanned, repaired, unrepairable, sample);
+        }
+        return after;
+    }
+
+    /**
+     * DB2 ums_send_history에서 after 다음부터 최대 scanPagesPerRun페이지를 훑어 DB1에 승인 행이 없는 건을 찾는다.
+     * 어느 쪽이 맞는지 알 수 없으므로 고치지 않고 건수/샘플만 남긴다.
+     *
+     * @return 다음 주기에 이어서 볼 커서, 끝까지 봤으면 ""
+     */
+    private String scanUmsHistories(String after) {
+        JournalProperties.Reconciler reconciler = properties.getReconciler();
+        long graceSeconds = reconciler.getGrace().toSeconds();
+        int scanned = 0;
+        int orphans = 0;
+        List<String> sample = new ArrayList<>();
+        for (int pages = 0; pages < reconciler.getScanPagesPerRun(); pages++) {
+            List<String> page = umsSendHistoryMapper.findApprovalIdsAfter(after, graceSeconds, reconciler.getPageSize());
+            scanned += page.size();
+            if (!page.isEmpty()) {
+                Set<String> onlyInDb2 = new HashSet<>(page);
+                approvalHistoryMapper.findExistingApprovalIds(page).forEach(onlyInDb2::remove);
+                for (String approvalId : onlyInDb2) {
+                    if (orphans++ < MAX_LOGGED_ORPHANS) {
+                        sample.add(approvalId);
+                    }
+                }
+            }
+            if (page.size() < reconciler.getPageSize()) {
+                after = "";
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+        if (orphans > 0) {
+            log.warn("[RECONCILE] DB2 scanned={}, onlyInDb2={} sample={}, manual check required", scanned, orphans, sample);
+        }
+        return after;
+    }
+
+    private static UmsOutboxMessage toMessage(CommitJournal.Tag tag) {
+        // ApprovalService가 남기는 페이로드: [phoneNumber, message]
+        return new UmsOutboxMessage(null, tag.key(), tag.payload().get(0), tag.payload().get(1));
+    }
+}
@@ -0,0 +1,502 @@
+package com.example.heuristicexception.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import com.example.heuristicexception.config.JournalProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 복합 트랜잭션 커밋 intent 저널 (append-only 파일).
+ * - 레코드: [length int][crc32 int][type byte][txId long][body]
+ * - BEGIN(키/페이로드, 참여 자원)은 첫 커밋 전에 디스크에 내려가야 하므로 {@link #begin}은 fsync까지 기다린다 (최대 syncTimeout).
+ *   여러 스레드의 BEGIN은 flusher 스레드의 force 한 번에 묶인다 (그룹 fsync). force는 append 락 밖에서 돌므로 fsync 중에도 append는 막히지 않는다.
+ * - fsync가 한 번이라도 실패하면 이미 쓴 페이지의 내구성을 보장할 수 없으므로, 기다리던 쪽과 이후의 {@link #begin}은 모두 실패한다 (재기동 필요).
+ * - 자원별 커밋 결과/종료 레코드는 기다리지 않는다. 종료 레코드가 유실되면 재기동 시 미해결로 보고 reconciler가 다시 확인한다.
+ * - 미해결(MIXED 또는 종료 레코드 없음) 항목만 메모리에 유지한다.
+ * - 요청 스레드가 파일 쓰기/fsync 대기 중에 가상 스레드 carrier를 붙잡지 않도록 synchronized 대신 ReentrantLock을 쓴다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "heuristic.journal.enabled", havingValue = "true")
+public class CommitJournal implements DisposableBean {
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final byte BEGIN = 1;
+    private static final byte DELEGATE_COMMITTED = 2;
+    private static final byte END = 3;
+    private static final byte RESOLVED = 4;
+
+    private final Path path;
+    private final long compactThreshold;
+    private final long syncTimeoutNanos;
+    private final Map<Long, Entry> open = new ConcurrentHashMap<>();
+    // 파일 append/교체
+    private final ReentrantLock lock = new ReentrantLock();
+    // force와 채널 교체가 겹치지 않게 한다 (lock → forceLock 순으로만 잡는다)
+    private final ReentrantLock forceLock = new ReentrantLock();
+    // written/flushed 대기 (lock → forceLock → flushLock 순으로만 잡는다)
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition pending = flushLock.newCondition();
+    private final Condition durable = flushLock.newCondition();
+    private final Thread flusher;
+    private FileChannel channel;
+    private long nextTxId = 1;
+    // 현재 파일 크기 (compaction 판단용)
+    private long fileSize;
+    // 프로세스 시작 이후 append된 누적 바이트 / fsync 완료된 누적 바이트 (compaction과 무관하게 단조 증가)
+    private volatile long written;
+    private long flushed;
+    // fsync 실패, 한 번 설정되면 유지
+    private IOException failure;
+    // FileChannel은 I/O 중 인터럽트되면 닫히므로 flusher는 인터럽트 대신 이 플래그로 멈춘다
+    private boolean closing;
+
+    public CommitJournal(JournalProperties properties) throws IOException {
+        this.path = properties.getPath();
+        this.compactThreshold = properties.getCompactThreshold().toBytes();
+        this.syncTimeoutNanos = properties.getSyncTimeout().toNanos();
+        recover();
+        this.flusher = new Thread(this::flushLoop, "commit-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 커밋 intent를 기록하고 fsync될 때까지 기다린다.
+     *
+     * @param enlisted 참여한 자원 인덱스 비트마스크
+     * @return txId
+     */
+    public long begin(List<Tag> tags, int enlisted) {
+        long txId;
+        long position;
+        lock.lock();
+        try {
+            txId = nextTxId++;
+            position = append(BEGIN, txId, out -> {
+                out.writeInt(enlisted);
+                out.writeInt(tags.size());
+                for (Tag tag : tags) {
+                    out.writeUTF(tag.key());
+                    out.writeInt(tag.payload().size());
+                    for (String field : tag.payload()) {
+                        out.writeUTF(field);
+                    }
+                }
+            });
+            open.put(txId, new Entry(txId, List.copyOf(tags), enlisted));
+        } finally {
+            lock.unlock();
+        }
+        try {
+            awaitDurable(position);
+        } catch (RuntimeException ex) {
+            // 호출자는 커밋을 시작하지 않고 롤백한다
+            open.remove(txId);
+            throw ex;
+        }
+        return txId;
+    }
+
+    public void committed(long txId, int index) {
+        Entry entry = open.get(txId);
+        if (entry != null) {
+            entry.committed |= 1 << index;
+        }
+        lock.lock();
+        try {
+            append(DELEGATE_COMMITTED, txId, out -> out.writeByte(index));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void end(long txId, Outcome outcome) {
+        lock.lock();
+        try {
+            append(END, txId, out -> out.writeByte(outcome.ordinal()));
+        } finally {
+            lock.unlock();
+        }
+        if (outcome == Outcome.MIXED) {
+            Entry entry = open.get(txId);
+            if (entry != null) {
+                entry.needsRepair = true;
+            }
+        } else {
+            open.remove(txId);
+        }
+    }
+
+    /**
+     * reconciler가 확인/복구를 끝낸 항목
+     */
+    public void resolve(long txId) {
+        lock.lock();
+        try {
+            append(RESOLVED, txId, out -> {
+            });
+        } finally {
+            lock.unlock();
+        }
+        open.remove(txId);
+    }
+
+    /**
+     * 복구 대상 항목: MIXED로 끝났거나, 이전 프로세스에서 종료 레코드 없이 끊긴 항목
+     */
+    public List<Entry> unresolved() {
+        return open.values().stream().filter(entry -> entry.needsRepair).toList();
+    }
+
+    /**
+     * 미해결 항목에서 키로 페이로드를 찾는다 (고아 행 복구용)
+     */
+    public Tag findTag(String key) {
+        for (Entry entry : open.values()) {
+            for (Tag tag : entry.tags) {
+                if (tag.key().equals(key)) {
+                    return tag;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 파일이 임계치를 넘으면 미해결 항목의 BEGIN만 새 파일에 옮겨 적고 교체한다.
+     */
+    public void compactIfNecessary() {
+        lock.lock();
+        forceLock.lock();
+        try {
+            if (fileSize < compactThreshold) {
+                return;
+            }
+            forceNow();
+            Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (Entry entry : open.values()) {
+                    target.write(ByteBuffer.wrap(encodeBegin(entry)));
+                }
+                target.force(true);
+            }
+            channel.close();
+            Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            fileSize = channel.size();
+            log.info("[JOURNAL] compacted, open entries={}, size={}", open.size(), fileSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            forceLock.unlock();
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flushLock.lock();
+        try {
+            closing = true;
+            pending.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        try {
+            flusher.join(5_000);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        forceLock.lock();
+        try {
+            forceNow();
+            channel.close();
+        } finally {
+            forceLock.unlock();
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (Files.exists(path)) {
+            byte[] bytes = Files.readAllBytes(path);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int valid = 0;
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt(valid);
+                int crc = buffer.getInt(valid + Integer.BYTES);
+                if (length <= 0 || valid + HEADER_SIZE + length > bytes.length || crc != crc(bytes, valid + HEADER_SIZE, length)) {
+                    break;
+                }
+                replay(new DataInputStream(new ByteArrayInputStream(bytes, valid + HEADER_SIZE, length)));
+                valid += HEADER_SIZE + length;
+                buffer.position(valid);
+            }
+            if (valid < bytes.length) {
+                // 쓰다 끊긴 꼬리 레코드 제거
+                log.warn("[JOURNAL] truncating torn tail at {} ({} bytes)", valid, bytes.length - valid);
+                try (FileChannel truncate = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    truncate.truncate(valid);
+                }
+            }
+        }
+        // 이전 프로세스에서 종료되지 않은 항목은 모두 확인 대상
+        open.values().forEach(entry -> entry.needsRepair = true);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileSize = channel.size();
+        if (!open.isEmpty()) {
+            log.warn("[JOURNAL] {} unresolved composite commits found", open.size());
+        }
+    }
+
+    private void replay(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        long txId = in.readLong();
+        nextTxId = Math.max(nextTxId, txId + 1);
+        switch (type) {
+            case BEGIN -> {
+                int enlisted = in.readInt();
+                int count = in.readInt();
+                List<Tag> tags = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    String key = in.readUTF();
+                    int fields = in.readInt();
+                    List<String> payload = new ArrayList<>(fields);
+                    for (int j = 0; j < fields; j++) {
+                        payload.add(in.readUTF());
+                    }
+                    tags.add(new Tag(key, payload));
+                }
+                open.put(txId, new Entry(txId, tags, enlisted));
+            }
+            case DELEGATE_COMMITTED -> {
+                int index = in.readByte();
+                Entry entry = open.get(txId);
+                if (entry != null) {
+                    entry.committed |= 1 << index;
+                }
+            }
+            case END -> {
+                if (Outcome.values()[in.readByte()] != Outcome.MIXED) {
+                    open.remove(txId);
+                }
+            }
+            case RESOLVED -> open.remove(txId);
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private long append(byte type, long txId, BodyWriter body) {
+        try {
+            byte[] record = encode(type, txId, body);
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            fileSize += record.length;
+            written += record.length;
+            flushLock.lock();
+            try {
+                pending.signal();
+            } finally {
+                flushLock.unlock();
+            }
+            return written;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private byte[] encodeBegin(Entry entry) throws IOException {
+        return encode(BEGIN, entry.txId, out -> {
+            out.writeInt(entry.enlisted);
+            out.writeInt(entry.tags.size());
+            for (Tag tag : entry.tags) {
+                out.writeUTF(tag.key());
+                out.writeInt(tag.payload().size());
+                for (String field : tag.payload()) {
+                    out.writeUTF(field);
+                }
+            }
+        });
+    }
+
+    private static byte[] encode(byte type, long txId, BodyWriter body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeByte(type);
+        out.writeLong(txId);
+        body.write(out);
+        byte[] record = bytes.toByteArray();
+        int length = record.length - HEADER_SIZE;
+        ByteBuffer.wrap(record).putInt(0, length).putInt(Integer.BYTES, crc(record, HEADER_SIZE, length));
+        return record;
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private void awaitDurable(long position) {
+        flushLock.lock();
+        try {
+            long nanos = syncTimeoutNanos;
+            while (flushed < position) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal fsync failed", failure);
+                }
+                if (nanos <= 0) {
+                    throw new UncheckedIOException(new IOException("Journal fsync timed out after " + syncTimeoutNanos / 1_000_000 + "ms"));
+                }
+                nanos = durable.awaitNanos(nanos);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal fsync", ex);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 새로 쓰인 바이트가 있으면 force 한 번으로 그때까지의 레코드를 모두 내린다.
+     * written은 write가 끝난 뒤에 늘어나므로, force 전에 읽은 값까지는 이번 force에 포함된다.
+     */
+    private void flushLoop() {
+        while (true) {
+            try {
+                flushLock.lock();
+                try {
+                    while (!closing && flushed >= written) {
+                        pending.await();
+                    }
+                    if (closing) {
+                        return;
+                    }
+                } finally {
+                    flushLock.unlock();
+                }
+                long target = written;
+                forceLock.lock();
+                try {
+                    channel.force(false);
+                } finally {
+                    forceLock.unlock();
+                }
+                markFlushed(target);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException ex) {
+                log.error("[JOURNAL] fsync failed, failing pending and future commits", ex);
+                markFailed(ex);
+                return;
+            }
+        }
+    }
+
+    /**
+     * lock, forceLock을 잡은 상태에서 호출
+     */
+    private void forceNow() throws IOException {
+        try {
+            channel.force(false);
+        } catch (IOException ex) {
+            markFailed(ex);
+            throw ex;
+        }
+        markFlushed(written);
+    }
+
+    private void markFailed(IOException ex) {
+        flushLock.lock();
+        try {
+            if (failure == null) {
+                failure = ex;
+            }
+            durable.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void markFlushed(long target) {
+        flushLock.lock();
+        try {
+            flushed = Math.max(flushed, target);
+            durable.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public enum Outcome {
+        COMMITTED, ROLLED_BACK, MIXED
+    }
+
+    /**
+     * @param key     복구 시 행을 찾는 키 (approvalId)
+     * @param payload 복구에 필요한 나머지 값
+     */
+    public record Tag(String key, List<String> payload) {
+    }
+
+    public static final class Entry {
+        private final long txId;
+        private final List<Tag> tags;
+        private final int enlisted;
+        private volatile int committed;
+        private volatile boolean needsRepair;
+
+        Entry(long txId, List<Tag> tags, int enlisted) {
+            this.txId = txId;
+            this.tags = tags;
+            this.enlisted = enlisted;
+        }
+
+        public long txId() {
+            return txId;
+        }
+
+        public List<Tag> tags() {
+            return tags;
+        }
+
+        public boolean isCommitted(int index) {
+            return (committed & (1 << index)) != 0;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.heuristicexception.limit;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.example.heuristicexception.config.ConcurrencyLimitProperties;
+import com.example.heuristicexception.deadline.RequestDeadline;
+import com.example.heuristicexception.outbox.UmsOutboxRelay;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * /approve 동시 처리 수를 DB2 커밋 RTT로 학습하는 Vegas 방식 한도.
+ * - minRtt(부하 없을 때의 커밋 RTT) 대비 현재 RTT로 DB2 앞에 쌓인 대기열을 limit × (1 - minRtt/rtt)로 추정한다.
+ *   대기열이 작으면 한도를 늘리고, beta를 넘으면 줄인다. 커밋 실패나 maxRtt 초과는 즉시 줄인다.
+ * - 한도를 넘은 요청은 maxQueueWait(요청 마감이 더 이르면 그때)까지 슬롯을 기다리고, 그래도 없으면 {@link LimitExceededException}(503).
+ * - 동시 처리 수가 한도의 절반에도 못 미치면(부하가 낮으면) RTT가 좋아도 한도를 늘리지 않는다.
+ * - ums.mode=outbox면 /approve는 DB2에 커밋하지 않으므로, 릴레이의 DB2 적재 시간을 샘플로 받는다 (resource가 db2일 때).
+ *   DB2가 느려 릴레이가 밀리면 한도가 줄어 outbox가 쌓이는 속도를 늦춘다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "heuristic.approve.limit.enabled", havingValue = "true")
+public class AdaptiveConcurrencyLimiter implements InitializingBean, DisposableBean {
+
+    private static final String RELAY_RESOURCE = "db2";
+
+    private final ConcurrencyLimitProperties properties;
+    private final CompositeTransactionManager compositeTxManager;
+    private final UmsOutboxRelay relay;
+    private final long maxRttNanos;
+    private final long maxQueueWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private volatile double limit;
+    private int inFlight;
+    private int waiting;
+    private long minRttNanos = Long.MAX_VALUE;
+    private volatile long lastRttNanos;
+    private int samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, CompositeTransactionManager compositeTxManager,
+                                      Optional<UmsOutboxRelay> relay) {
+        this.properties = properties;
+        this.compositeTxManager = compositeTxManager;
+        // 릴레이는 DB2(db2DataSource)에만 쓴다
+        this.relay = RELAY_RESOURCE.equals(properties.getResource()) ? relay.orElse(null) : null;
+        this.maxRttNanos = properties.getMaxRtt().toNanos();
+        this.maxQueueWaitNanos = properties.getMaxQueueWait().toNanos();
+        this.limit = properties.getInitialLimit();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        compositeTxManager.setCommitListener(properties.getResource(), this::onSample);
+        if (relay != null) {
+            relay.setWriteListener(this::onSample);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        compositeTxManager.setCommitListener(properties.getResource(), null);
+        if (relay != null) {
+            relay.setWriteListener(null);
+        }
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            release();
+        }
+    }
+
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            return new Snapshot((int) limit, inFlight, waiting,
+                    minRttNanos == Long.MAX_VALUE ? 0 : toMicros(minRttNanos), toMicros(lastRttNanos),
+                    admitted.sum(), queued.sum(), shed.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                admitted.increment();
+                return;
+            }
+            if (waiting >= properties.getMaxQueued()) {
+                throw shed("too many queued requests");
+            }
+            long remaining = Math.min(maxQueueWaitNanos, RequestDeadline.remainingNanos());
+            waiting++;
+            queued.increment();
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        throw shed("no slot within queue wait");
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw shed("interrupted while queued");
+            } finally {
+                waiting--;
+            }
+            inFlight++;
+            admitted.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            if (waiting > 0) {
+                slotFreed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * DB2 commit(또는 릴레이 적재)이 끝날 때마다 그 스레드에서 호출된다
+     */
+    void onSample(long rttNanos, boolean succeeded) {
+        lastRttNanos = rttNanos;
+        lock.lock();
+        try {
+            double current = limit;
+            boolean dropped = !succeeded || rttNanos > maxRttNanos;
+            if (!dropped && ++samplesSinceProbe >= current * properties.getProbeMultiplier()) {
+                // 부하 아래에서 굳은 minRtt를 주기적으로 다시 잡는다
+                samplesSinceProbe = 0;
+                minRttNanos = rttNanos;
+                return;
+            }
+            if (!dropped) {
+                minRttNanos = Math.min(minRttNanos, rttNanos);
+            }
+            double next = nextLimit(current, inFlight, rttNanos, dropped);
+            next = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), next));
+            double smoothed = (1 - properties.getSmoothing()) * current + properties.getSmoothing() * next;
+            if ((int) smoothed != (int) current) {
+                log.debug("[LIMIT] {} -> {} (rtt={}us, minRtt={}us, inFlight={})",
+                        (int) current, (int) smoothed, toMicros(rttNanos), toMicros(minRttNanos), inFlight);
+            }
+            limit = smoothed;
+            if (smoothed > current && waiting > 0) {
+                slotFreed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 범위 제한/평활 전의 다음 한도. lock을 잡은 상태에서 호출
+     */
+    double nextLimit(double current, int inFlight, long rttNanos, boolean dropped) {
+        int log = Math.max(1, (int) Math.log10(current));
+        if (dropped) {
+            return current - log;
+        }
+        if (inFlight * 2 < current) {
+            return current;
+        }
+        int queue = (int) Math.ceil(current * (1 - (double) minRttNanos / rttNanos));
+        if (queue <= log) {
+            return current + properties.getBeta() * log;
+        }
+        if (queue < properties.getAlpha() * log) {
+            return current + log;
+        }
+        if (queue > properties.getBeta() * log) {
+            return current - log;
+        }
+        return current;
+    }
+
+    private LimitExceededException shed(String reason) {
+        shed.increment();
+        return new LimitExceededException("/approve over concurrency limit " + (int) limit + ": " + reason);
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * RTT는 마이크로초
+     */
+    public record Snapshot(int limit, int inFlight, int waiting, long minRtt, long lastRtt, long admitted, long queued, long shed) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.heuristicexception.limit;
+
+/**
+ * 동시 처리 한도를 넘어 대기 없이 또는 대기 후에 거절됨 (503)
+ */
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,37 @@
 package com.example.heuristicexception.mapper.db1;
 
+import java.util.Collection;
+import java.util.List;
+
+import com.example.heuristicexception.domain.ApprovalRecord;
 import com.example.heuristicexception.domain.ApprovalRequest;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 public interface ApprovalHistoryMapper {
     void insertApproval(ApprovalRequest request);
+
+    /**
+     * multi-row insert
+     */
+    int insertApprovals(@Param("requests") List<ApprovalRequest> requests);
+
+    List<String> findExistingApprovalIds(@Param("approvalIds") Collection<String> approvalIds);
+
+    /**
+     * approvalIds 중 approval_history에 있는 행과 각 행의 ums_outbox 대기 여부 (DB1 IN 조회 1회)
+     */
+    List<ApprovalRecord> findApprovalRecords(@Param("approvalIds") Collection<String> approvalIds);
+
+    /**
+     * approval_id 오름차순 keyset 조회, graceSeconds보다 최근에 생성된 행은 제외
+     */
+    List<String> findApprovalIdsAfter(@Param("afterApprovalId") String afterApprovalId,
+                                      @Param("graceSeconds") long graceSeconds,
+                                      @Param("limit") int limit);
+
+    /**
+     * 최근 limit건의 approval_id를 생성 순으로 한 건씩 handler에 넘긴다 (목록을 만들지 않는 스트리밍 조회)
+     */
+    void streamRecentApprovalIds(@Param("limit") int limit, ResultHandler<String> handler);
 }
@@ -0,0 +1,23 @@
+package com.example.heuristicexception.mapper.db1;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import org.apache.ibatis.annotations.Param;
+
+public interface UmsOutboxMapper {
+    void insertOutbox(ApprovalRequest request);
+
+    int insertOutboxes(@Param("requests") List<ApprovalRequest> requests);
+
+    /**
+     * id 오름차순 keyset 조회 (afterId 초과)
+     */
+    List<UmsOutboxMessage> findPending(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    List<String> findExistingApprovalIds(@Param("approvalIds") Collection<String> approvalIds);
+}
@@ -1,7 +1,28 @@
 package com.example.heuristicexception.mapper.db2;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import org.apache.ibatis.annotations.Param;
 
 public interface UmsSendHistoryMapper {
     void insertUmsHistory(ApprovalRequest request);
+
+    /**
+     * multi-row INSERT ... ON DUPLICATE KEY UPDATE, 이미 적재된 approval_id(uk_approval_id)는 그대로 둔다.
+     * INSERT IGNORE와 달리 중복 키 외의 오류(잘림, NOT NULL 위반 등)는 경고로 삼키지 않고 예외로 올린다.
+     * 영향 행 수는 드라이버 설정(useAffectedRows)에 따라 중복 행 포함 여부가 달라 돌려주지 않는다.
+     */
+    void insertUmsHistories(@Param("messages") List<UmsOutboxMessage> messages);
+
+    List<String> findExistingApprovalIds(@Param("approvalIds") Collection<String> approvalIds);
+
+    /**
+     * approval_id 오름차순 keyset 조회, graceSeconds보다 최근에 생성된 행은 제외
+     */
+    List<String> findApprovalIdsAfter(@Param("afterApprovalId") String afterApprovalId,
+                                      @Param("graceSeconds") long graceSeconds,
+                                      @Param("limit") int limit);
 }
@@ -0,0 +1,10 @@
+package com.example.heuristicexception.metrics;
+
+/**
+ * 자원 하나의 commit이 끝날 때마다 호출된다. 커밋 스레드에서 바로 불리므로 가볍게 처리해야 한다.
+ */
+@FunctionalInterface
+public interface CommitListener {
+
+    void onCommit(long latencyNanos, boolean succeeded);
+}
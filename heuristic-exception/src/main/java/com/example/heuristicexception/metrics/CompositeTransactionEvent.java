@@ -0,0 +1,35 @@
+package com.example.heuristicexception.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 복합 트랜잭션 commit/rollback 전체 구간과 결과 (COMMITTED, STATE_MIXED, STATE_ROLLED_BACK, ROLLED_BACK)
+ */
+@Name("com.example.heuristicexception.CompositeTransaction")
+@Label("Composite Transaction Completion")
+@Description("Composite transaction commit or rollback with its outcome")
+@Category({"Heuristic Exception", "Transaction"})
+@StackTrace(false)
+public class CompositeTransactionEvent extends Event {
+
+    @Label("Transaction Name")
+    String transactionName;
+
+    @Label("Enlisted Resources")
+    int enlisted;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Journal Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long journalWait;
+
+    transient long startNanos;
+}
@@ -0,0 +1,39 @@
+package com.example.heuristicexception.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 복합 트랜잭션에서 자원 하나의 getTransaction/commit/rollback 구간.
+ * 이벤트 길이가 곧 해당 단계 소요 시간이며, GET_TRANSACTION은 Hikari 커넥션 대기를 포함한다.
+ */
+@Name("com.example.heuristicexception.DelegatePhase")
+@Label("Delegate Phase")
+@Description("Composite transaction delegate getTransaction/commit/rollback")
+@Category({"Heuristic Exception", "Transaction"})
+@StackTrace(false)
+public class DelegatePhaseEvent extends Event {
+
+    @Label("Resource")
+    String resource;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    @Label("Admission Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long admissionWait;
+
+    // 히스토그램 기록용, 이벤트에는 남기지 않는다
+    transient int index;
+    transient TransactionMetrics.Phase phaseType;
+    transient long startNanos;
+}
@@ -0,0 +1,36 @@
+package com.example.heuristicexception.metrics;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Hikari 풀 현재 상태. threadsAwaiting이 커넥션을 기다리는 스레드 수다.
+ * 풀이 아직 시작되지 않았으면 maxPoolSize만 채워진다.
+ */
+public record PoolGauges(int active, int idle, int total, int threadsAwaiting, int maxPoolSize) {
+
+    /**
+     * Hikari 풀이 아니면 null
+     */
+    public static PoolGauges of(DataSource dataSource) {
+        HikariDataSource hikari;
+        try {
+            if (dataSource == null || !dataSource.isWrapperFor(HikariDataSource.class)) {
+                return null;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException ex) {
+            return null;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return new PoolGauges(0, 0, 0, 0, hikari.getMaximumPoolSize());
+        }
+        return new PoolGauges(pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(), hikari.getMaximumPoolSize());
+    }
+}
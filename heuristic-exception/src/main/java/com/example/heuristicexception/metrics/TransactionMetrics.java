@@ -0,0 +1,169 @@
+package com.example.heuristicexception.metrics;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+/**
+ * 복합 트랜잭션 매니저 하나의 단계별 계측.
+ * - 자원별 admission 대기, getTransaction(커넥션 획득 포함)/commit/rollback 지연 히스토그램과 실패 수
+ * - 복합 트랜잭션 결과별(COMMITTED/STATE_MIXED/STATE_ROLLED_BACK/ROLLED_BACK) 건수와 전체 지연
+ * - 자원별 commit 지연을 {@link CommitListener}에 넘긴다 (적응형 동시성 한도 등)
+ * - 같은 구간을 JFR 이벤트({@link DelegatePhaseEvent}, {@link CompositeTransactionEvent})로도 남긴다. 녹화 중이 아니면 이벤트는 기록되지 않는다.
+ * 기록은 히스토그램 버킷 원자적 증가뿐이라 부하 중에도 켜 둔다.
+ */
+public class TransactionMetrics {
+
+    public enum Phase {
+        GET_TRANSACTION, COMMIT, ROLLBACK
+    }
+
+    public enum Outcome {
+        COMMITTED, STATE_MIXED, STATE_ROLLED_BACK, ROLLED_BACK
+    }
+
+    private final List<String> names;
+    private final DataSource[] dataSources;
+    private final Resource[] resources;
+    private final LatencyHistogram[] outcomes = new LatencyHistogram[Outcome.values().length];
+    private final LatencyHistogram journalWait = new LatencyHistogram();
+    private final CommitListener[] commitListeners;
+
+    /**
+     * @param names       delegates 인덱스 -> 자원 이름
+     * @param dataSources delegates 인덱스 -> DataSource, 풀 상태 조회용 (없으면 null)
+     */
+    public TransactionMetrics(List<String> names, DataSource[] dataSources) {
+        this.names = names;
+        this.dataSources = dataSources;
+        this.resources = new Resource[names.size()];
+        this.commitListeners = new CommitListener[names.size()];
+        for (int i = 0; i < resources.length; i++) {
+            resources[i] = new Resource();
+        }
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * 자원 하나당 리스너 하나, null이면 해제
+     */
+    public void setCommitListener(int index, CommitListener listener) {
+        commitListeners[index] = listener;
+    }
+
+    public DelegatePhaseEvent begin(int index, Phase phase) {
+        DelegatePhaseEvent event = new DelegatePhaseEvent();
+        event.index = index;
+        event.phaseType = phase;
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * admission permit을 기다린 뒤 자원 트랜잭션 시작 구간을 연다
+     */
+    public DelegatePhaseEvent beginEnlist(int index, long admissionWaitNanos) {
+        resources[index].admissionWait.record(admissionWaitNanos);
+        DelegatePhaseEvent event = begin(index, Phase.GET_TRANSACTION);
+        event.admissionWait = admissionWaitNanos;
+        return event;
+    }
+
+    public void end(DelegatePhaseEvent event, boolean succeeded) {
+        long elapsed = System.nanoTime() - event.startNanos;
+        Resource resource = resources[event.index];
+        resource.latency[event.phaseType.ordinal()].record(elapsed);
+        if (!succeeded) {
+            resource.failures[event.phaseType.ordinal()].increment();
+        }
+        CommitListener listener = commitListeners[event.index];
+        if (listener != null && event.phaseType == Phase.COMMIT) {
+            listener.onCommit(elapsed, succeeded);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.resource = names.get(event.index);
+            event.phase = event.phaseType.name();
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    public CompositeTransactionEvent beginCompletion(String transactionName, int enlisted) {
+        CompositeTransactionEvent event = new CompositeTransactionEvent();
+        event.transactionName = transactionName;
+        event.enlisted = enlisted;
+        event.begin();
+        event.startNanos = System.nanoTime();
+        return event;
+    }
+
+    public void journalWaited(CompositeTransactionEvent event, long nanos) {
+        journalWait.record(nanos);
+        event.journalWait = nanos;
+    }
+
+    public void end(CompositeTransactionEvent event, Outcome outcome) {
+        outcomes[outcome.ordinal()].record(System.nanoTime() - event.startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.outcome = outcome.name();
+            event.commit();
+        }
+    }
+
+    public Map<String, ResourceSnapshot> resourceSnapshots() {
+        Map<String, ResourceSnapshot> snapshots = new LinkedHashMap<>();
+        for (int i = 0; i < resources.length; i++) {
+            Resource resource = resources[i];
+            Map<Phase, PhaseSnapshot> phases = new EnumMap<>(Phase.class);
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new PhaseSnapshot(resource.failures[phase.ordinal()].sum(), resource.latency[phase.ordinal()].snapshot()));
+            }
+            snapshots.put(names.get(i), new ResourceSnapshot(resource.admissionWait.snapshot(), phases, PoolGauges.of(dataSources[i])));
+        }
+        return snapshots;
+    }
+
+    public Map<Outcome, LatencyHistogram.Snapshot> outcomeSnapshots() {
+        Map<Outcome, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(Outcome.class);
+        for (Outcome outcome : Outcome.values()) {
+            snapshots.put(outcome, outcomes[outcome.ordinal()].snapshot());
+        }
+        return snapshots;
+    }
+
+    public LatencyHistogram.Snapshot journalWaitSnapshot() {
+        return journalWait.snapshot();
+    }
+
+    /**
+     * @param admissionWait admission이 꺼져 있으면 count 0
+     * @param pool          Hikari 풀이 아니면 null
+     */
+    public record ResourceSnapshot(LatencyHistogram.Snapshot admissionWait, Map<Phase, PhaseSnapshot> phases, PoolGauges pool) {
+    }
+
+    public record PhaseSnapshot(long failures, LatencyHistogram.Snapshot latency) {
+    }
+
+    private static final class Resource {
+        private final LatencyHistogram admissionWait = new LatencyHistogram();
+        private final LatencyHistogram[] latency = new LatencyHistogram[Phase.values().length];
+        private final LongAdder[] failures = new LongAdder[Phase.values().length];
+
+        Resource() {
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LatencyHistogram();
+                failures[i] = new LongAdder();
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.heuristicexception.metrics;
+
+import java.util.Map;
+
+import com.example.heuristicexception.tx.ConnectionAdmission;
+
+/**
+ * /tx/metrics 응답
+ *
+ * @param resources   자원 이름 -> 단계별 지연/실패, 풀 상태
+ * @param outcomes    복합 트랜잭션 결과별 건수와 commit/rollback 전체 지연
+ * @param journalWait 커밋 전 저널 intent fsync 대기
+ * @param admission   heuristic.admission이 꺼져 있으면 비어 있다
+ */
+public record TransactionMetricsReport(Map<String, TransactionMetrics.ResourceSnapshot> resources,
+                                       Map<TransactionMetrics.Outcome, LatencyHistogram.Snapshot> outcomes,
+                                       LatencyHistogram.Snapshot journalWait,
+                                       Map<String, ConnectionAdmission.Snapshot> admission) {
+}
@@ -0,0 +1,87 @@
+package com.example.heuristicexception.outbox;
+
+import java.util.List;
+
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.metrics.CommitListener;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * DB1 ums_outbox → DB2 ums_send_history 릴레이 (heuristic.ums.mode=outbox).
+ * - id 순으로 batchSize만큼 읽어 DB2에 multi-row upsert(ON DUPLICATE KEY UPDATE) 1회, 성공하면 DB1에서 삭제
+ * - 두 단계는 각각 autocommit 단일 문장이다. DB2 적재 후 삭제 전에 죽어도 다음 실행에서 uk_approval_id로 중복이 무시되므로 at-least-once로 충분하다.
+ * - @MultiResourceTransactional이 없으므로 MultiResourceTransactionAspect 대상이 아니다.
+ * - DB2 적재 시간을 writeListener(적응형 동시성 한도)에 넘긴다. 이 모드에서 /approve는 DB2에 커밋하지 않기 때문이다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "heuristic.ums.mode", havingValue = "outbox")
+public class UmsOutboxRelay {
+
+    private final UmsOutboxMapper umsOutboxMapper;
+    private final UmsSendHistoryMapper umsSendHistoryMapper;
+    private final UmsProperties umsProperties;
+    private final ApprovalStatusCache statusCache;
+    private volatile CommitListener writeListener;
+
+    /**
+     * DB2 multi-row upsert가 끝날 때마다 지연과 성공 여부를 받는다, null이면 해제
+     */
+    public void setWriteListener(CommitListener writeListener) {
+        this.writeListener = writeListener;
+    }
+
+    @Scheduled(fixedDelayString = "${heuristic.ums.relay.interval:200ms}")
+    public void relay() {
+        int batchSize = umsProperties.getRelay().getBatchSize();
+        long afterId = 0;
+        int relayed = 0;
+        try {
+            // 밀린 건이 있으면 비울 때까지 연속으로 옮긴다
+            while (true) {
+                List<UmsOutboxMessage> messages = umsOutboxMapper.findPending(afterId, batchSize);
+                if (messages.isEmpty()) {
+                    break;
+                }
+                insertUmsHistories(messages);
+                umsOutboxMapper.deleteByIds(messages.stream().map(UmsOutboxMessage::id).toList());
+                // RELAYING으로 캐시된 상태를 지워 다음 조회가 COMMITTED를 읽게 한다
+                statusCache.invalidate(messages.stream().map(UmsOutboxMessage::approvalId).toList());
+                relayed += messages.size();
+                afterId = messages.get(messages.size() - 1).id();
+                if (messages.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception ex) {
+            // outbox에 남은 건은 다음 주기에 다시 옮긴다
+            log.warn("[UMS-RELAY] relay failed after {} rows, ex={}", relayed, ex.getClass().getSimpleName(), ex);
+        }
+        if (relayed > 0) {
+            log.info("[UMS-RELAY] relayed {} rows to DB2", relayed);
+        }
+    }
+
+    private void insertUmsHistories(List<UmsOutboxMessage> messages) {
+        long start = System.nanoTime();
+        boolean written = false;
+        try {
+            umsSendHistoryMapper.insertUmsHistories(messages);
+            written = true;
+        } finally {
+            CommitListener listener = writeListener;
+            if (listener != null) {
+                listener.onCommit(System.nanoTime() - start, written);
+            }
+        }
+    }
+}
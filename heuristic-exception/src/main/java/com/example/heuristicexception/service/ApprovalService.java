@@ -1,8 +1,12 @@
 package com.example.heuristicexception.service;
 
+import com.example.heuristicexception.config.UmsProperties;
 import com.example.heuristicexception.domain.ApprovalRequest;
 import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
 import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import com.example.heuristicexception.tx.MultiResourceTransactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,14 +18,25 @@ public class ApprovalService {
 
     private final ApprovalHistoryMapper approvalHistoryMapper;
     private final UmsSendHistoryMapper umsSendHistoryMapper;
+    private final UmsOutboxMapper umsOutboxMapper;
+    private final UmsProperties umsProperties;
+    private final CompositeTransactionManager compositeTxManager;
 
+    @MultiResourceTransactional(dataSources = {"db1", "db2"})
     public void approveAndSendUms(ApprovalRequest request) {
         log.info("[APPROVE] start approvalId={}", request.approvalId());
         log.info("승인 내역 DB1 적재");
         approvalHistoryMapper.insertApproval(request);
 
-        log.info("UMS 내역 DB2 적재 (부하/타임아웃 시 커밋 실패 가능)");
-        umsSendHistoryMapper.insertUmsHistory(request);
+        if (umsProperties.getMode() == UmsProperties.Mode.OUTBOX) {
+            log.info("UMS 내역 DB1 outbox 적재 (같은 로컬 트랜잭션, DB2 반영은 릴레이가 담당)");
+            umsOutboxMapper.insertOutbox(request);
+        } else {
+            log.info("UMS 내역 DB2 적재 (부하/타임아웃 시 커밋 실패 가능)");
+            umsSendHistoryMapper.insertUmsHistory(request);
+            // STATE_MIXED 시 reconciler가 DB2 행을 다시 만들 수 있도록 저널에 남길 값
+            compositeTxManager.tag(request.approvalId(), request.phoneNumber(), request.message());
+        }
         log.info("[APPROVE] end approvalId={}", request.approvalId());
     }
 }
@@ -0,0 +1,178 @@
+package com.example.heuristicexception.status;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.heuristicexception.cache.TwoGenerationMap;
+import com.example.heuristicexception.config.ApprovalStatusProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.ApprovalRecord;
+import com.example.heuristicexception.domain.ApprovalStatus;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * approvalId별 DB1·DB2 적재 상태 조회와 그 near-cache.
+ * - miss는 batchSize씩 묶어 DB1(approval_history + ums_outbox) IN 조회 1회, DB2(ums_send_history) IN 조회 1회로 읽는다.
+ * - COMMITTED는 더 바뀌지 않으므로 세대에서 밀려날 때까지 두고, 그 밖의 상태는 transientTtl 동안만 둔다.
+ * - 쓰기 경로(/approve, 릴레이, reconciler)가 결과를 알면 바로 넣고, 모르면 지운다.
+ *   조회 도중 지우기가 끼어들면 DB에서 읽은 값이 이미 낡았을 수 있으므로 COMMITTED가 아닌 값은 두지 않는다.
+ * - DB1과 DB2는 같은 시점으로 읽히지 않는다. 커밋 중인 정상 트랜잭션이 DB1과 DB2 사이에 걸리면 MIXED로 보이므로,
+ *   MIXED인 id만 두 DB를 한 번 더 읽어 그래도 한쪽만 있을 때 MIXED로 응답한다. 다시 읽은 뒤에도 그 창이 남을 수 있어 MIXED는 잠정 상태다.
+ * - 메모리는 {@link TwoGenerationMap}으로 capacity 건에 묶인다.
+ */
+@Component
+public class ApprovalStatusCache {
+
+    private final ApprovalStatusProperties properties;
+    private final UmsProperties umsProperties;
+    private final ApprovalHistoryMapper approvalHistoryMapper;
+    private final UmsSendHistoryMapper umsSendHistoryMapper;
+    private final long transientTtlNanos;
+    // invalidate가 일어날 때마다 증가, 조회 시작 시점과 비교해 낡은 값을 거른다
+    private final AtomicLong invalidations = new AtomicLong();
+    private final TwoGenerationMap<Entry> entries;
+
+    public ApprovalStatusCache(ApprovalStatusProperties properties, UmsProperties umsProperties,
+                               ApprovalHistoryMapper approvalHistoryMapper, UmsSendHistoryMapper umsSendHistoryMapper) {
+        this.properties = properties;
+        this.umsProperties = umsProperties;
+        this.approvalHistoryMapper = approvalHistoryMapper;
+        this.umsSendHistoryMapper = umsSendHistoryMapper;
+        this.transientTtlNanos = properties.getTransientTtl().toNanos();
+        this.entries = new TwoGenerationMap<>(properties.getCapacity(), 0);
+    }
+
+    public ApprovalStatus get(String approvalId) {
+        return getAll(List.of(approvalId)).get(0);
+    }
+
+    /**
+     * @return approvalIds 순서대로의 상태 (중복 id는 한 번만 조회)
+     */
+    public List<ApprovalStatus> getAll(Collection<String> approvalIds) {
+        Map<String, ApprovalStatus> found = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        long now = System.nanoTime();
+        for (String approvalId : approvalIds) {
+            ApprovalStatus cached = properties.isCacheEnabled() ? find(approvalId, now) : null;
+            if (cached != null) {
+                found.put(approvalId, cached);
+            } else {
+                missing.add(approvalId);
+            }
+        }
+        List<String> batch = new ArrayList<>(Math.min(missing.size(), properties.getBatchSize()));
+        for (String approvalId : missing) {
+            batch.add(approvalId);
+            if (batch.size() == properties.getBatchSize()) {
+                load(batch, found);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            load(batch, found);
+        }
+        List<ApprovalStatus> statuses = new ArrayList<>(approvalIds.size());
+        approvalIds.forEach(approvalId -> statuses.add(found.get(approvalId)));
+        return statuses;
+    }
+
+    /**
+     * /approve가 두 DB(outbox 모드면 DB1) 커밋을 마친 경우
+     */
+    public void approved(String approvalId) {
+        put(umsProperties.getMode() == UmsProperties.Mode.OUTBOX
+                ? ApprovalStatus.relaying(approvalId)
+                : ApprovalStatus.committed(approvalId));
+    }
+
+    /**
+     * 결과를 모르는 쓰기(실패, STATE_MIXED, 중복, 릴레이·복구) 뒤에 호출한다. 다음 조회는 DB에서 읽는다.
+     */
+    public void invalidate(Collection<String> approvalIds) {
+        invalidations.incrementAndGet();
+        approvalIds.forEach(entries::remove);
+    }
+
+    private void load(List<String> approvalIds, Map<String, ApprovalStatus> found) {
+        long stamp = invalidations.get();
+        Map<String, ApprovalStatus> loaded = read(approvalIds);
+        List<String> mixed = loaded.values().stream()
+                .filter(status -> status.state() == ApprovalStatus.State.MIXED)
+                .map(ApprovalStatus::approvalId)
+                .toList();
+        if (!mixed.isEmpty()) {
+            // DB1·DB2 커밋 사이에 읽었을 수 있으므로 한 번 더 확인한다
+            loaded.putAll(read(mixed));
+        }
+        for (ApprovalStatus status : loaded.values()) {
+            found.put(status.approvalId(), status);
+            if (properties.isCacheEnabled() && (status.isTerminal() || transientTtlNanos > 0)) {
+                store(status, stamp);
+            }
+        }
+    }
+
+    /**
+     * DB1 IN 조회 1회, DB2 IN 조회 1회
+     */
+    private Map<String, ApprovalStatus> read(List<String> approvalIds) {
+        Map<String, ApprovalRecord> approvals = new HashMap<>();
+        approvalHistoryMapper.findApprovalRecords(approvalIds).forEach(record -> approvals.put(record.approvalId(), record));
+        Set<String> sent = new HashSet<>(umsSendHistoryMapper.findExistingApprovalIds(approvalIds));
+        Map<String, ApprovalStatus> statuses = new LinkedHashMap<>();
+        for (String approvalId : approvalIds) {
+            ApprovalRecord approval = approvals.get(approvalId);
+            statuses.put(approvalId, ApprovalStatus.of(approvalId, approval != null, approval != null && approval.relaying(), sent.contains(approvalId)));
+        }
+        return statuses;
+    }
+
+    private void store(ApprovalStatus status, long stamp) {
+        if (status.isTerminal()) {
+            put(status);
+            return;
+        }
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        Entry entry = new Entry(status, System.nanoTime() + transientTtlNanos);
+        // 넣는 사이 지우기가 지나갔으면 되돌린다 (쓰기 경로가 넣은 값은 putIfAbsent가 덮지 않는다)
+        if (entries.putIfAbsent(status.approvalId(), entry) == null && invalidations.get() != stamp) {
+            entries.remove(status.approvalId(), entry);
+        }
+    }
+
+    private void put(ApprovalStatus status) {
+        if (!properties.isCacheEnabled()) {
+            return;
+        }
+        long expiresAt = status.isTerminal() ? Long.MAX_VALUE : System.nanoTime() + transientTtlNanos;
+        entries.put(status.approvalId(), new Entry(status, expiresAt));
+    }
+
+    private ApprovalStatus find(String approvalId, long now) {
+        Entry entry = entries.get(approvalId);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtNanos() != Long.MAX_VALUE && now - entry.expiresAtNanos() > 0) {
+            entries.remove(approvalId, entry);
+            return null;
+        }
+        return entry.status();
+    }
+
+    private record Entry(ApprovalStatus status, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.heuristicexception.tx;
+
+import org.springframework.transaction.CannotCreateTransactionException;
+
+/**
+ * 커넥션 permit을 얻지 못해 트랜잭션 참여를 포기한 경우. 아직 커넥션을 잡지 않았으므로 재시도해도 안전하다.
+ */
+public class AdmissionRejectedException extends CannotCreateTransactionException {
+
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,58 +1,339 @@
 package com.example.heuristicexception.tx;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
+import javax.sql.DataSource;
+
+import com.example.heuristicexception.deadline.DeadlineExceededException;
+import com.example.heuristicexception.deadline.RequestDeadline;
+import com.example.heuristicexception.journal.CommitJournal;
+import com.example.heuristicexception.metrics.CommitListener;
+import com.example.heuristicexception.metrics.CompositeTransactionEvent;
+import com.example.heuristicexception.metrics.DelegatePhaseEvent;
+import com.example.heuristicexception.metrics.TransactionMetrics;
+import com.example.heuristicexception.metrics.TransactionMetricsReport;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.HeuristicCompletionException;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.NestedTransactionNotSupportedException;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.SavepointManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
 /**
  * 여러 로컬 트랜잭션 매니저를 하나처럼 묶어 처리한다.
  * - 커밋 순서는 등록 순서대로 수행
  * - 커밋 중간 실패 시 이미 커밋된 자원이 존재하므로 HeuristicCompletionException을 던진다.
+ * - lazy enlistment: DataSourceTransactionManager 자원은 해당 DataSource의 매퍼가 처음 커넥션을 요청할 때({@link #enlist}) 트랜잭션을 시작한다.
+ *   한 번도 쓰이지 않은 자원은 커넥션을 잡지 않고 커밋/롤백 대상에서도 빠진다.
+ * - 트랜잭션 동기화는 이 매니저가 소유하므로, 뒤늦게 참여한 자원도 MyBatis 세션 동기화를 그대로 공유한다.
+ *   위임 매니저(AbstractPlatformTransactionManager)는 SYNCHRONIZATION_NEVER로 바꾸고, 자원 트랜잭션을 여는 동안에만 동기화를 내려 둔다 ({@link #beginDelegate}).
+ * - admission이 설정되어 있으면 자원 참여 직전에 해당 DataSource의 permit을 얻고, 복합 트랜잭션이 끝날 때 반납한다 ({@link ConnectionAdmission}).
+ * - 전파 속성: REQUIRED/SUPPORTS/MANDATORY/NEVER는 참여 또는 거부, REQUIRES_NEW/NOT_SUPPORTED는 진행 중인 복합 트랜잭션(자원·동기화)을 보류했다가 끝나면 되돌린다.
+ *   NESTED는 진행 중인 트랜잭션이 없을 때만 새로 시작하고, 있으면 거부한다 (늦게 참여하는 자원에는 savepoint를 걸 수 없음).
+ *   다른 매니저의 동기화가 이미 활성화된 스레드에서 시작하면 그 동기화를 보류했다가 되돌린다.
+ *   {@link MultiResourceTransactionDefinition}이면 선언된 자원만 참여할 수 있다.
+ * - timeout은 복합 트랜잭션 시작부터 재고, 늦게 참여한 자원에는 남은 시간만 넘긴다.
+ *   요청 마감({@link RequestDeadline})이 더 이르면 그 남은 시간을 admission 대기·트랜잭션 timeout(MyBatis statement timeout)으로 쓰고,
+ *   마감이 지났으면 새 트랜잭션을 열지 않고, 커밋 직전이면 커밋 대신 롤백한다 ({@link DeadlineExceededException}).
+ * - {@link #currentContext()}로 다른 스레드에서 같은 복합 트랜잭션을 이어 쓸 수 있다. 그 스레드에서 새로 묶인 자원/동기화는 작업이 끝나면 소유 스레드로 넘어온다.
+ *   자원 참여는 복합 트랜잭션별 락 안에서 하므로 두 스레드가 같은 자원을 동시에 처음 쓰더라도 트랜잭션은 한 번만 열린다.
+ * - 진행 중인 트랜잭션에 참여하면서 선언한 자원은 그 참여가 끝날 때까지만 허용한다.
+ * - 저널이 설정되어 있고 두 개 이상의 자원이 참여한 경우, 커밋 전에 {@link #tag}로 붙인 키/페이로드를 저널에 남기고 자원별 커밋 결과를 기록한다.
+ * - 자원별 getTransaction/commit/rollback과 복합 트랜잭션 결과를 {@link TransactionMetrics}(히스토그램 + JFR 이벤트)에 기록한다.
  */
 @Slf4j
 public class CompositeTransactionManager implements PlatformTransactionManager {
 
     private final List<PlatformTransactionManager> delegates;
+    // delegates 인덱스 -> 자원 이름 (@MultiResourceTransactional dataSources)
+    private final List<String> names;
+    private final int allResources;
+    // DataSource -> delegates 인덱스
+    private final Map<DataSource, Integer> indexes = new IdentityHashMap<>();
+    private final boolean lazyEnlistment;
+    // delegates 인덱스 -> DataSource (DataSourceTransactionManager가 아니면 null)
+    private final DataSource[] dataSources;
+    private final TransactionMetrics metrics;
+    private CommitJournal journal;
+    private ConnectionAdmission admission;
+
+    public CompositeTransactionManager(Map<String, PlatformTransactionManager> delegates) {
+        this(delegates, true);
+    }
 
-    public CompositeTransactionManager(List<PlatformTransactionManager> delegates) {
-        this.delegates = delegates;
+    /**
+     * @param delegates      자원 이름 -> 트랜잭션 매니저, 순서대로 커밋 (LinkedHashMap 등 순서가 있는 맵)
+     * @param lazyEnlistment false면 기존처럼 getTransaction 시점에 선언된 모든 자원의 트랜잭션을 연다
+     */
+    public CompositeTransactionManager(Map<String, PlatformTransactionManager> delegates, boolean lazyEnlistment) {
+        this.delegates = List.copyOf(delegates.values());
+        this.names = List.copyOf(delegates.keySet());
+        this.allResources = (1 << this.delegates.size()) - 1;
+        this.lazyEnlistment = lazyEnlistment;
+        this.dataSources = new DataSource[this.delegates.size()];
+        for (int i = 0; i < this.delegates.size(); i++) {
+            if (this.delegates.get(i) instanceof AbstractPlatformTransactionManager platformTxManager) {
+                // 동기화는 이 매니저가 열고 닫는다. 위임 매니저가 자기 동기화를 열면 커밋 때 엇갈려 풀린다
+                platformTxManager.setTransactionSynchronization(AbstractPlatformTransactionManager.SYNCHRONIZATION_NEVER);
+            }
+            if (this.delegates.get(i) instanceof DataSourceTransactionManager dataSourceTxManager) {
+                dataSources[i] = dataSourceTxManager.getDataSource();
+                indexes.put(dataSources[i], i);
+            }
+        }
+        this.metrics = new TransactionMetrics(names, dataSources);
+    }
+
+    /**
+     * 자원 이름 목록을 비트마스크로 바꾼다. 비어 있으면 전체
+     */
+    public int resourceMask(String... resourceNames) {
+        if (resourceNames.length == 0) {
+            return allResources;
+        }
+        int mask = 0;
+        for (String name : resourceNames) {
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown resource '" + name + "', expected one of " + names);
+            }
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+
+    public void setJournal(CommitJournal journal) {
+        this.journal = journal;
+    }
+
+    public void setAdmission(ConnectionAdmission admission) {
+        this.admission = admission;
+    }
+
+    /**
+     * resource의 commit이 끝날 때마다 지연과 성공 여부를 listener에 넘긴다
+     */
+    public void setCommitListener(String resource, CommitListener listener) {
+        int index = names.indexOf(resource);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown resource '" + resource + "', expected one of " + names);
+        }
+        metrics.setCommitListener(index, listener);
+    }
+
+    /**
+     * 자원별 단계 지연/실패, 결과별 건수, 저널 대기, Hikari 풀 상태와 admission 현황
+     */
+    public TransactionMetricsReport metricsReport() {
+        return new TransactionMetricsReport(metrics.resourceSnapshots(), metrics.outcomeSnapshots(), metrics.journalWaitSnapshot(),
+                admission == null ? Map.of() : admission.snapshot());
     }
 
     @Override
     public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
-        List<TransactionStatus> statuses = new ArrayList<>();
-        for (PlatformTransactionManager delegate : delegates) {
-            statuses.add(delegate.getTransaction(definition));
+        int propagation = definition.getPropagationBehavior();
+        int mask = definition instanceof MultiResourceTransactionDefinition multiResource ? multiResource.getResourceMask() : allResources;
+        CompositeTransactionStatus current = currentStatus();
+        if (current != null) {
+            absorbHandOffs(current);
+            switch (propagation) {
+                case TransactionDefinition.PROPAGATION_NEVER ->
+                        throw new IllegalTransactionStateException("Existing composite transaction found for PROPAGATION_NEVER: " + definition.getName());
+                case TransactionDefinition.PROPAGATION_NESTED ->
+                        throw new NestedTransactionNotSupportedException("Nested composite transactions are not supported: " + definition.getName());
+                case TransactionDefinition.PROPAGATION_REQUIRES_NEW -> {
+                    return begin(definition, mask, suspend(true));
+                }
+                case TransactionDefinition.PROPAGATION_NOT_SUPPORTED -> {
+                    // 트랜잭션 없이 실행하고, 끝나면 보류한 트랜잭션을 되돌린다
+                    return new CompositeTransactionStatus(definition, 0, 0, false, null, suspend(true));
+                }
+                default -> {
+                    // 이미 진행 중인 복합 트랜잭션에 참여, 참여가 끝날 때까지 참여자가 선언한 자원도 허용
+                    CompositeTransactionStatus participating = new CompositeTransactionStatus(current, false);
+                    current.owner.allowedMask |= mask;
+                    return participating;
+                }
+            }
+        }
+        switch (propagation) {
+            case TransactionDefinition.PROPAGATION_MANDATORY ->
+                    throw new IllegalTransactionStateException("No existing composite transaction for PROPAGATION_MANDATORY: " + definition.getName());
+            case TransactionDefinition.PROPAGATION_SUPPORTS, TransactionDefinition.PROPAGATION_NOT_SUPPORTED, TransactionDefinition.PROPAGATION_NEVER -> {
+                // 트랜잭션 없이 실행 (매퍼는 autocommit)
+                return new CompositeTransactionStatus(definition, 0, 0, false, null, null);
+            }
+            default -> {
+                return begin(definition, mask, suspend(false));
+            }
+        }
+    }
+
+    /**
+     * 새 복합 트랜잭션을 시작한다. 시작에 실패하면 보류했던 트랜잭션/동기화를 되돌린다.
+     */
+    private CompositeTransactionStatus begin(TransactionDefinition definition, int mask, SuspendedResources suspended) {
+        Long deadlineNanos = RequestDeadline.get();
+        if (RequestDeadline.remainingNanos(deadlineNanos) <= 0) {
+            resume(suspended);
+            throw new DeadlineExceededException("Request deadline exceeded before starting " + definition.getName());
+        }
+        CompositeTransactionStatus status = new CompositeTransactionStatus(definition, delegates.size(), mask, true, deadlineNanos, suspended);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(definition.isReadOnly());
+        TransactionSynchronizationManager.setCurrentTransactionName(definition.getName());
+        if (definition.getIsolationLevel() != TransactionDefinition.ISOLATION_DEFAULT) {
+            TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(definition.getIsolationLevel());
+        }
+        TransactionSynchronizationManager.bindResource(this, status);
+        try {
+            for (int i = 0; i < delegates.size(); i++) {
+                boolean eager = !lazyEnlistment || dataSources[i] == null;
+                if (eager && status.isAllowed(i)) {
+                    enlist(status, i);
+                }
+            }
+        } catch (RuntimeException ex) {
+            rollbackRemaining(status);
+            releasePermits(status);
+            cleanup();
+            resume(suspended);
+            throw ex;
+        }
+        return status;
+    }
+
+    /**
+     * dataSource에 대한 자원을 현재 복합 트랜잭션에 참여시킨다. 이미 참여했거나 진행 중인 트랜잭션이 없으면 아무것도 하지 않는다.
+     * MyBatis 커넥션 획득 직전에 {@link EnlistingTransactionFactory}가 호출한다.
+     */
+    public void enlist(DataSource dataSource) {
+        Integer index = indexes.get(dataSource);
+        CompositeTransactionStatus status = currentStatus();
+        if (index == null || status == null) {
+            return;
+        }
+        absorbHandOffs(status);
+        // TransactionContext 스레드와 소유 스레드가 같은 자원을 동시에 처음 쓸 수 있다
+        ReentrantLock enlistLock = status.owner.enlistLock;
+        enlistLock.lock();
+        try {
+            if (status.statuses[index] != null) {
+                return;
+            }
+            if (!status.isAllowed(index)) {
+                throw new IllegalTransactionStateException("Resource '" + names.get(index) + "' is not declared for " + status.definition.getName());
+            }
+            log.debug("[CTM] enlist idx={}", index);
+            enlist(status, index);
+        } finally {
+            enlistLock.unlock();
+        }
+    }
+
+    /**
+     * 현재 스레드의 복합 트랜잭션을 다른 스레드로 넘기기 위한 스냅샷, 진행 중인 트랜잭션이 없으면 null
+     */
+    public TransactionContext currentContext() {
+        CompositeTransactionStatus status = currentStatus();
+        if (status == null) {
+            return null;
+        }
+        absorbHandOffs(status);
+        return new TransactionContext(status.owner, new HashMap<>(TransactionSynchronizationManager.getResourceMap()));
+    }
+
+    /**
+     * 현재 복합 트랜잭션에 복구용 키와 페이로드를 붙인다. STATE_MIXED 시 reconciler가 이 값으로 누락된 쪽을 채운다.
+     */
+    public void tag(String key, String... payload) {
+        CompositeTransactionStatus status = currentStatus();
+        if (status != null) {
+            status.tags.add(new CommitJournal.Tag(key, List.of(payload)));
         }
-        return new CompositeTransactionStatus(statuses);
     }
 
     @Override
     public void commit(TransactionStatus status) throws TransactionException {
         CompositeTransactionStatus compositeStatus = (CompositeTransactionStatus) status;
+        if (!compositeStatus.isNewTransaction()) {
+            compositeStatus.endParticipation();
+            resume(compositeStatus.suspended);
+            return;
+        }
+        compositeStatus.closeContexts();
+        absorbHandOffs(compositeStatus);
+        if (compositeStatus.isRollbackOnly()) {
+            rollback(status);
+            return;
+        }
+        if (RequestDeadline.remainingNanos(compositeStatus.deadlineNanos) <= 0) {
+            // 기다리는 쪽이 없는 작업은 커밋하지 않는다 (DB2 커밋 부담과 부분 커밋 위험만 남음)
+            rollback(status);
+            throw new DeadlineExceededException("Request deadline exceeded before commit: " + compositeStatus.definition.getName());
+        }
         boolean anyCommitted = false;
-        log.info("[CTM] commit start, totalTx={}", compositeStatus.statuses().size());
+        long txId = -1;
+        CompositeTransactionEvent completion = metrics.beginCompletion(compositeStatus.definition.getName(), compositeStatus.enlistedCount());
+        log.info("[CTM] commit start, enlistedTx={}/{}", compositeStatus.enlistedCount(), delegates.size());
         try {
-            for (int i = 0; i < compositeStatus.statuses().size(); i++) {
-                TransactionStatus ts = compositeStatus.statuses().get(i);
-                // 이미 롤백Only거나 완료되었으면 건너뜀
-                if (!ts.isCompleted() && !ts.isRollbackOnly()) {
+            TransactionSynchronizationUtils.triggerBeforeCommit(compositeStatus.definition.isReadOnly());
+            TransactionSynchronizationUtils.triggerBeforeCompletion();
+            if (journal != null && compositeStatus.enlistedCount() > 1 && !compositeStatus.tags.isEmpty()) {
+                // 부분 커밋이 가능한 경우에만 intent를 남긴다 (fsync 완료까지 대기)
+                long journalStart = System.nanoTime();
+                txId = journal.begin(compositeStatus.tags, compositeStatus.enlistedMask());
+                metrics.journalWaited(completion, System.nanoTime() - journalStart);
+            }
+            for (int i = 0; i < delegates.size(); i++) {
+                TransactionStatus ts = compositeStatus.statuses[i];
+                // 참여하지 않았거나 이미 롤백Only/완료되었으면 건너뜀
+                if (ts != null && !ts.isCompleted() && !ts.isRollbackOnly()) {
                     log.info("[CTM] commit idx={} start", i);
-                    delegates.get(i).commit(ts);
+                    commitDelegate(i, ts);
                     anyCommitted = true;
+                    if (txId > 0) {
+                        journal.committed(txId, i);
+                    }
                     log.info("[CTM] commit idx={} success", i);
                 }
             }
             log.info("[CTM] commit end");
+            if (txId > 0) {
+                journal.end(txId, CommitJournal.Outcome.COMMITTED);
+                txId = -1;
+            }
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            metrics.end(completion, TransactionMetrics.Outcome.COMMITTED);
+            complete(compositeStatus, TransactionSynchronization.STATUS_COMMITTED);
         } catch (Exception ex) {
             // 커밋 중간 실패: 일부는 커밋 완료, 일부는 아직 미커밋 → 혼합 상태
+            if (txId > 0) {
+                journal.end(txId, anyCommitted ? CommitJournal.Outcome.MIXED : CommitJournal.Outcome.ROLLED_BACK);
+            }
             rollbackRemaining(compositeStatus);
+            metrics.end(completion, anyCommitted ? TransactionMetrics.Outcome.STATE_MIXED : TransactionMetrics.Outcome.STATE_ROLLED_BACK);
+            complete(compositeStatus, anyCommitted ? TransactionSynchronization.STATUS_UNKNOWN : TransactionSynchronization.STATUS_ROLLED_BACK);
             log.error("[CTM] commit failed, anyCommitted={}, ex={}", anyCommitted, ex.getClass().getSimpleName(), ex);
             throw new HeuristicCompletionException(anyCommitted
                     ? HeuristicCompletionException.STATE_MIXED
@@ -63,52 +344,465 @@ public class CompositeTransactionManager implements PlatformTransactionManager {
     @Override
     public void rollback(TransactionStatus status) throws TransactionException {
         CompositeTransactionStatus compositeStatus = (CompositeTransactionStatus) status;
-        rollbackRemaining(compositeStatus);
+        if (!compositeStatus.isNewTransaction()) {
+            compositeStatus.endParticipation();
+            if (compositeStatus.suspended != null) {
+                // NOT_SUPPORTED 구간: 롤백할 것은 없고 보류한 트랜잭션만 되돌린다
+                resume(compositeStatus.suspended);
+            } else {
+                compositeStatus.setRollbackOnly();
+            }
+            return;
+        }
+        compositeStatus.closeContexts();
+        absorbHandOffs(compositeStatus);
+        CompositeTransactionEvent completion = metrics.beginCompletion(compositeStatus.definition.getName(), compositeStatus.enlistedCount());
+        try {
+            TransactionSynchronizationUtils.triggerBeforeCompletion();
+        } finally {
+            rollbackRemaining(compositeStatus);
+            metrics.end(completion, TransactionMetrics.Outcome.ROLLED_BACK);
+            complete(compositeStatus, TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+    }
+
+    /**
+     * permit(설정된 경우) → 자원 트랜잭션 시작. 시작에 실패하면 permit을 바로 반납한다.
+     */
+    private void enlist(CompositeTransactionStatus status, int index) {
+        TransactionDefinition definition = remaining(status);
+        boolean admitted = false;
+        DelegatePhaseEvent event;
+        if (admission != null && dataSources[index] != null) {
+            long waitStart = System.nanoTime();
+            admitted = admission.acquire(dataSources[index], RequestDeadline.remainingNanos(status.deadlineNanos));
+            event = metrics.beginEnlist(index, System.nanoTime() - waitStart);
+        } else {
+            event = metrics.begin(index, TransactionMetrics.Phase.GET_TRANSACTION);
+        }
+        try {
+            status.enlist(index, beginDelegate(index, definition));
+        } catch (RuntimeException ex) {
+            metrics.end(event, false);
+            if (admitted) {
+                admission.release(dataSources[index]);
+            }
+            throw ex;
+        }
+        metrics.end(event, true);
+        status.admitted[index] = admitted;
+    }
+
+    /**
+     * 위임 매니저는 동기화가 활성화되어 있으면 suspend(null)로 동기화를 떼어 내고(MyBatis SqlSessionHolder도 풀림) 자기 커밋 때 되돌린다.
+     * 이 매니저의 동기화 목록을 suspend 콜백 없이 잠시 내려 두었다가 그대로 다시 올린다.
+     */
+    private TransactionStatus beginDelegate(int index, TransactionDefinition definition) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return delegates.get(index).getTransaction(definition);
+        }
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        try {
+            return delegates.get(index).getTransaction(definition);
+        } finally {
+            TransactionSynchronizationManager.initSynchronization();
+            synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+        }
+    }
+
+    private void commitDelegate(int index, TransactionStatus ts) {
+        DelegatePhaseEvent event = metrics.begin(index, TransactionMetrics.Phase.COMMIT);
+        boolean committed = false;
+        try {
+            delegates.get(index).commit(ts);
+            committed = true;
+        } finally {
+            metrics.end(event, committed);
+        }
+    }
+
+    /**
+     * timeout이나 요청 마감이 있으면 둘 중 먼저 오는 쪽까지 남은 시간을 timeout으로 한 정의를 돌려준다
+     */
+    private TransactionDefinition remaining(CompositeTransactionStatus status) {
+        TransactionDefinition definition = status.definition;
+        long remainingNanos = RequestDeadline.remainingNanos(status.deadlineNanos);
+        boolean deadlineBound = remainingNanos != RequestDeadline.NONE;
+        if (definition.getTimeout() != TransactionDefinition.TIMEOUT_DEFAULT) {
+            long timeoutRemaining = definition.getTimeout() * 1_000_000_000L - (System.nanoTime() - status.startNanos);
+            if (timeoutRemaining <= remainingNanos) {
+                remainingNanos = timeoutRemaining;
+                deadlineBound = false;
+            }
+        }
+        if (remainingNanos == RequestDeadline.NONE) {
+            return definition;
+        }
+        long remainingMillis = remainingNanos / 1_000_000;
+        if (remainingMillis <= 0) {
+            throw deadlineBound
+                    ? new DeadlineExceededException("Request deadline exceeded before enlisting: " + definition.getName())
+                    : new TransactionTimedOutException("Composite transaction timed out before enlisting: " + definition.getName());
+        }
+        DefaultTransactionDefinition adjusted = new DefaultTransactionDefinition(definition);
+        adjusted.setTimeout((int) ((remainingMillis + 999) / 1000));
+        return adjusted;
+    }
+
+    /**
+     * 현재 스레드의 동기화(와 includeResources면 묶인 자원 전부)를 떼어 낸다. 떼어 낼 것이 없으면 null.
+     * 동기화는 suspend()를 먼저 불러 MyBatis SqlSessionHolder 등이 스스로 풀리게 하고, 남은 자원(ConnectionHolder, 이 매니저의 상태)은 직접 푼다.
+     */
+    private SuspendedResources suspend(boolean includeResources) {
+        boolean synchronizationActive = TransactionSynchronizationManager.isSynchronizationActive();
+        if (!synchronizationActive && !includeResources) {
+            return null;
+        }
+        List<TransactionSynchronization> synchronizations = List.of();
+        if (synchronizationActive) {
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::suspend);
+        }
+        SuspendedResources suspended = new SuspendedResources(
+                includeResources ? new HashMap<>(TransactionSynchronizationManager.getResourceMap()) : Map.of(),
+                synchronizationActive, synchronizations,
+                TransactionSynchronizationManager.getCurrentTransactionName(),
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly(),
+                TransactionSynchronizationManager.getCurrentTransactionIsolationLevel(),
+                TransactionSynchronizationManager.isActualTransactionActive());
+        suspended.resources().keySet().forEach(TransactionSynchronizationManager::unbindResource);
+        TransactionSynchronizationManager.clear();
+        return suspended;
+    }
+
+    private void resume(SuspendedResources suspended) {
+        if (suspended == null) {
+            return;
+        }
+        suspended.resources().forEach(TransactionSynchronizationManager::bindResource);
+        if (suspended.synchronizationActive()) {
+            TransactionSynchronizationManager.initSynchronization();
+            for (TransactionSynchronization synchronization : suspended.synchronizations()) {
+                synchronization.resume();
+                TransactionSynchronizationManager.registerSynchronization(synchronization);
+            }
+        }
+        TransactionSynchronizationManager.setCurrentTransactionName(suspended.name());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(suspended.readOnly());
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(suspended.isolationLevel());
+        TransactionSynchronizationManager.setActualTransactionActive(suspended.actualTransactionActive());
+    }
+
+    /**
+     * 다른 스레드에서 새로 묶인 자원(ConnectionHolder, SqlSessionHolder)과 동기화를 소유 스레드에 옮긴다.
+     * DataSourceTransactionManager/MyBatis는 완료 시 현재 스레드에서 자원을 풀기 때문에 커밋 전에 반드시 옮겨야 한다.
+     */
+    private void absorbHandOffs(CompositeTransactionStatus status) {
+        Queue<HandOff> handOffs = status.owner.handOffs;
+        HandOff handOff;
+        while ((handOff = handOffs.poll()) != null) {
+            handOff.resources().forEach((key, value) -> {
+                if (!TransactionSynchronizationManager.hasResource(key)) {
+                    TransactionSynchronizationManager.bindResource(key, value);
+                }
+            });
+            handOff.synchronizations().forEach(TransactionSynchronizationManager::registerSynchronization);
+        }
+    }
+
+    private void releasePermits(CompositeTransactionStatus compositeStatus) {
+        for (int i = 0; i < compositeStatus.admitted.length; i++) {
+            if (compositeStatus.admitted[i]) {
+                compositeStatus.admitted[i] = false;
+                admission.release(dataSources[i]);
+            }
+        }
+    }
+
+    private CompositeTransactionStatus currentStatus() {
+        return (CompositeTransactionStatus) TransactionSynchronizationManager.getResource(this);
     }
 
     private void rollbackRemaining(CompositeTransactionStatus compositeStatus) {
-        for (int i = compositeStatus.statuses().size() - 1; i >= 0; i--) {
-            TransactionStatus ts = compositeStatus.statuses().get(i);
-            if (!ts.isCompleted()) {
+        for (int i = compositeStatus.statuses.length - 1; i >= 0; i--) {
+            TransactionStatus ts = compositeStatus.statuses[i];
+            if (ts != null && !ts.isCompleted()) {
+                DelegatePhaseEvent event = metrics.begin(i, TransactionMetrics.Phase.ROLLBACK);
+                boolean rolledBack = false;
                 try {
                     delegates.get(i).rollback(ts);
+                    rolledBack = true;
                 } catch (Exception ignored) {
                     // 롤백 실패는 누적 기록만 남김
+                } finally {
+                    metrics.end(event, rolledBack);
                 }
             }
         }
     }
 
-    private record CompositeTransactionStatus(List<TransactionStatus> statuses) implements TransactionStatus, org.springframework.transaction.SavepointManager {
+    private void complete(CompositeTransactionStatus compositeStatus, int completionStatus) {
+        compositeStatus.completed = true;
+        try {
+            TransactionSynchronizationUtils.triggerAfterCompletion(completionStatus);
+        } finally {
+            // 커넥션은 자원별 commit/rollback에서 이미 풀로 돌아갔다
+            releasePermits(compositeStatus);
+            cleanup();
+            resume(compositeStatus.suspended);
+        }
+    }
+
+    private void cleanup() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(this);
+        TransactionSynchronizationManager.clear();
+    }
+
+    /**
+     * 다른 스레드에서 소유 스레드의 복합 트랜잭션에 참여해 작업을 실행한다.
+     * 소유 스레드는 작업이 끝날 때까지 커밋하지 않고 기다려야 하며, 같은 커넥션을 두 스레드가 동시에 쓰지 않도록 호출 측이 순서를 보장해야 한다.
+     */
+    public final class TransactionContext {
+
+        private final CompositeTransactionStatus owner;
+        private final Map<Object, Object> resources;
+
+        private TransactionContext(CompositeTransactionStatus owner, Map<Object, Object> resources) {
+            this.owner = owner;
+            this.resources = resources;
+        }
+
+        public void run(Runnable task) {
+            CompositeTransactionStatus current = currentStatus();
+            if (current != null && current.owner == owner) {
+                // 소유 스레드에서 바로 실행되는 경우 (CallerRunsPolicy 등)
+                task.run();
+                return;
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                throw new IllegalTransactionStateException("Another transaction is active on " + Thread.currentThread().getName());
+            }
+            if (!owner.enterContext()) {
+                throw new IllegalTransactionStateException("Composite transaction already completing: " + owner.definition.getName());
+            }
+            resources.forEach(TransactionSynchronizationManager::bindResource);
+            TransactionSynchronizationManager.initSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(owner.definition.isReadOnly());
+            TransactionSynchronizationManager.setCurrentTransactionName(owner.definition.getName());
+            // 이 스레드의 커넥션 대기도 소유 요청의 마감을 따른다
+            Long previousDeadline = RequestDeadline.set(owner.deadlineNanos);
+            try {
+                task.run();
+            } finally {
+                RequestDeadline.set(previousDeadline);
+                try {
+                    handOff();
+                } finally {
+                    owner.exitContext();
+                }
+            }
+        }
+
+        private void handOff() {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            Map<Object, Object> bound = new HashMap<>(TransactionSynchronizationManager.getResourceMap());
+            bound.keySet().forEach(TransactionSynchronizationManager::unbindResource);
+            TransactionSynchronizationManager.clear();
+            bound.keySet().removeAll(resources.keySet());
+            if (!bound.isEmpty() || !synchronizations.isEmpty()) {
+                owner.handOffs.add(new HandOff(bound, synchronizations));
+            }
+        }
+    }
+
+    private record HandOff(Map<Object, Object> resources, List<TransactionSynchronization> synchronizations) {
+    }
+
+    /**
+     * REQUIRES_NEW/NOT_SUPPORTED 또는 다른 매니저의 동기화 위에서 시작할 때 보류한 스레드 상태
+     */
+    private record SuspendedResources(Map<Object, Object> resources, boolean synchronizationActive,
+                                      List<TransactionSynchronization> synchronizations, String name, boolean readOnly,
+                                      Integer isolationLevel, boolean actualTransactionActive) {
+    }
+
+    private static final class CompositeTransactionStatus implements TransactionStatus, SavepointManager {
+
+        private final TransactionDefinition definition;
+        // 참여하지 않은 자원은 null
+        private final TransactionStatus[] statuses;
+        // permit을 얻고 참여한 자원
+        private final boolean[] admitted;
+        private final boolean newTransaction;
+        private final CompositeTransactionStatus owner;
+        private final List<CommitJournal.Tag> tags;
+        private final long startNanos;
+        // 요청 마감(System.nanoTime 기준), 없으면 null
+        private final Long deadlineNanos;
+        // 다른 스레드에서 넘어온 자원/동기화, 소유 스레드가 가져간다
+        private final Queue<HandOff> handOffs;
+        // 이 상태가 끝나면 되돌릴 바깥 트랜잭션/동기화, 없으면 null
+        private final SuspendedResources suspended;
+        // 다른 스레드에서 실행 중인 TransactionContext 작업 수, 소유 스레드는 완료 전에 0이 될 때까지 기다린다
+        private final ReentrantLock contextLock;
+        private final Condition contextsDone;
+        // statuses/admitted 갱신 (소유 스레드와 TransactionContext 스레드가 함께 참여시킬 수 있음)
+        private final ReentrantLock enlistLock;
+        // 참여 상태가 끝나면 owner에 되돌릴 허용 자원
+        private final int outerAllowedMask;
+        private int activeContexts;
+        private boolean contextsClosed;
+        private volatile int allowedMask;
+        private volatile boolean rollbackOnly;
+        private volatile boolean completed;
+
+        CompositeTransactionStatus(TransactionDefinition definition, int size, int allowedMask, boolean newTransaction, Long deadlineNanos,
+                                   SuspendedResources suspended) {
+            this.definition = definition;
+            this.statuses = new TransactionStatus[size];
+            this.admitted = new boolean[size];
+            this.newTransaction = newTransaction;
+            this.owner = this;
+            this.tags = Collections.synchronizedList(new ArrayList<>());
+            this.startNanos = System.nanoTime();
+            this.deadlineNanos = deadlineNanos;
+            this.handOffs = new ConcurrentLinkedQueue<>();
+            this.suspended = suspended;
+            this.contextLock = new ReentrantLock();
+            this.contextsDone = contextLock.newCondition();
+            this.enlistLock = new ReentrantLock();
+            this.allowedMask = allowedMask;
+            this.outerAllowedMask = allowedMask;
+        }
+
+        CompositeTransactionStatus(CompositeTransactionStatus owner, boolean newTransaction) {
+            this.definition = owner.definition;
+            this.statuses = owner.statuses;
+            this.admitted = owner.admitted;
+            this.newTransaction = newTransaction;
+            this.owner = owner;
+            this.tags = owner.tags;
+            this.startNanos = owner.startNanos;
+            this.deadlineNanos = owner.deadlineNanos;
+            this.handOffs = owner.handOffs;
+            this.suspended = null;
+            this.contextLock = owner.contextLock;
+            this.contextsDone = owner.contextsDone;
+            this.enlistLock = owner.enlistLock;
+            this.outerAllowedMask = owner.allowedMask;
+        }
+
+        boolean enterContext() {
+            contextLock.lock();
+            try {
+                if (contextsClosed) {
+                    return false;
+                }
+                activeContexts++;
+                return true;
+            } finally {
+                contextLock.unlock();
+            }
+        }
+
+        void exitContext() {
+            contextLock.lock();
+            try {
+                if (--activeContexts == 0) {
+                    contextsDone.signalAll();
+                }
+            } finally {
+                contextLock.unlock();
+            }
+        }
+
+        /**
+         * 새 TransactionContext 작업을 막고, 실행 중인 작업이 자원을 넘길 때까지 기다린다.
+         * CompletableFuture는 작업 본문이 끝나면 바로 완료되므로, join 직후 커밋해도 넘겨받을 자원이 아직 큐에 없을 수 있다.
+         */
+        void closeContexts() {
+            contextLock.lock();
+            try {
+                contextsClosed = true;
+                while (activeContexts > 0) {
+                    contextsDone.awaitUninterruptibly();
+                }
+            } finally {
+                contextLock.unlock();
+            }
+        }
+
+        /**
+         * 참여로 넓혔던 허용 자원을 참여 전으로 되돌린다 (참여는 LIFO로 끝난다)
+         */
+        void endParticipation() {
+            if (owner != this) {
+                owner.allowedMask = outerAllowedMask;
+            }
+        }
+
+        boolean isAllowed(int index) {
+            return (owner.allowedMask & (1 << index)) != 0;
+        }
+
+        void enlist(int index, TransactionStatus status) {
+            statuses[index] = status;
+            if (owner.rollbackOnly) {
+                status.setRollbackOnly();
+            }
+        }
+
+        int enlistedMask() {
+            int mask = 0;
+            for (int i = 0; i < statuses.length; i++) {
+                if (statuses[i] != null) {
+                    mask |= 1 << i;
+                }
+            }
+            return mask;
+        }
+
+        int enlistedCount() {
+            int count = 0;
+            for (TransactionStatus status : statuses) {
+                if (status != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
 
         @Override
         public boolean isNewTransaction() {
-            return statuses.stream().anyMatch(TransactionStatus::isNewTransaction);
+            return newTransaction;
         }
 
         @Override
         public boolean hasSavepoint() {
-            return statuses.stream().anyMatch(TransactionStatus::hasSavepoint);
+            return enlisted().stream().anyMatch(TransactionStatus::hasSavepoint);
         }
 
         @Override
         public void setRollbackOnly() {
-            statuses.forEach(TransactionStatus::setRollbackOnly);
+            owner.rollbackOnly = true;
+            enlisted().forEach(TransactionStatus::setRollbackOnly);
         }
 
         @Override
         public boolean isRollbackOnly() {
-            return statuses.stream().anyMatch(TransactionStatus::isRollbackOnly);
+            return owner.rollbackOnly || enlisted().stream().anyMatch(TransactionStatus::isRollbackOnly);
         }
 
         @Override
         public void flush() {
-            statuses.forEach(TransactionStatus::flush);
+            enlisted().forEach(TransactionStatus::flush);
         }
 
         @Override
         public boolean isCompleted() {
-            return statuses.stream().allMatch(TransactionStatus::isCompleted);
+            return owner.completed;
         }
 
         @Override
@@ -126,10 +820,20 @@ public class CompositeTransactionManager implements PlatformTransactionManager {
             savepointManagers().forEach(spm -> spm.releaseSavepoint(savepoint));
         }
 
-        private List<org.springframework.transaction.SavepointManager> savepointManagers() {
-            return statuses.stream()
-                    .filter(sp -> sp instanceof org.springframework.transaction.SavepointManager)
-                    .map(sp -> (org.springframework.transaction.SavepointManager) sp)
+        private List<TransactionStatus> enlisted() {
+            List<TransactionStatus> enlisted = new ArrayList<>(statuses.length);
+            for (TransactionStatus status : statuses) {
+                if (status != null) {
+                    enlisted.add(status);
+                }
+            }
+            return enlisted;
+        }
+
+        private List<SavepointManager> savepointManagers() {
+            return enlisted().stream()
+                    .filter(sp -> sp instanceof SavepointManager)
+                    .map(sp -> (SavepointManager) sp)
                     .toList();
         }
     }
@@ -0,0 +1,120 @@
+package com.example.heuristicexception.tx;
+
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import com.example.heuristicexception.config.AdmissionProperties;
+import com.example.heuristicexception.deadline.DeadlineExceededException;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DataSource별 Hikari 풀 크기에 맞춘 공정(FIFO) 세마포어.
+ * - 가상 스레드에서는 요청 수천 개가 동시에 들어오므로, 풀 앞에서 permit을 기다리게 해 Hikari connection-timeout 경쟁 대신 순서대로 커넥션을 받게 한다.
+ * - permit은 자원 참여 직전에 얻고 복합 트랜잭션이 끝날 때 반납한다. 대기 중에는 커넥션을 잡지 않으므로 가상 스레드는 값싸게 park된다.
+ * - 대기자가 maxWaiting을 넘거나 acquireTimeout이 지나면 {@link AdmissionRejectedException}. 요청 마감이 더 이르면 그때까지만 기다리고 {@link DeadlineExceededException}.
+ */
+@Slf4j
+public class ConnectionAdmission {
+
+    private final Map<DataSource, Gate> gates = new IdentityHashMap<>();
+    private final long timeoutNanos;
+    private final int maxWaiting;
+
+    public ConnectionAdmission(AdmissionProperties properties) {
+        this.timeoutNanos = properties.getAcquireTimeout().toNanos();
+        this.maxWaiting = properties.getMaxWaiting();
+    }
+
+    /**
+     * dataSource의 풀 크기(reserved 제외)만큼 permit을 둔다. Hikari 풀이 아니면 등록하지 않는다.
+     */
+    public void register(String name, DataSource dataSource, int reserved) {
+        HikariDataSource hikari = unwrap(dataSource);
+        if (hikari == null) {
+            log.warn("[ADMISSION] {} is not a Hikari pool, skipping", name);
+            return;
+        }
+        int permits = Math.max(1, hikari.getMaximumPoolSize() - reserved);
+        gates.put(dataSource, new Gate(name, new Semaphore(permits, true), permits));
+        log.info("[ADMISSION] {} permits={} (pool={})", name, permits, hikari.getMaximumPoolSize());
+    }
+
+    /**
+     * @param budgetNanos 요청 마감까지 남은 시간, 마감이 없으면 Long.MAX_VALUE
+     * @return 반납할 permit이 있으면 true, 등록되지 않은 DataSource면 false
+     */
+    boolean acquire(DataSource dataSource, long budgetNanos) {
+        Gate gate = gates.get(dataSource);
+        if (gate == null) {
+            return false;
+        }
+        if (gate.waiting.incrementAndGet() > maxWaiting) {
+            gate.waiting.decrementAndGet();
+            gate.rejected.incrementAndGet();
+            throw new AdmissionRejectedException("Too many waiters for " + gate.name);
+        }
+        long waitNanos = Math.min(timeoutNanos, budgetNanos);
+        try {
+            if (!gate.semaphore.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                if (waitNanos < timeoutNanos) {
+                    throw new DeadlineExceededException("Request deadline exceeded waiting for " + gate.name + " connection permit");
+                }
+                gate.rejected.incrementAndGet();
+                throw new AdmissionRejectedException("Timed out waiting for " + gate.name + " connection permit");
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AdmissionRejectedException("Interrupted while waiting for " + gate.name + " connection permit");
+        } finally {
+            gate.waiting.decrementAndGet();
+        }
+    }
+
+    void release(DataSource dataSource) {
+        Gate gate = gates.get(dataSource);
+        if (gate != null) {
+            gate.semaphore.release();
+        }
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshots = new LinkedHashMap<>();
+        gates.values().forEach(gate -> snapshots.put(gate.name, new Snapshot(
+                gate.permits, gate.permits - gate.semaphore.availablePermits(), gate.waiting.get(), gate.rejected.get())));
+        return snapshots;
+    }
+
+    private static HikariDataSource unwrap(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+
+    public record Snapshot(int permits, int inUse, int waiting, int rejected) {
+    }
+
+    private static final class Gate {
+        private final String name;
+        private final Semaphore semaphore;
+        private final int permits;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicInteger rejected = new AtomicInteger();
+
+        Gate(String name, Semaphore semaphore, int permits) {
+            this.name = name;
+            this.semaphore = semaphore;
+            this.permits = permits;
+        }
+    }
+}
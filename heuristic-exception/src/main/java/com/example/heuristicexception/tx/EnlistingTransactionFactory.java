@@ -0,0 +1,52 @@
+package com.example.heuristicexception.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.apache.ibatis.transaction.Transaction;
+import org.mybatis.spring.transaction.SpringManagedTransaction;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+
+/**
+ * MyBatis가 커넥션을 처음 요청하는 시점에 해당 DataSource를 복합 트랜잭션에 참여시키는 TransactionFactory.
+ * SqlSessionTemplate의 세션 동기화 조건(SpringManagedTransactionFactory 타입)을 유지하기 위해 상속한다.
+ */
+public class EnlistingTransactionFactory extends SpringManagedTransactionFactory {
+
+    private final CompositeTransactionManager compositeTxManager;
+
+    public EnlistingTransactionFactory(CompositeTransactionManager compositeTxManager) {
+        this.compositeTxManager = compositeTxManager;
+    }
+
+    @Override
+    public Transaction newTransaction(DataSource dataSource, TransactionIsolationLevel level, boolean autoCommit) {
+        return new EnlistingTransaction(dataSource, compositeTxManager);
+    }
+
+    private static final class EnlistingTransaction extends SpringManagedTransaction {
+
+        private final DataSource dataSource;
+        private final CompositeTransactionManager compositeTxManager;
+        private boolean enlisted;
+
+        EnlistingTransaction(DataSource dataSource, CompositeTransactionManager compositeTxManager) {
+            super(dataSource);
+            this.dataSource = dataSource;
+            this.compositeTxManager = compositeTxManager;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!enlisted) {
+                // 커넥션을 잡기 직전에 참여해야 DataSourceUtils가 트랜잭션에 바인딩된 커넥션을 돌려준다
+                compositeTxManager.enlist(dataSource);
+                enlisted = true;
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -1,6 +1,17 @@
 package com.example.heuristicexception.tx;
 
+import java.sql.SQLTransientConnectionException;
+
+import com.example.heuristicexception.deadline.DeadlineAwareDataSource;
+import com.example.heuristicexception.deadline.DeadlineExceededException;
+import com.example.heuristicexception.deadline.RequestDeadline;
+import com.example.heuristicexception.limit.LimitExceededException;
+import org.mybatis.spring.MyBatisSystemException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.HeuristicCompletionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -12,4 +23,67 @@ public class HeuristicExceptionHandler {
     public ResponseEntity<String> handle(HeuristicCompletionException ex) {
         return ResponseEntity.status(500).body(ex.getMessage());
     }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> handleRejected(AdmissionRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(LimitExceededException.class)
+    public ResponseEntity<String> handleLimit(LimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<String> handleDeadline(DeadlineExceededException ex) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(ex.getMessage());
+    }
+
+    /**
+     * lazy enlistment에서는 매퍼 커넥션 획득 중에 permit 거절/마감 초과가 나므로 MyBatis 예외로 감싸져 올라온다
+     */
+    @ExceptionHandler(MyBatisSystemException.class)
+    public ResponseEntity<String> handleMyBatis(MyBatisSystemException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        if (cause instanceof AdmissionRejectedException rejected) {
+            return handleRejected(rejected);
+        }
+        DeadlineExceededException exceeded = deadlineExceeded(ex);
+        if (exceeded != null) {
+            return handleDeadline(exceeded);
+        }
+        throw ex;
+    }
+
+    /**
+     * lazy-enlistment=false면 커넥션 대기 초과가 트랜잭션 시작 실패로 올라온다
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<String> handleCannotCreate(CannotCreateTransactionException ex) {
+        DeadlineExceededException exceeded = deadlineExceeded(ex);
+        if (exceeded != null) {
+            return handleDeadline(exceeded);
+        }
+        throw ex;
+    }
+
+    /**
+     * 원인 중 마감 초과가 있으면 돌려준다.
+     * 마감이 지난 요청의 커넥션 대기 시간 초과(SQLTransientConnectionException)는 {@link DeadlineAwareDataSource}가 남은 시간만 기다린 결과이므로 마감 초과로 본다.
+     */
+    private static DeadlineExceededException deadlineExceeded(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException exceeded) {
+                return exceeded;
+            }
+            if (cause instanceof SQLTransientConnectionException && RequestDeadline.remainingNanos() <= 0) {
+                return new DeadlineExceededException("Request deadline exceeded waiting for a connection: " + cause.getMessage());
+            }
+        }
+        return null;
+    }
 }
@@ -1,38 +1,48 @@
 package com.example.heuristicexception.tx;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import lombok.RequiredArgsConstructor;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.core.annotation.Order;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 
+/**
+ * {@link MultiResourceTransactional}이 붙은 메서드만 가로챈다. 포인트컷 매칭은 프록시 생성 시점에 끝나므로 애노테이션이 없는 호출은 advice를 거치지 않는다.
+ * 트랜잭션 정의는 메서드별로 처음 호출될 때 한 번만 해석해 캐싱한다.
+ */
 @Aspect
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 10)
 @RequiredArgsConstructor
 public class MultiResourceTransactionAspect {
 
-    @Qualifier("compositeTxManager")
-    private final PlatformTransactionManager compositeTxManager;
+    // PlatformTransactionManager 빈이 여럿(@Primary db1TxManager 포함)이라 구체 타입으로 주입받는다
+    private final CompositeTransactionManager compositeTxManager;
+    private final Map<Method, MultiResourceTransactionDefinition> definitions = new ConcurrentHashMap<>();
 
-    @Around("@within(org.springframework.stereotype.Service) && execution(* com.example.heuristicexception..*(..))")
+    @Around("@annotation(com.example.heuristicexception.tx.MultiResourceTransactional) "
+            + "|| @within(com.example.heuristicexception.tx.MultiResourceTransactional)")
     public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
-        boolean firstCall = FirstServiceCallContext.isFirstCall();
-        FirstServiceCallContext.markNotFirst();
-
-        if (!firstCall) {
-            return joinPoint.proceed();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MultiResourceTransactionDefinition definition = definitions.get(method);
+        if (definition == null) {
+            definition = definitions.computeIfAbsent(method, ignored -> resolve(method, joinPoint.getTarget().getClass()));
         }
 
         TransactionStatus status = null;
         try {
-            status = compositeTxManager.getTransaction(new DefaultTransactionDefinition());
+            status = compositeTxManager.getTransaction(definition);
             Object result = joinPoint.proceed();
             if (!status.isCompleted()) {
                 if (!status.isRollbackOnly()) {
@@ -47,8 +57,22 @@ public class MultiResourceTransactionAspect {
                 compositeTxManager.rollback(status);
             }
             throw ex;
-        } finally {
-            FirstServiceCallContext.reset();
         }
     }
+
+    private MultiResourceTransactionDefinition resolve(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        MultiResourceTransactional attributes = AnnotatedElementUtils.findMergedAnnotation(specificMethod, MultiResourceTransactional.class);
+        if (attributes == null) {
+            attributes = AnnotatedElementUtils.findMergedAnnotation(targetClass, MultiResourceTransactional.class);
+        }
+        if (attributes == null) {
+            throw new IllegalStateException("@MultiResourceTransactional not found on " + specificMethod);
+        }
+        if (attributes.propagation() == Propagation.NESTED) {
+            throw new IllegalStateException("Propagation NESTED is not supported for " + specificMethod);
+        }
+        String name = targetClass.getSimpleName() + "." + specificMethod.getName();
+        return new MultiResourceTransactionDefinition(attributes, compositeTxManager.resourceMask(attributes.dataSources()), name);
+    }
 }
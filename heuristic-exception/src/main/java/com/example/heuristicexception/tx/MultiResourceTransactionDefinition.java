@@ -0,0 +1,23 @@
+package com.example.heuristicexception.tx;
+
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+/**
+ * 참여 가능한 자원(비트마스크)을 함께 담은 트랜잭션 정의. 메서드별로 한 번 만들어 재사용하므로 만든 뒤에는 바꾸지 않는다.
+ */
+public class MultiResourceTransactionDefinition extends DefaultTransactionDefinition {
+
+    private final int resourceMask;
+
+    public MultiResourceTransactionDefinition(MultiResourceTransactional attributes, int resourceMask, String name) {
+        setPropagationBehavior(attributes.propagation().value());
+        setTimeout(attributes.timeout());
+        setReadOnly(attributes.readOnly());
+        setName(name);
+        this.resourceMask = resourceMask;
+    }
+
+    public int getResourceMask() {
+        return resourceMask;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.heuristicexception.tx;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+
+/**
+ * {@link CompositeTransactionManager}로 DB1·DB2 로컬 트랜잭션을 묶어 실행한다. 붙은 메서드(또는 타입의 모든 public 메서드)만 프록시 대상이다.
+ * 예외가 나면 종류와 관계없이 롤백한다.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface MultiResourceTransactional {
+
+    /**
+     * NESTED를 뺀 전부를 지원한다. REQUIRES_NEW/NOT_SUPPORTED는 바깥 복합 트랜잭션을 통째로 보류했다가 끝나면 되돌린다
+     */
+    Propagation propagation() default Propagation.REQUIRED;
+
+    /**
+     * 초 단위. 복합 트랜잭션 시작 시점부터 재며, 늦게 참여한 자원은 남은 시간만 받는다
+     */
+    int timeout() default TransactionDefinition.TIMEOUT_DEFAULT;
+
+    boolean readOnly() default false;
+
+    /**
+     * 참여할 수 있는 자원 이름 (예: "db1", "db2"). 비어 있으면 전부. 선언하지 않은 자원의 매퍼를 쓰면 예외
+     */
+    String[] dataSources() default {};
+}
@@ -0,0 +1,32 @@
+package com.example.heuristicexception.tx;
+
+import java.util.concurrent.Executor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 작업을 제출한 스레드의 복합 트랜잭션을 실행 스레드로 넘긴다.
+ * Boot가 유일한 TaskDecorator 빈을 applicationTaskExecutor에 적용하고, 그 밖의 Executor는 {@link #wrap}으로 감싼다.
+ * 제출 시점에 진행 중인 복합 트랜잭션이 없으면 작업을 그대로 돌려준다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionContextTaskDecorator implements TaskDecorator {
+
+    private final CompositeTransactionManager compositeTxManager;
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        CompositeTransactionManager.TransactionContext context = compositeTxManager.currentContext();
+        return context == null ? runnable : () -> context.run(runnable);
+    }
+
+    /**
+     * CompletableFuture.runAsync(task, decorator.wrap(executor)) 처럼 쓴다
+     */
+    public Executor wrap(Executor executor) {
+        return task -> executor.execute(decorate(task));
+    }
+}
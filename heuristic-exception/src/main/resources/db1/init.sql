@@ -5,3 +5,13 @@ CREATE TABLE IF NOT EXISTS approval_history (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     UNIQUE KEY uk_approval_id (approval_id)
 );
+
+-- UMS 내역 outbox (heuristic.ums.mode=outbox), 릴레이가 DB2로 옮긴 뒤 삭제
+CREATE TABLE IF NOT EXISTS ums_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    approval_id VARCHAR(64) NOT NULL,
+    phone_number VARCHAR(32) NOT NULL,
+    message VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_approval_id (approval_id)
+);
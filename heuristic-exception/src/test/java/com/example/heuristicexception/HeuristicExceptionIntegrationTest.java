@@ -4,9 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
 
 import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
 import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
 import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
 import java.math.BigDecimal;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -69,4 +71,19 @@ class HeuristicExceptionIntegrationTest {
             assertThat(umsCount).isBetween(0, 1);
         }
     }
+
+    @Test
+    void shouldKeepExistingRowWhenRelayingDuplicateApprovalIds() {
+        umsSendHistoryMapper.insertUmsHistory(new ApprovalRequest("APP-DUP", new BigDecimal("1.00"), "010-0000-0000", "original"));
+
+        umsSendHistoryMapper.insertUmsHistories(List.of(
+                new UmsOutboxMessage(1L, "APP-DUP", "010-0000-0000", "relayed again"),
+                new UmsOutboxMessage(2L, "APP-NEW", "010-0000-0001", "relayed")
+        ));
+
+        assertThat(db2JdbcTemplate.queryForList(
+                "SELECT message FROM ums_send_history WHERE approval_id IN ('APP-DUP', 'APP-NEW') ORDER BY approval_id",
+                String.class
+        )).containsExactly("original", "relayed");
+    }
 }
@@ -0,0 +1,215 @@
+package com.example.heuristicexception.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.heuristicexception.config.GroupCommitProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.ApprovalOutcome;
+import com.example.heuristicexception.domain.ApprovalRecord;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+class ApprovalGroupCommitterTest {
+
+    private final ApprovalHistory approvalHistory = new ApprovalHistory();
+    private final UmsHistory umsHistory = new UmsHistory();
+    private final ApprovalGroupCommitter committer = committer(approvalHistory, umsHistory);
+
+    @AfterEach
+    void tearDown() throws Exception {
+        committer.destroy();
+    }
+
+    @Test
+    void shouldFailQueuedApprovalsOnDestroy() throws Exception {
+        CompletableFuture<ApprovalOutcome> first = committer.submit(request("APP-1"));
+        CompletableFuture<ApprovalOutcome> second = committer.submit(request("APP-2"));
+
+        committer.destroy();
+
+        assertThat(first.getNow(null).status()).isEqualTo(ApprovalOutcome.Status.FAILED);
+        assertThat(second.getNow(null).error()).contains("shutting down");
+        assertThat(committer.submit(request("APP-3")).getNow(null).status()).isEqualTo(ApprovalOutcome.Status.FAILED);
+        assertThat(approvalHistory.inserted).isEmpty();
+    }
+
+    @Test
+    void shouldFailOnlyTheBatchThatThrowsAnError() throws Exception {
+        approvalHistory.errorsToThrow.set(1);
+        committer.afterPropertiesSet();
+
+        ApprovalOutcome failed = committer.submit(request("APP-1")).get(1, TimeUnit.SECONDS);
+        ApprovalOutcome approved = committer.submit(request("APP-2")).get(1, TimeUnit.SECONDS);
+
+        assertThat(failed.status()).isEqualTo(ApprovalOutcome.Status.FAILED);
+        assertThat(failed.error()).contains("boom");
+        assertThat(approved.status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+        assertThat(approvalHistory.inserted).containsExactly("APP-2");
+        assertThat(umsHistory.inserted).containsExactly("APP-2");
+    }
+
+    private static ApprovalGroupCommitter committer(ApprovalHistory approvalHistory, UmsHistory umsHistory) {
+        GroupCommitProperties properties = new GroupCommitProperties();
+        properties.setMaxBatch(1);
+        CompositeTransactionManager txManager = new CompositeTransactionManager(
+                Map.of("db1", new NoOpTransactionManager()), false);
+        return new ApprovalGroupCommitter(properties, new UmsProperties(), approvalHistory, umsHistory,
+                new UnusedOutbox(), null, txManager);
+    }
+
+    private static ApprovalRequest request(String approvalId) {
+        return new ApprovalRequest(approvalId, new BigDecimal("100.00"), "010-1234-5678", "hello");
+    }
+
+    static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            ((SimpleStatus) status).completed = true;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            ((SimpleStatus) status).completed = true;
+        }
+    }
+
+    static class SimpleStatus implements TransactionStatus {
+
+        private boolean rollbackOnly;
+        private boolean completed;
+
+        @Override
+        public void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    /**
+     * errorsToThrow만큼은 중복 조회에서 Error를 던진다
+     */
+    static class ApprovalHistory implements ApprovalHistoryMapper {
+
+        private final List<String> inserted = new ArrayList<>();
+        private final AtomicInteger errorsToThrow = new AtomicInteger();
+
+        @Override
+        public void insertApproval(ApprovalRequest request) {
+            inserted.add(request.approvalId());
+        }
+
+        @Override
+        public int insertApprovals(List<ApprovalRequest> requests) {
+            requests.forEach(this::insertApproval);
+            return requests.size();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            if (errorsToThrow.getAndDecrement() > 0) {
+                throw new AssertionError("boom");
+            }
+            return approvalIds.stream().filter(inserted::contains).toList();
+        }
+
+        @Override
+        public List<ApprovalRecord> findApprovalRecords(Collection<String> approvalIds) {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void streamRecentApprovalIds(int limit, ResultHandler<String> handler) {
+        }
+    }
+
+    static class UmsHistory implements UmsSendHistoryMapper {
+
+        private final List<String> inserted = new ArrayList<>();
+
+        @Override
+        public void insertUmsHistory(ApprovalRequest request) {
+            inserted.add(request.approvalId());
+        }
+
+        @Override
+        public void insertUmsHistories(List<UmsOutboxMessage> messages) {
+            messages.forEach(message -> inserted.add(message.approvalId()));
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return approvalIds.stream().filter(inserted::contains).toList();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+    }
+
+    static class UnusedOutbox implements UmsOutboxMapper {
+
+        @Override
+        public void insertOutbox(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int insertOutboxes(List<ApprovalRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<UmsOutboxMessage> findPending(long afterId, int limit) {
+            return List.of();
+        }
+
+        @Override
+        public int deleteByIds(List<Long> ids) {
+            return 0;
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return List.of();
+        }
+    }
+}
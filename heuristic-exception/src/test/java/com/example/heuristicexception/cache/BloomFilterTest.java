@@ -0,0 +1,28 @@
+package com.example.heuristicexception.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void shouldNeverMissInsertedKeys() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        IntStream.range(0, 1_000).parallel().forEach(i -> filter.put("APP-" + i));
+
+        assertThat(IntStream.range(0, 1_000).allMatch(i -> filter.mightContain("APP-" + i))).isTrue();
+    }
+
+    @Test
+    void shouldStayNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        IntStream.range(0, 1_000).forEach(i -> filter.put("APP-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("OTHER-" + i)).count();
+
+        assertThat(falsePositives).isLessThan(2_000L);
+    }
+}
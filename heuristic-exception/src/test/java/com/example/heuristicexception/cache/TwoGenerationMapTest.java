@@ -0,0 +1,68 @@
+package com.example.heuristicexception.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class TwoGenerationMapTest {
+
+    @Test
+    void shouldKeepAtMostCapacityEntries() {
+        TwoGenerationMap<Integer> map = new TwoGenerationMap<>(10, 0.01);
+
+        IntStream.range(0, 98).forEach(i -> map.putIfAbsent("APP-" + i, i));
+
+        // 세대당 5건, previous(APP-90~94)와 채우는 중인 current(APP-95~97)만 남는다
+        assertThat(IntStream.range(0, 98).filter(i -> map.get("APP-" + i) != null).count()).isEqualTo(8L);
+        assertThat(map.get("APP-90")).isEqualTo(90);
+        assertThat(map.get("APP-97")).isEqualTo(97);
+        assertThat(map.get("APP-89")).isNull();
+    }
+
+    @Test
+    void shouldPutIfAbsentOnlyAgainstCurrentGeneration() {
+        TwoGenerationMap<String> map = new TwoGenerationMap<>(4, 0);
+
+        assertThat(map.putIfAbsent("APP-1", "first")).isNull();
+        assertThat(map.putIfAbsent("APP-1", "second")).isEqualTo("first");
+        map.putIfAbsent("APP-2", "x");
+
+        // APP-1은 previous로 밀렸으므로 current에 새로 들어간다
+        assertThat(map.putIfAbsent("APP-1", "third")).isNull();
+        assertThat(map.get("APP-1")).isEqualTo("third");
+    }
+
+    @Test
+    void shouldReplaceAndRemoveAcrossGenerations() {
+        TwoGenerationMap<String> map = new TwoGenerationMap<>(4, 0.01);
+        map.putIfAbsent("APP-1", "a");
+        map.putIfAbsent("APP-2", "b");
+
+        assertThat(map.replace("APP-1", "a2")).isTrue();
+        assertThat(map.replace("APP-3", "c")).isFalse();
+        assertThat(map.get("APP-1")).isEqualTo("a2");
+        assertThat(map.get("APP-3")).isNull();
+
+        map.remove("APP-1", "a");
+        assertThat(map.get("APP-1")).isEqualTo("a2");
+        map.remove("APP-1", "a2");
+        map.remove("APP-2");
+        assertThat(map.get("APP-1")).isNull();
+        assertThat(map.get("APP-2")).isNull();
+    }
+
+    @Test
+    void shouldMovePreviousEntryToCurrentOnPut() {
+        TwoGenerationMap<String> map = new TwoGenerationMap<>(4, 0);
+        map.putIfAbsent("APP-1", "a");
+        map.putIfAbsent("APP-2", "b");
+
+        map.put("APP-1", "a2");
+        map.put("APP-3", "c");
+
+        // APP-1은 current로 옮겨져 APP-2와 함께 버려지지 않는다
+        assertThat(map.get("APP-1")).isEqualTo("a2");
+        assertThat(map.get("APP-2")).isNull();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.heuristicexception.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.heuristicexception.config.FaultProperties;
+import com.example.heuristicexception.fault.FaultInjectingDataSource;
+import com.example.heuristicexception.fault.FaultInjector;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeadlineAwareDataSourceTest {
+
+    private final RecordingPool pool = new RecordingPool();
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.set(null);
+    }
+
+    @Test
+    void shouldClosePoolThroughEveryWrapper() throws Exception {
+        DataSource wrapped = FaultInjectingDataSource.wrapIfEnabled("db2", DeadlineAwareDataSource.wrap(pool),
+                new FaultInjector(new FaultProperties()), List.of("db2"));
+
+        // Spring의 추론된 destroy 메서드는 AutoCloseable.close를 부른다
+        ((AutoCloseable) wrapped).close();
+
+        assertThat(pool.closed).isTrue();
+    }
+
+    @Test
+    void shouldFailWithoutTouchingPoolWhenDeadlinePassed() {
+        RequestDeadline.set(System.nanoTime() - 1);
+
+        Throwable thrown = catchThrowable(() -> DeadlineAwareDataSource.wrap(pool).getConnection());
+
+        assertThat(thrown).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(pool.connections).isEqualTo(0);
+    }
+
+    static class RecordingPool extends HikariDataSource {
+
+        private boolean closed;
+        private int connections;
+
+        @Override
+        public Connection getConnection() {
+            connections++;
+            return null;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.heuristicexception.fault;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.heuristicexception.config.FaultProperties;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+class FaultInjectingDataSourceTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final FaultInjector injector = new FaultInjector(new FaultProperties());
+    private final DataSource dataSource = new FaultInjectingDataSource("db2", recording(DataSource.class, calls), injector);
+
+    @Test
+    void shouldDelayCommitForLatencyRule() throws Exception {
+        injector.add(new FaultRuleRequest("db2", JdbcPhase.COMMIT, FaultAction.LATENCY, 1, 100, 0));
+
+        long start = System.nanoTime();
+        dataSource.getConnection().commit();
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(calls).containsExactly("getConnection", "commit");
+    }
+
+    @Test
+    void shouldFailCommitWithoutCallingTargetForExceptionRule() throws Exception {
+        injector.add(new FaultRuleRequest("db2", JdbcPhase.COMMIT, FaultAction.EXCEPTION, 1, 0, 1));
+        Connection connection = dataSource.getConnection();
+
+        Throwable failed = catchThrowable(connection::commit);
+        connection.commit();
+
+        assertThat(failed).isInstanceOf(SQLTransientException.class);
+        // times=1이면 한 번만 주입한다
+        assertThat(calls).containsExactly("getConnection", "commit");
+        assertThat(injector.snapshot().get(0).injected()).isEqualTo(1);
+        assertThat(injector.snapshot().get(0).remaining()).isEqualTo(0);
+    }
+
+    @Test
+    void shouldResetAfterCommitReachedServer() throws Exception {
+        injector.add(new FaultRuleRequest("db2", JdbcPhase.COMMIT, FaultAction.RESET_AFTER, 1, 0, 0));
+
+        Throwable reset = catchThrowable(() -> dataSource.getConnection().commit());
+
+        assertThat(reset).isInstanceOf(SQLNonTransientConnectionException.class);
+        assertThat(((SQLException) reset).getSQLState()).isEqualTo("08S01");
+        assertThat(calls).containsExactly("getConnection", "commit", "abort");
+    }
+
+    @Test
+    void shouldFailOnlyUpdatesOnTheConfiguredDataSource() throws Exception {
+        injector.add(new FaultRuleRequest("db2", JdbcPhase.EXECUTE_UPDATE, FaultAction.EXCEPTION, 1, 0, 0));
+        DataSource other = new FaultInjectingDataSource("db1", recording(DataSource.class, calls), injector);
+
+        PreparedStatement statement = dataSource.getConnection().prepareStatement("insert");
+        Throwable failed = catchThrowable(statement::executeUpdate);
+        statement.executeQuery();
+        other.getConnection().prepareStatement("insert").executeUpdate();
+
+        assertThat(failed).isInstanceOf(SQLTransientException.class);
+        assertThat(calls).containsExactly("getConnection", "prepareStatement", "executeQuery",
+                "getConnection", "prepareStatement", "executeUpdate");
+    }
+
+    @Test
+    void shouldReturnConnectionToPoolWhenResetAfterGetConnection() {
+        injector.add(new FaultRuleRequest("db2", JdbcPhase.GET_CONNECTION, FaultAction.RESET_AFTER, 1, 0, 0));
+
+        Throwable reset = catchThrowable(dataSource::getConnection);
+
+        assertThat(reset).isInstanceOf(SQLNonTransientConnectionException.class);
+        assertThat(calls).containsExactly("getConnection", "abort", "close");
+    }
+
+    /**
+     * 호출한 메서드 이름을 남기는 JDBC 객체, Connection/Statement를 돌려줘야 하는 메서드는 같은 방식의 객체를 돌려준다
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T recording(Class<T> type, List<String> calls) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            calls.add(method.getName());
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Connection.class || returnType == PreparedStatement.class) {
+                return recording(returnType, calls);
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.heuristicexception.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.heuristicexception.config.ApprovalStatusProperties;
+import com.example.heuristicexception.config.IdempotencyProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.ApprovalOutcome;
+import com.example.heuristicexception.domain.ApprovalRecord;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.HeuristicCompletionException;
+
+class ApprovalIdempotencyCacheTest {
+
+    private final ApprovalHistory approvalHistory = new ApprovalHistory();
+    private final UmsHistory umsHistory = new UmsHistory();
+
+    @Test
+    void shouldClaimOnceAndReplayStoredOutcome() {
+        ApprovalIdempotencyCache cache = cache(100);
+
+        assertThat(cache.claim("APP-1")).isNull();
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.IN_PROGRESS);
+
+        cache.complete("APP-1", ApprovalOutcome.approved("APP-1"));
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+
+        cache.claim("APP-2");
+        cache.complete("APP-2", ApprovalOutcome.duplicate("APP-2"));
+        assertThat(cache.claim("APP-2").status()).isEqualTo(ApprovalOutcome.Status.DUPLICATE);
+    }
+
+    @Test
+    void shouldReleaseClaimWhenNoApprovalRowWasLeft() {
+        ApprovalIdempotencyCache cache = cache(100);
+
+        cache.claim("APP-1");
+        cache.complete("APP-1", ApprovalOutcome.expired("APP-1"));
+        cache.claim("APP-2");
+        cache.fail("APP-2", new IllegalStateException("DB1 down"));
+        cache.claim("APP-3");
+        cache.fail("APP-3", new HeuristicCompletionException(HeuristicCompletionException.STATE_ROLLED_BACK, null));
+
+        assertThat(cache.claim("APP-1")).isNull();
+        assertThat(cache.claim("APP-2")).isNull();
+        assertThat(cache.claim("APP-3")).isNull();
+    }
+
+    @Test
+    void shouldKeepDuplicateKeyAndMixedOutcomesDistinctFromApproved() {
+        ApprovalIdempotencyCache cache = cache(100);
+
+        cache.claim("APP-1");
+        cache.fail("APP-1", new DuplicateKeyException("uk_approval_id"));
+        cache.claim("APP-2");
+        cache.fail("APP-2", new HeuristicCompletionException(HeuristicCompletionException.STATE_MIXED, null));
+
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.DUPLICATE);
+        ApprovalOutcome mixed = cache.claim("APP-2");
+        assertThat(mixed.status()).isEqualTo(ApprovalOutcome.Status.FAILED);
+        assertThat(mixed.error()).contains("HeuristicCompletionException");
+    }
+
+    @Test
+    void shouldDropOldestGenerationOnRotation() {
+        // 세대당 2건
+        ApprovalIdempotencyCache cache = cache(4);
+
+        cache.claim("APP-1");
+        cache.claim("APP-2");
+        cache.complete("APP-1", ApprovalOutcome.approved("APP-1"));
+        // APP-1·APP-2는 previous로 밀렸지만 아직 보인다
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+
+        cache.claim("APP-3");
+        cache.claim("APP-4");
+
+        assertThat(cache.claim("APP-1")).isNull();
+    }
+
+    @Test
+    void shouldRememberOutcomeWhoseClaimWasRotatedOut() {
+        ApprovalIdempotencyCache cache = cache(4);
+
+        cache.claim("APP-1");
+        cache.claim("APP-2");
+        cache.claim("APP-3");
+        cache.claim("APP-4");
+        cache.complete("APP-1", ApprovalOutcome.approved("APP-1"));
+
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+    }
+
+    @Test
+    void shouldWarmUpFromApprovalHistory() {
+        approvalHistory.recent = List.of("APP-1", "APP-2");
+        approvalHistory.approved.addAll(List.of("APP-1", "APP-2"));
+        umsHistory.sent.addAll(List.of("APP-1", "APP-2"));
+        ApprovalIdempotencyCache cache = cache(100);
+
+        cache.afterPropertiesSet();
+
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+        assertThat(cache.claim("APP-2").status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+        assertThat(cache.claim("APP-3")).isNull();
+    }
+
+    @Test
+    void shouldReplayWarmedMixedApprovalAsFailedLikeBeforeRestart() {
+        approvalHistory.recent = List.of("APP-1", "APP-2");
+        approvalHistory.approved.addAll(List.of("APP-1", "APP-2"));
+        // APP-2는 재시작 전에 STATE_MIXED로 끝나 DB2 행이 없다
+        umsHistory.sent.add("APP-1");
+        ApprovalIdempotencyCache cache = cache(100);
+        cache.afterPropertiesSet();
+
+        ApprovalOutcome mixed = cache.claim("APP-2");
+        int queries = umsHistory.queries;
+
+        assertThat(mixed.status()).isEqualTo(ApprovalOutcome.Status.FAILED);
+        assertThat(mixed.error()).contains("HeuristicCompletionException");
+        // 한 번 정한 결과는 남겨 두고 DB를 다시 읽지 않는다
+        assertThat(cache.claim("APP-2")).isEqualTo(mixed);
+        assertThat(umsHistory.queries).isEqualTo(queries);
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.APPROVED);
+    }
+
+    @Test
+    void shouldTreatWarmedIdWithoutApprovalRowAsNew() {
+        approvalHistory.recent = List.of("APP-1");
+        ApprovalIdempotencyCache cache = cache(100);
+        cache.afterPropertiesSet();
+
+        assertThat(cache.claim("APP-1")).isNull();
+        assertThat(cache.claim("APP-1").status()).isEqualTo(ApprovalOutcome.Status.IN_PROGRESS);
+    }
+
+    private ApprovalIdempotencyCache cache(int capacity) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setCapacity(capacity);
+        ApprovalStatusCache statusCache = new ApprovalStatusCache(new ApprovalStatusProperties(), new UmsProperties(),
+                approvalHistory, umsHistory);
+        return new ApprovalIdempotencyCache(properties, approvalHistory, statusCache);
+    }
+
+    static class ApprovalHistory implements ApprovalHistoryMapper {
+
+        private List<String> recent = List.of();
+        private final Set<String> approved = new HashSet<>();
+
+        @Override
+        public void insertApproval(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int insertApprovals(List<ApprovalRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return List.of();
+        }
+
+        @Override
+        public List<ApprovalRecord> findApprovalRecords(Collection<String> approvalIds) {
+            return approvalIds.stream().filter(approved::contains).map(approvalId -> new ApprovalRecord(approvalId, false)).toList();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void streamRecentApprovalIds(int limit, ResultHandler<String> handler) {
+            recent.stream().limit(limit).forEach(approvalId -> handler.handleResult(new Row(approvalId)));
+        }
+    }
+
+    static class UmsHistory implements UmsSendHistoryMapper {
+
+        private final Set<String> sent = new HashSet<>();
+        private int queries;
+
+        @Override
+        public void insertUmsHistory(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void insertUmsHistories(List<UmsOutboxMessage> messages) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            queries++;
+            return approvalIds.stream().filter(sent::contains).toList();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+    }
+
+    record Row(String approvalId) implements ResultContext<String> {
+
+        @Override
+        public String getResultObject() {
+            return approvalId;
+        }
+
+        @Override
+        public int getResultCount() {
+            return 1;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return false;
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
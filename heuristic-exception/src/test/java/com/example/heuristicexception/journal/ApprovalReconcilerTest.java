@@ -0,0 +1,193 @@
+package com.example.heuristicexception.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.heuristicexception.config.ApprovalStatusProperties;
+import com.example.heuristicexception.config.JournalProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.ApprovalRecord;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ApprovalReconcilerTest {
+
+    @TempDir
+    Path dir;
+
+    private final ApprovalHistory approvalHistory = new ApprovalHistory();
+    private final UmsHistory umsHistory = new UmsHistory();
+    private final JournalProperties properties = new JournalProperties();
+    private CommitJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties.setPath(dir.resolve("commit-journal.log"));
+        journal = new CommitJournal(properties);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.destroy();
+    }
+
+    @Test
+    void shouldRepairMixedEntryFromJournalPayload() {
+        long txId = journal.begin(List.of(tag("APP-1")), 0b11);
+        journal.committed(txId, 0);
+        journal.end(txId, CommitJournal.Outcome.MIXED);
+        approvalHistory.ids.add("APP-1");
+
+        reconciler().reconcile();
+
+        assertThat(umsHistory.rows).containsEntry("APP-1", "010-1234-5678:hello");
+        assertThat(journal.unresolved()).isEmpty();
+    }
+
+    @Test
+    void shouldScanBothDatabasesIncrementallyAcrossRuns() {
+        properties.getReconciler().setPageSize(1);
+        properties.getReconciler().setScanPagesPerRun(1);
+        // 아직 종료되지 않은 항목의 페이로드로 DB1 고아를 채운다
+        journal.begin(List.of(tag("APP-1")), 0b11);
+        approvalHistory.ids.add("APP-1");
+        approvalHistory.ids.add("APP-2");
+        umsHistory.rows.put("APP-2", "010-1234-5678:hello");
+        umsHistory.rows.put("APP-9", "010-1234-5678:hello");
+        ApprovalReconciler reconciler = reconciler();
+
+        reconciler.reconcile();
+        assertThat(umsHistory.rows).containsKey("APP-1");
+        reconciler.reconcile();
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        assertThat(approvalHistory.scannedAfter).containsExactly("", "APP-1", "APP-2", "");
+        assertThat(umsHistory.scannedAfter).containsExactly("", "APP-1", "APP-2", "APP-9");
+    }
+
+    private ApprovalReconciler reconciler() {
+        UmsProperties umsProperties = new UmsProperties();
+        ApprovalStatusCache statusCache = new ApprovalStatusCache(new ApprovalStatusProperties(), umsProperties,
+                approvalHistory, umsHistory);
+        return new ApprovalReconciler(journal, properties, umsProperties, approvalHistory, umsHistory,
+                new UnusedOutbox(), statusCache);
+    }
+
+    private static CommitJournal.Tag tag(String approvalId) {
+        return new CommitJournal.Tag(approvalId, List.of("010-1234-5678", "hello"));
+    }
+
+    private static List<String> after(Collection<String> ids, String afterApprovalId, int limit) {
+        return ids.stream().filter(id -> id.compareTo(afterApprovalId) > 0).sorted().limit(limit).toList();
+    }
+
+    /**
+     * keyset 조회에 넘어온 커서를 남긴다
+     */
+    static class ApprovalHistory implements ApprovalHistoryMapper {
+
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> scannedAfter = new ArrayList<>();
+
+        @Override
+        public void insertApproval(ApprovalRequest request) {
+            ids.add(request.approvalId());
+        }
+
+        @Override
+        public int insertApprovals(List<ApprovalRequest> requests) {
+            requests.forEach(this::insertApproval);
+            return requests.size();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return approvalIds.stream().filter(ids::contains).toList();
+        }
+
+        @Override
+        public List<ApprovalRecord> findApprovalRecords(Collection<String> approvalIds) {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            scannedAfter.add(afterApprovalId);
+            return after(ids, afterApprovalId, limit);
+        }
+
+        @Override
+        public void streamRecentApprovalIds(int limit, ResultHandler<String> handler) {
+        }
+    }
+
+    static class UmsHistory implements UmsSendHistoryMapper {
+
+        private final Map<String, String> rows = new TreeMap<>();
+        private final List<String> scannedAfter = new ArrayList<>();
+
+        @Override
+        public void insertUmsHistory(ApprovalRequest request) {
+            rows.putIfAbsent(request.approvalId(), request.phoneNumber() + ":" + request.message());
+        }
+
+        @Override
+        public void insertUmsHistories(List<UmsOutboxMessage> messages) {
+            messages.forEach(message -> rows.putIfAbsent(message.approvalId(), message.phoneNumber() + ":" + message.message()));
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return approvalIds.stream().filter(rows::containsKey).toList();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            scannedAfter.add(afterApprovalId);
+            return after(rows.keySet(), afterApprovalId, limit);
+        }
+    }
+
+    static class UnusedOutbox implements UmsOutboxMapper {
+
+        @Override
+        public void insertOutbox(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int insertOutboxes(List<ApprovalRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<UmsOutboxMessage> findPending(long afterId, int limit) {
+            return List.of();
+        }
+
+        @Override
+        public int deleteByIds(List<Long> ids) {
+            return 0;
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return List.of();
+        }
+    }
+}
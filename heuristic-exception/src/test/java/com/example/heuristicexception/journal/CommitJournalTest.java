@@ -0,0 +1,106 @@
+package com.example.heuristicexception.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.heuristicexception.config.JournalProperties;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class CommitJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldRecoverMixedAndUnfinishedEntriesAfterRestart() throws Exception {
+        CommitJournal journal = open(DataSize.ofMegabytes(64));
+        long mixed = journal.begin(List.of(tag("APP-1")), 0b11);
+        journal.committed(mixed, 0);
+        journal.end(mixed, CommitJournal.Outcome.MIXED);
+        long committed = journal.begin(List.of(tag("APP-2")), 0b11);
+        journal.end(committed, CommitJournal.Outcome.COMMITTED);
+        long unfinished = journal.begin(List.of(tag("APP-3")), 0b11);
+        journal.destroy();
+
+        CommitJournal recovered = open(DataSize.ofMegabytes(64));
+
+        assertThat(recovered.unresolved().stream().map(CommitJournal.Entry::txId).sorted().toList())
+                .containsExactly(mixed, unfinished);
+        assertThat(entry(recovered, mixed).isCommitted(0)).isTrue();
+        assertThat(entry(recovered, mixed).isCommitted(1)).isFalse();
+        assertThat(recovered.findTag("APP-2")).isNull();
+        assertThat(recovered.findTag("APP-3").payload()).containsExactly("010-1234-5678", "hello");
+        assertThat(recovered.begin(List.of(tag("APP-4")), 0b11)).isGreaterThan(unfinished);
+        recovered.destroy();
+    }
+
+    @Test
+    void shouldTruncateTornTailOnRecovery() throws Exception {
+        CommitJournal journal = open(DataSize.ofMegabytes(64));
+        long txId = journal.begin(List.of(tag("APP-1")), 0b11);
+        journal.destroy();
+        long intact = Files.size(journalPath());
+        // 길이는 100이라고 적혔지만 본문이 없는 레코드 (쓰다 끊긴 꼬리)
+        Files.write(journalPath(), ByteBuffer.allocate(11).putInt(100).putInt(0).array(), StandardOpenOption.APPEND);
+
+        CommitJournal recovered = open(DataSize.ofMegabytes(64));
+        assertThat(Files.size(journalPath())).isEqualTo(intact);
+        assertThat(recovered.unresolved().stream().map(CommitJournal.Entry::txId).toList()).containsExactly(txId);
+        // 잘라낸 뒤에 이어 쓴 레코드도 다시 읽혀야 한다
+        recovered.resolve(txId);
+        recovered.destroy();
+
+        CommitJournal reopened = open(DataSize.ofMegabytes(64));
+        assertThat(reopened.unresolved()).isEmpty();
+        reopened.destroy();
+    }
+
+    @Test
+    void shouldKeepOnlyOpenEntriesWhenCompacting() throws Exception {
+        CommitJournal journal = open(DataSize.ofBytes(1));
+        for (int i = 0; i < 100; i++) {
+            long txId = journal.begin(List.of(tag("APP-" + i)), 0b11);
+            journal.end(txId, CommitJournal.Outcome.COMMITTED);
+        }
+        long mixed = journal.begin(List.of(tag("APP-MIXED")), 0b11);
+        journal.end(mixed, CommitJournal.Outcome.MIXED);
+        long before = Files.size(journalPath());
+
+        journal.compactIfNecessary();
+        long resolved = journal.begin(List.of(tag("APP-LATE")), 0b11);
+        journal.resolve(resolved);
+        journal.destroy();
+
+        assertThat(Files.size(journalPath())).isLessThan(before);
+        CommitJournal reopened = open(DataSize.ofMegabytes(64));
+        assertThat(reopened.unresolved().stream().map(CommitJournal.Entry::txId).toList()).containsExactly(mixed);
+        assertThat(reopened.findTag("APP-MIXED")).isNotNull();
+        reopened.destroy();
+    }
+
+    private CommitJournal open(DataSize compactThreshold) throws IOException {
+        JournalProperties properties = new JournalProperties();
+        properties.setPath(journalPath());
+        properties.setCompactThreshold(compactThreshold);
+        return new CommitJournal(properties);
+    }
+
+    private Path journalPath() {
+        return dir.resolve("commit-journal.log");
+    }
+
+    private static CommitJournal.Entry entry(CommitJournal journal, long txId) {
+        return journal.unresolved().stream().filter(entry -> entry.txId() == txId).findFirst().orElseThrow();
+    }
+
+    private static CommitJournal.Tag tag(String approvalId) {
+        return new CommitJournal.Tag(approvalId, List.of("010-1234-5678", "hello"));
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.heuristicexception.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.heuristicexception.config.ApprovalStatusProperties;
+import com.example.heuristicexception.config.ConcurrencyLimitProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.ApprovalRecord;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db1.UmsOutboxMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import com.example.heuristicexception.outbox.UmsOutboxRelay;
+import com.example.heuristicexception.status.ApprovalStatusCache;
+import com.example.heuristicexception.tx.CompositeTransactionManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MIN_RTT = TimeUnit.MILLISECONDS.toNanos(4);
+
+    private final ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+
+    @Test
+    void shouldBackOffByLogOfLimitOnDrop() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Optional.empty());
+
+        assertThat(limiter.nextLimit(10, 10, MIN_RTT, true)).isEqualTo(9.0);
+        assertThat(limiter.nextLimit(100, 100, MIN_RTT, true)).isEqualTo(98.0);
+    }
+
+    @Test
+    void shouldHoldLimitWhenLessThanHalfInFlight() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Optional.empty());
+        limiter.onSample(MIN_RTT, true);
+
+        assertThat(limiter.nextLimit(10, 4, MIN_RTT, false)).isEqualTo(10.0);
+    }
+
+    @Test
+    void shouldGrowOrShrinkByEstimatedQueue() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Optional.empty());
+        limiter.onSample(MIN_RTT, true);
+
+        // 대기열 0 → beta × log 만큼 크게 늘린다
+        assertThat(limiter.nextLimit(10, 10, MIN_RTT, false)).isEqualTo(16.0);
+        // 10 × (1 - 4/5) = 2 < alpha(3) → +1
+        assertThat(limiter.nextLimit(10, 10, TimeUnit.MILLISECONDS.toNanos(5), false)).isEqualTo(11.0);
+        // 10 × (1 - 4/8) = 5, alpha와 beta 사이 → 유지
+        assertThat(limiter.nextLimit(10, 10, TimeUnit.MILLISECONDS.toNanos(8), false)).isEqualTo(10.0);
+        // 10 × (1 - 4/16) = 7.5 → 8 > beta(6) → -1
+        assertThat(limiter.nextLimit(10, 10, TimeUnit.MILLISECONDS.toNanos(16), false)).isEqualTo(9.0);
+    }
+
+    @Test
+    void shouldShrinkOnRttAboveMaxRtt() {
+        AdaptiveConcurrencyLimiter limiter = limiter(Optional.empty());
+
+        limiter.onSample(properties.getMaxRtt().toNanos() + 1, true);
+
+        assertThat(limiter.snapshot().limit()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldLearnFromRelayWritesInOutboxMode() {
+        UmsHistory umsHistory = new UmsHistory();
+        UmsOutboxRelay relay = new UmsOutboxRelay(new PendingOutbox(), umsHistory, new UmsProperties(),
+                new ApprovalStatusCache(new ApprovalStatusProperties(), new UmsProperties(), new UnusedApprovalHistory(), umsHistory));
+        AdaptiveConcurrencyLimiter limiter = limiter(Optional.of(relay));
+        limiter.afterPropertiesSet();
+
+        umsHistory.failing = true;
+        relay.relay();
+
+        // 릴레이 적재 실패가 샘플로 들어와 한도가 줄었다
+        assertThat(limiter.snapshot().limit()).isEqualTo(9);
+        assertThat(limiter.snapshot().lastRtt()).isGreaterThanOrEqualTo(0L);
+        limiter.destroy();
+        relay.relay();
+        assertThat(limiter.snapshot().limit()).isEqualTo(9);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(Optional<UmsOutboxRelay> relay) {
+        CompositeTransactionManager txManager = new CompositeTransactionManager(Map.of("db2", new UnusedTransactionManager()));
+        return new AdaptiveConcurrencyLimiter(properties, txManager, relay);
+    }
+
+    static class UnusedTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * 매번 한 건을 돌려주는 outbox
+     */
+    static class PendingOutbox implements UmsOutboxMapper {
+
+        @Override
+        public void insertOutbox(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int insertOutboxes(List<ApprovalRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<UmsOutboxMessage> findPending(long afterId, int limit) {
+            return afterId == 0 ? List.of(new UmsOutboxMessage(1L, "APP-1", "010-1234-5678", "hello")) : List.of();
+        }
+
+        @Override
+        public int deleteByIds(List<Long> ids) {
+            return ids.size();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return List.of();
+        }
+    }
+
+    static class UmsHistory implements UmsSendHistoryMapper {
+
+        private final List<String> inserted = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void insertUmsHistory(ApprovalRequest request) {
+            inserted.add(request.approvalId());
+        }
+
+        @Override
+        public void insertUmsHistories(List<UmsOutboxMessage> messages) {
+            if (failing) {
+                throw new IllegalStateException("DB2 write timeout");
+            }
+            messages.forEach(message -> inserted.add(message.approvalId()));
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+    }
+
+    static class UnusedApprovalHistory implements ApprovalHistoryMapper {
+
+        @Override
+        public void insertApproval(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int insertApprovals(List<ApprovalRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return List.of();
+        }
+
+        @Override
+        public List<ApprovalRecord> findApprovalRecords(Collection<String> approvalIds) {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void streamRecentApprovalIds(int limit, ResultHandler<String> handler) {
+        }
+    }
+}
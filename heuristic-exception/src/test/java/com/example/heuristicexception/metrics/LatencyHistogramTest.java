@@ -0,0 +1,69 @@
+package com.example.heuristicexception.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldKeepRelativeErrorWithinOneSubBucket() {
+        for (long value = 64; value > 0 && value < Long.MAX_VALUE / 5; value = value * 5 + 3) {
+            long reported = LatencyHistogram.valueOf(LatencyHistogram.indexOf(value));
+
+            assertThat(Math.abs(reported - value) / (double) value).isLessThanOrEqualTo(1.0 / 64);
+        }
+    }
+
+    @Test
+    void shouldReportPercentilesClampedToMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(100L);
+        assertThat(snapshot.p50()).isBetween(49_000.0, 51_000.0);
+        assertThat(snapshot.p90()).isBetween(89_000.0, 91_000.0);
+        // 구간 중앙값이 실제 최대값을 넘지 않는다
+        assertThat(snapshot.p999()).isLessThanOrEqualTo(snapshot.max());
+        assertThat(snapshot.max()).isEqualTo(100_000.0);
+    }
+
+    @Test
+    void shouldReportZeroWhenEmptyAndClampNegativeSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.snapshot()).isEqualTo(new LatencyHistogram.Snapshot(0, 0, 0, 0, 0, 0, 0));
+
+        histogram.record(-1);
+
+        assertThat(histogram.snapshot().count()).isEqualTo(1L);
+        assertThat(histogram.snapshot().max()).isEqualTo(0.0);
+    }
+
+    @Test
+    void shouldCountConcurrentSamples() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(histogram.snapshot().count()).isEqualTo(40_000L);
+        assertThat(histogram.snapshot().max()).isEqualTo(10.0);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.heuristicexception.status;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.heuristicexception.config.ApprovalStatusProperties;
+import com.example.heuristicexception.config.UmsProperties;
+import com.example.heuristicexception.domain.ApprovalRecord;
+import com.example.heuristicexception.domain.ApprovalRequest;
+import com.example.heuristicexception.domain.ApprovalStatus;
+import com.example.heuristicexception.domain.UmsOutboxMessage;
+import com.example.heuristicexception.mapper.db1.ApprovalHistoryMapper;
+import com.example.heuristicexception.mapper.db2.UmsSendHistoryMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+
+class ApprovalStatusCacheTest {
+
+    private final ApprovalStatusProperties properties = new ApprovalStatusProperties();
+    private final ApprovalHistory approvalHistory = new ApprovalHistory();
+    private final UmsHistory umsHistory = new UmsHistory();
+
+    @Test
+    void shouldLoadMissesInBatchesAndKeepRequestOrder() {
+        properties.setBatchSize(2);
+        approvalHistory.approved.addAll(List.of("APP-1", "APP-2", "APP-3"));
+        umsHistory.sent.addAll(List.of("APP-1", "APP-2"));
+        ApprovalStatusCache cache = cache();
+
+        List<ApprovalStatus> statuses = cache.getAll(List.of("APP-4", "APP-1", "APP-2", "APP-1", "APP-3"));
+
+        assertThat(statuses.stream().map(ApprovalStatus::state).toList()).containsExactly(ApprovalStatus.State.MISSING,
+                ApprovalStatus.State.COMMITTED, ApprovalStatus.State.COMMITTED, ApprovalStatus.State.COMMITTED,
+                ApprovalStatus.State.MIXED);
+        // 중복을 뺀 4건을 2건씩, MIXED인 APP-3만 한 번 더
+        assertThat(approvalHistory.queries).containsExactly(List.of("APP-4", "APP-1"), List.of("APP-2", "APP-3"), List.of("APP-3"));
+        assertThat(umsHistory.queries).hasSize(3);
+    }
+
+    @Test
+    void shouldRereadBeforeReportingMixed() {
+        approvalHistory.approved.add("APP-1");
+        // 첫 DB2 조회는 DB2 커밋 전에 읽힌다
+        umsHistory.commitAfterFirstQuery = "APP-1";
+        ApprovalStatusCache cache = cache();
+
+        assertThat(cache.get("APP-1").state()).isEqualTo(ApprovalStatus.State.COMMITTED);
+        assertThat(umsHistory.queries).hasSize(2);
+    }
+
+    @Test
+    void shouldServeCommittedFromCacheAndReloadAfterInvalidate() {
+        approvalHistory.approved.add("APP-1");
+        umsHistory.sent.add("APP-1");
+        ApprovalStatusCache cache = cache();
+
+        cache.get("APP-1");
+        cache.get("APP-1");
+        assertThat(approvalHistory.queries).hasSize(1);
+
+        cache.invalidate(List.of("APP-1"));
+        cache.get("APP-1");
+        assertThat(approvalHistory.queries).hasSize(2);
+    }
+
+    @Test
+    void shouldPutWriteResultWithoutReading() {
+        ApprovalStatusCache cache = cache();
+
+        cache.approved("APP-1");
+
+        assertThat(cache.get("APP-1").state()).isEqualTo(ApprovalStatus.State.COMMITTED);
+        assertThat(approvalHistory.queries).isEmpty();
+    }
+
+    @Test
+    void shouldKeepTransientStatusOnlyForTtl() {
+        properties.setTransientTtl(Duration.ofMinutes(1));
+        ApprovalStatusCache cache = cache();
+        cache.get("APP-1");
+        cache.get("APP-1");
+        assertThat(approvalHistory.queries).hasSize(1);
+
+        properties.setTransientTtl(Duration.ofNanos(1));
+        ApprovalStatusCache expiring = cache();
+        expiring.get("APP-2");
+        expiring.get("APP-2");
+        assertThat(approvalHistory.queries).hasSize(3);
+
+        properties.setTransientTtl(Duration.ZERO);
+        ApprovalStatusCache uncached = cache();
+        uncached.get("APP-3");
+        uncached.get("APP-3");
+        assertThat(approvalHistory.queries).hasSize(5);
+    }
+
+    @Test
+    void shouldNotCacheTransientStatusReadAcrossInvalidate() {
+        properties.setTransientTtl(Duration.ofMinutes(1));
+        ApprovalStatusCache cache = cache();
+        // 조회 도중 쓰기 경로가 APP-1을 커밋하고 지운다
+        approvalHistory.duringQuery = () -> cache.invalidate(List.of("APP-1"));
+
+        assertThat(cache.get("APP-1").state()).isEqualTo(ApprovalStatus.State.MISSING);
+        approvalHistory.duringQuery = null;
+        approvalHistory.approved.add("APP-1");
+        umsHistory.sent.add("APP-1");
+
+        assertThat(cache.get("APP-1").state()).isEqualTo(ApprovalStatus.State.COMMITTED);
+    }
+
+    private ApprovalStatusCache cache() {
+        return new ApprovalStatusCache(properties, new UmsProperties(), approvalHistory, umsHistory);
+    }
+
+    static class ApprovalHistory implements ApprovalHistoryMapper {
+
+        private final Set<String> approved = new HashSet<>();
+        private final List<List<String>> queries = new ArrayList<>();
+        private Runnable duringQuery;
+
+        @Override
+        public void insertApproval(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int insertApprovals(List<ApprovalRequest> requests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            return approvalIds.stream().filter(approved::contains).toList();
+        }
+
+        @Override
+        public List<ApprovalRecord> findApprovalRecords(Collection<String> approvalIds) {
+            queries.add(List.copyOf(approvalIds));
+            if (duringQuery != null) {
+                duringQuery.run();
+            }
+            return approvalIds.stream().filter(approved::contains).map(approvalId -> new ApprovalRecord(approvalId, false)).toList();
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+
+        @Override
+        public void streamRecentApprovalIds(int limit, ResultHandler<String> handler) {
+        }
+    }
+
+    static class UmsHistory implements UmsSendHistoryMapper {
+
+        private final Set<String> sent = new HashSet<>();
+        private final List<List<String>> queries = new ArrayList<>();
+        private String commitAfterFirstQuery;
+
+        @Override
+        public void insertUmsHistory(ApprovalRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void insertUmsHistories(List<UmsOutboxMessage> messages) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<String> findExistingApprovalIds(Collection<String> approvalIds) {
+            queries.add(List.copyOf(approvalIds));
+            List<String> found = approvalIds.stream().filter(sent::contains).toList();
+            if (commitAfterFirstQuery != null) {
+                sent.add(commitAfterFirstQuery);
+                commitAfterFirstQuery = null;
+            }
+            return found;
+        }
+
+        @Override
+        public List<String> findApprovalIdsAfter(String afterApprovalId, long graceSeconds, int limit) {
+            return List.of();
+        }
+    }
+}
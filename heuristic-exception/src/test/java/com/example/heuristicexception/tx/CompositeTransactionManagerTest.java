@@ -0,0 +1,417 @@
+package com.example.heuristicexception.tx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.NestedTransactionNotSupportedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class CompositeTransactionManagerTest {
+
+    private final List<String> events = new ArrayList<>();
+    private final CompositeTransactionManager txManager = new CompositeTransactionManager(delegates(events));
+
+    @AfterEach
+    void clearThread() {
+        TransactionSynchronizationManager.clear();
+        new ArrayList<>(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResource);
+    }
+
+    @Test
+    void shouldSuspendForeignSynchronizationAndResumeItAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionName("outer");
+        RecordingSynchronization foreign = new RecordingSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(foreign);
+
+        TransactionStatus status = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        txManager.commit(status);
+
+        assertThat(foreign.calls).containsExactly("suspend", "resume");
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(foreign);
+        assertThat(TransactionSynchronizationManager.getCurrentTransactionName()).isEqualTo("outer");
+        assertThat(events).containsExactly("db1:begin", "db2:begin", "db1:commit", "db2:commit");
+    }
+
+    @Test
+    void shouldRunRequiresNewIndependentlyOfOuterTransaction() {
+        TransactionStatus outer = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+
+        TransactionStatus inner = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        assertThat(inner.isNewTransaction()).isTrue();
+        txManager.rollback(inner);
+
+        assertThat(outer.isRollbackOnly()).isFalse();
+        // 되돌린 바깥 트랜잭션에 다시 참여할 수 있어야 한다
+        assertThat(txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED)).isNewTransaction()).isFalse();
+        txManager.commit(outer);
+
+        assertThat(events).containsExactly(
+                "db1:begin", "db2:begin",
+                "db1:begin", "db2:begin", "db2:rollback", "db1:rollback",
+                "db1:commit", "db2:commit");
+        assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isFalse();
+    }
+
+    @Test
+    void shouldSuspendOuterTransactionForNotSupported() {
+        TransactionStatus outer = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+        RecordingSynchronization outerSynchronization = new RecordingSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(outerSynchronization);
+
+        TransactionStatus none = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_NOT_SUPPORTED));
+        assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isFalse();
+        assertThat(txManager.currentContext()).isNull();
+        txManager.rollback(none);
+
+        assertThat(outer.isRollbackOnly()).isFalse();
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(outerSynchronization);
+        txManager.commit(outer);
+
+        assertThat(outerSynchronization.calls).containsExactly("suspend", "resume", "afterCompletion:0");
+        assertThat(events).containsExactly("db1:begin", "db2:begin", "db1:commit", "db2:commit");
+    }
+
+    @Test
+    void shouldRejectNestedInsideExistingTransaction() {
+        TransactionStatus outer = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+
+        Throwable thrown = catchThrowable(() -> txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_NESTED)));
+        txManager.commit(outer);
+
+        assertThat(thrown).isInstanceOf(NestedTransactionNotSupportedException.class);
+        assertThat(events).containsExactly("db1:begin", "db2:begin", "db1:commit", "db2:commit");
+    }
+
+    @Test
+    void shouldRejectMandatoryWithoutAndNeverWithinTransaction() {
+        Throwable mandatory = catchThrowable(() -> txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_MANDATORY)));
+        TransactionStatus outer = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+        Throwable never = catchThrowable(() -> txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_NEVER)));
+        txManager.commit(outer);
+
+        assertThat(mandatory).isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(never).isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(events).containsExactly("db1:begin", "db2:begin", "db1:commit", "db2:commit");
+    }
+
+    @Test
+    void shouldRunDecoratedTaskInOwnerTransactionAndHandBackItsResources() throws Exception {
+        TransactionStatus outer = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+        RecordingSynchronization workerSynchronization = new RecordingSynchronization();
+        List<Object> seen = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture.runAsync(() -> {
+                TransactionStatus joined = txManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+                seen.add(joined.isNewTransaction());
+                seen.add(TransactionSynchronizationManager.getCurrentTransactionName());
+                // 작업 스레드에서 처음 묶인 자원 (lazy enlist된 ConnectionHolder, SqlSessionHolder 등)
+                TransactionSynchronizationManager.bindResource("worker-resource", "holder");
+                TransactionSynchronizationManager.registerSynchronization(workerSynchronization);
+                txManager.commit(joined);
+            }, new TransactionContextTaskDecorator(txManager).wrap(executor)).get(1, TimeUnit.SECONDS);
+
+            txManager.commit(outer);
+            // 작업 스레드에는 아무것도 남지 않는다
+            seen.add(executor.submit(TransactionSynchronizationManager::getResourceMap).get(1, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(seen).containsExactly(false, "test", true);
+        assertThat(workerSynchronization.calls).containsExactly("afterCompletion:0");
+        assertThat(TransactionSynchronizationManager.getResource("worker-resource")).isEqualTo("holder");
+        assertThat(events).containsExactly("db1:begin", "db2:begin", "db1:commit", "db2:commit");
+    }
+
+    @Test
+    void shouldEnlistOnceWhenContextThreadAndOwnerRaceOnSameResource() throws Exception {
+        List<String> connects = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch connecting = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        DataSource db2 = dataSource(() -> {
+            connects.add(Thread.currentThread().getName());
+            connecting.countDown();
+            await(proceed);
+        });
+        CompositeTransactionManager lazyTxManager = dataSourceTxManager(dataSource(() -> {
+        }), db2);
+        TransactionStatus outer = lazyTxManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+        CompositeTransactionManager.TransactionContext context = lazyTxManager.currentContext();
+
+        Thread worker = new Thread(() -> context.run(() -> lazyTxManager.enlist(db2)), "context-worker");
+        worker.start();
+        await(connecting);
+        Thread releaser = new Thread(() -> {
+            sleep(100);
+            proceed.countDown();
+        });
+        releaser.start();
+        // 작업 스레드가 커넥션을 얻는 동안 소유 스레드도 같은 DB를 처음 쓴다
+        lazyTxManager.enlist(db2);
+        worker.join(1_000);
+        lazyTxManager.commit(outer);
+
+        assertThat(connects).containsExactly("context-worker");
+    }
+
+    @Test
+    void shouldAllowParticipantResourcesOnlyUntilParticipationEnds() {
+        DataSource db2 = dataSource(() -> {
+        });
+        CompositeTransactionManager lazyTxManager = dataSourceTxManager(dataSource(() -> {
+        }), db2);
+        TransactionStatus outer = lazyTxManager.getTransaction(declared(lazyTxManager, "db1Only"));
+
+        TransactionStatus participant = lazyTxManager.getTransaction(declared(lazyTxManager, "both"));
+        lazyTxManager.commit(participant);
+        Throwable undeclared = catchThrowable(() -> lazyTxManager.enlist(db2));
+
+        TransactionStatus enlisting = lazyTxManager.getTransaction(declared(lazyTxManager, "both"));
+        lazyTxManager.enlist(db2);
+        lazyTxManager.commit(enlisting);
+        lazyTxManager.commit(outer);
+
+        assertThat(undeclared).isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(outer.isCompleted()).isTrue();
+    }
+
+    @Test
+    void shouldKeepOwnSynchronizationWhenRealDelegatesEnlistLazily() {
+        List<String> jdbc = new ArrayList<>();
+        DataSource db1 = recordingDataSource("db1", jdbc);
+        DataSource db2 = recordingDataSource("db2", jdbc);
+        CompositeTransactionManager lazyTxManager = dataSourceTxManager(db1, db2);
+        TransactionStatus status = lazyTxManager.getTransaction(definition(TransactionDefinition.PROPAGATION_REQUIRED));
+        // 매퍼가 SqlSessionHolder를 묶으며 등록하는 동기화 자리
+        RecordingSynchronization session = new SessionSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(session);
+
+        lazyTxManager.enlist(db2);
+        lazyTxManager.enlist(db1);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(session);
+        assertThat(TransactionSynchronizationManager.getCurrentTransactionName()).isEqualTo("test");
+        lazyTxManager.commit(status);
+
+        assertThat(session.calls).containsExactly("beforeCommit", "afterCompletion:" + TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(jdbc).containsExactly("db1:commit", "db1:close", "db2:commit", "db2:close");
+        assertThat(TransactionSynchronizationManager.isSynchronizationActive()).isFalse();
+        assertThat(TransactionSynchronizationManager.getResourceMap()).isEmpty();
+    }
+
+    private static MultiResourceTransactionDefinition declared(CompositeTransactionManager txManager, String method) {
+        try {
+            MultiResourceTransactional attributes = Declarations.class.getDeclaredMethod(method).getAnnotation(MultiResourceTransactional.class);
+            return new MultiResourceTransactionDefinition(attributes, txManager.resourceMask(attributes.dataSources()), method);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    private static CompositeTransactionManager dataSourceTxManager(DataSource db1, DataSource db2) {
+        Map<String, PlatformTransactionManager> delegates = new LinkedHashMap<>();
+        delegates.put("db1", new DataSourceTransactionManager(db1));
+        delegates.put("db2", new DataSourceTransactionManager(db2));
+        return new CompositeTransactionManager(delegates, true);
+    }
+
+    /**
+     * 커넥션의 commit/rollback/close를 events에 남기는 DataSource
+     */
+    private static DataSource recordingDataSource(String name, List<String> events) {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (self, method, args) -> {
+                    if (List.of("commit", "rollback", "close").contains(method.getName())) {
+                        events.add(name + ":" + method.getName());
+                    }
+                    return method.getReturnType() == boolean.class ? false : null;
+                });
+        return dataSource(() -> {
+        }, connection);
+    }
+
+    /**
+     * 커넥션을 줄 때마다 onConnect를 실행하는 DataSource, 커넥션은 모든 호출에 기본값을 돌려준다
+     */
+    private static DataSource dataSource(Runnable onConnect) {
+        return dataSource(onConnect, proxy(Connection.class, () -> {
+        }));
+    }
+
+    private static DataSource dataSource(Runnable onConnect, Connection connection) {
+        return proxy(DataSource.class, onConnect, connection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Runnable onConnect, Object... connection) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getName().equals("getConnection")) {
+                onConnect.run();
+                return connection[0];
+            }
+            if (method.getName().equals("equals")) {
+                return self == args[0];
+            }
+            if (method.getName().equals("hashCode")) {
+                return System.identityHashCode(self);
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            return null;
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DefaultTransactionDefinition definition(int propagation) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(propagation);
+        definition.setName("test");
+        return definition;
+    }
+
+    private static Map<String, PlatformTransactionManager> delegates(List<String> events) {
+        Map<String, PlatformTransactionManager> delegates = new LinkedHashMap<>();
+        delegates.put("db1", new RecordingTransactionManager("db1", events));
+        delegates.put("db2", new RecordingTransactionManager("db2", events));
+        return delegates;
+    }
+
+    /**
+     * begin/commit/rollback 순서를 공유 목록에 남기는 자원 매니저
+     */
+    static class RecordingTransactionManager implements PlatformTransactionManager {
+
+        private final String name;
+        private final List<String> events;
+
+        RecordingTransactionManager(String name, List<String> events) {
+            this.name = name;
+            this.events = events;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            events.add(name + ":begin");
+            return new SimpleStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            events.add(name + ":commit");
+            ((SimpleStatus) status).completed = true;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            events.add(name + ":rollback");
+            ((SimpleStatus) status).completed = true;
+        }
+    }
+
+    static class SimpleStatus implements TransactionStatus {
+
+        private boolean rollbackOnly;
+        private boolean completed;
+
+        @Override
+        public void setRollbackOnly() {
+            rollbackOnly = true;
+        }
+
+        @Override
+        public boolean isRollbackOnly() {
+            return rollbackOnly;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return completed;
+        }
+    }
+
+    static class RecordingSynchronization implements TransactionSynchronization {
+
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void suspend() {
+            calls.add("suspend");
+        }
+
+        @Override
+        public void resume() {
+            calls.add("resume");
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            calls.add("afterCompletion:" + status);
+        }
+    }
+
+    /**
+     * 커밋 전 flush 시점까지 남기는 동기화 (MyBatis SqlSessionSynchronization 자리)
+     */
+    static class SessionSynchronization extends RecordingSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            super.calls.add("beforeCommit");
+        }
+    }
+
+    static class Declarations {
+
+        @MultiResourceTransactional(dataSources = "db1")
+        void db1Only() {
+        }
+
+        @MultiResourceTransactional(dataSources = {"db1", "db2"})
+        void both() {
+        }
+    }
+}
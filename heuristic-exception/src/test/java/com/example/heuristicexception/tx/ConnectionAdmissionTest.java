@@ -0,0 +1,171 @@
+package com.example.heuristicexception.tx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.heuristicexception.config.AdmissionProperties;
+import com.example.heuristicexception.deadline.DeadlineExceededException;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ConnectionAdmissionTest {
+
+    private final RefusingPool pool = new RefusingPool(2);
+
+    @AfterEach
+    void clearThread() {
+        TransactionSynchronizationManager.clear();
+        new ArrayList<>(TransactionSynchronizationManager.getResourceMap().keySet())
+                .forEach(TransactionSynchronizationManager::unbindResource);
+    }
+
+    @Test
+    void shouldReleasePermitWhenEnlistFails() {
+        ConnectionAdmission admission = admission(Duration.ofSeconds(1), 10);
+        CompositeTransactionManager txManager = new CompositeTransactionManager(
+                Map.of("db1", new DataSourceTransactionManager(pool)), false);
+        txManager.setAdmission(admission);
+
+        for (int i = 0; i < 3; i++) {
+            Throwable thrown = catchThrowable(() -> txManager.getTransaction(new DefaultTransactionDefinition()));
+            assertThat(thrown).isInstanceOf(CannotCreateTransactionException.class);
+        }
+
+        // pool 2 - reserved 1 = permit 1, 실패할 때마다 반납되지 않았다면 두 번째 시도부터 대기 후 거절된다
+        assertThat(admission.snapshot().get("db1")).isEqualTo(new ConnectionAdmission.Snapshot(1, 0, 0, 0));
+        assertThat(pool.attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectOnTimeoutOrDeadline() {
+        ConnectionAdmission admission = admission(Duration.ofMillis(50), 10);
+        assertThat(admission.acquire(pool, Long.MAX_VALUE)).isTrue();
+
+        Throwable timedOut = catchThrowable(() -> admission.acquire(pool, Long.MAX_VALUE));
+        Throwable deadline = catchThrowable(() -> admission.acquire(pool, TimeUnit.MILLISECONDS.toNanos(10)));
+        admission.release(pool);
+
+        assertThat(timedOut).isInstanceOf(AdmissionRejectedException.class);
+        // 요청 마감이 먼저 오면 503이 아니라 504로 끝난다
+        assertThat(deadline).isInstanceOf(DeadlineExceededException.class);
+        assertThat(admission.snapshot().get("db1")).isEqualTo(new ConnectionAdmission.Snapshot(1, 0, 0, 1));
+    }
+
+    @Test
+    void shouldRejectImmediatelyWhenTooManyWaiters() throws Exception {
+        ConnectionAdmission admission = admission(Duration.ofSeconds(5), 1);
+        assertThat(admission.acquire(pool, Long.MAX_VALUE)).isTrue();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter = executor.submit(() -> admission.acquire(pool, Long.MAX_VALUE));
+            while (admission.snapshot().get("db1").waiting() < 1) {
+                Thread.onSpinWait();
+            }
+
+            long start = System.nanoTime();
+            Throwable rejected = catchThrowable(() -> admission.acquire(pool, Long.MAX_VALUE));
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+            admission.release(pool);
+
+            assertThat(rejected).isInstanceOf(AdmissionRejectedException.class);
+            assertThat(waiter.get(1, TimeUnit.SECONDS)).isTrue();
+            admission.release(pool);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(admission.snapshot().get("db1")).isEqualTo(new ConnectionAdmission.Snapshot(1, 0, 0, 1));
+    }
+
+    @Test
+    void shouldBoundConcurrencyForManyVirtualThreads() throws Exception {
+        RefusingPool larger = new RefusingPool(4);
+        AdmissionProperties properties = new AdmissionProperties();
+        ConnectionAdmission admission = new ConnectionAdmission(properties);
+        admission.register("db1", larger, properties.getReservedConnections());
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = virtualThreadExecutor();
+        try {
+            for (int i = 0; i < 500; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    admission.acquire(larger, Long.MAX_VALUE);
+                    try {
+                        maxInUse.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        Thread.sleep(1);
+                        inUse.decrementAndGet();
+                    } finally {
+                        admission.release(larger);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInUse.get()).isLessThanOrEqualTo(3);
+        assertThat(admission.snapshot().get("db1")).isEqualTo(new ConnectionAdmission.Snapshot(3, 0, 0, 0));
+    }
+
+    private ConnectionAdmission admission(Duration acquireTimeout, int maxWaiting) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.setAcquireTimeout(acquireTimeout);
+        properties.setMaxWaiting(maxWaiting);
+        ConnectionAdmission admission = new ConnectionAdmission(properties);
+        admission.register("db1", pool, properties.getReservedConnections());
+        return admission;
+    }
+
+    /**
+     * spring.threads.virtual.enabled와 같은 가상 스레드 executor, 17 런타임에서는 스레드 수 제한 없는 플랫폼 스레드로 대신한다
+     */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * 풀 크기만 갖고 커넥션은 항상 거부하는 Hikari 풀 (풀을 띄우지 않는다)
+     */
+    static class RefusingPool extends HikariDataSource {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        RefusingPool(int maximumPoolSize) {
+            setMaximumPoolSize(maximumPoolSize);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            attempts.incrementAndGet();
+            throw new SQLException("Connection refused");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.heuristicexception.tx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.heuristicexception.deadline.RequestDeadline;
+import java.sql.SQLTransientConnectionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.MyBatisSystemException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+class HeuristicExceptionHandlerTest {
+
+    private final HeuristicExceptionHandler handler = new HeuristicExceptionHandler();
+
+    @AfterEach
+    void clearDeadline() {
+        RequestDeadline.set(null);
+    }
+
+    @Test
+    void shouldMapConnectionTimeoutPastDeadlineTo504() {
+        RequestDeadline.set(System.nanoTime() - 1);
+
+        ResponseEntity<String> lazy = handler.handleMyBatis(new MyBatisSystemException("select failed", connectionTimeout()));
+        ResponseEntity<String> eager = handler.handleCannotCreate(
+                new CannotCreateTransactionException("Could not open JDBC Connection for transaction", connectionTimeout().getCause()));
+
+        assertThat(lazy.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(eager.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    void shouldRethrowConnectionTimeoutWithoutDeadline() {
+        MyBatisSystemException ex = new MyBatisSystemException("select failed", connectionTimeout());
+
+        assertThat(catchThrowable(() -> handler.handleMyBatis(ex))).isSameAs(ex);
+    }
+
+    @Test
+    void shouldMapWrappedAdmissionRejectionTo503() {
+        ResponseEntity<String> response = handler.handleMyBatis(
+                new MyBatisSystemException("select failed", new AdmissionRejectedException("Too many waiters for db2")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    /**
+     * DataSourceUtils가 Hikari 대기 시간 초과를 감싼 모양
+     */
+    private static CannotGetJdbcConnectionException connectionTimeout() {
+        return new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+                new SQLTransientConnectionException("db2-pool - Connection is not available, request timed out after 120ms."));
+    }
+}
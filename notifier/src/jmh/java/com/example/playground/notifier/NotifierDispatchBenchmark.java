@@ -0,0 +1,97 @@
+package com.example.playground.notifier;
+
+import com.example.playground.notifier.dto.AppNotiReqDto;
+import com.example.playground.notifier.dto.SMSReqDto;
+import com.example.playground.notifier.dto.UmsReqDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 선형 탐색(notifierMap 순회 + isAssignableFrom) 대비 요청 클래스별 디스패치 테이블의 비용을 비교한다.
+ * gc 프로파일러의 gc.alloc.rate.norm 값으로 핫패스 추가 할당이 없는지 함께 확인한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotifierDispatchBenchmark {
+
+    private final UmsReqDto umsRequest = new UmsReqDto("memberId", "message");
+    private final SMSReqDto smsRequest = new SMSReqDto("memberId", "message");
+
+    private Map<Class<?>, Notifier<?>> notifierMap;
+    private NotifierCoordinator coordinator;
+    private CountingUmsNotifier umsNotifier;
+
+    @Setup
+    public void setUp() {
+        umsNotifier = new CountingUmsNotifier();
+        List<Notifier<?>> notifiers = List.of(umsNotifier, new CountingAppNotifier());
+        notifierMap = new HashMap<>();
+        notifierMap.put(UmsReqDto.class, umsNotifier);
+        notifierMap.put(AppNotiReqDto.class, notifiers.get(1));
+        coordinator = new NotifierCoordinator(notifiers, new NotifierProperties());
+    }
+
+    @Benchmark
+    public long linearScan() {
+        linearSend(smsRequest);
+        return umsNotifier.count;
+    }
+
+    @Benchmark
+    public long dispatchTable() {
+        coordinator.send(smsRequest);
+        return umsNotifier.count;
+    }
+
+    @Benchmark
+    public long dispatchTableExactType() {
+        coordinator.send(umsRequest);
+        return umsNotifier.count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void linearSend(T request) {
+        for (Map.Entry<Class<?>, Notifier<?>> entry : notifierMap.entrySet()) {
+            if (entry.getKey().isAssignableFrom(request.getClass())) {
+                ((Notifier<T>) entry.getValue()).send(request);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No suitable notifier found for " + request.getClass().getSimpleName());
+    }
+
+    static class CountingUmsNotifier implements Notifier<UmsReqDto> {
+        long count;
+
+        @Override
+        public void send(UmsReqDto request) {
+            count++;
+        }
+    }
+
+    static class CountingAppNotifier implements Notifier<AppNotiReqDto> {
+        long count;
+
+        @Override
+        public void send(AppNotiReqDto request) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.playground.notifier;
+
+import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.impl.StubProvider;
+import com.example.playground.notifier.resilience.ResilienceProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stub provider에 꼬리 지연(2%가 50ms)을 주입하고 헤지 여부에 따른 단건 발송 지연 분포(p99)를 비교한다.
+ * 헤지 기준 지연은 1초 주기로 갱신되므로 warmup 동안 관측치가 쌓인 뒤의 측정값을 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class NotifierHedgingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean hedge;
+
+    private final UmsReqDto request = new UmsReqDto("memberId", "message");
+
+    private NotifierCoordinator coordinator;
+
+    @Setup
+    public void setUp() {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getStub().setLatency(Duration.ofMillis(1));
+        properties.getStub().setSlowRate(0.02);
+        properties.getStub().setSlowLatency(Duration.ofMillis(50));
+        ResilienceProperties resilience = new ResilienceProperties();
+        resilience.setType(UmsReqDto.class);
+        resilience.setSlowCallThreshold(Duration.ofSeconds(1));
+        resilience.getHedge().setEnabled(hedge);
+        resilience.getHedge().setMinDelay(Duration.ofMillis(1));
+        properties.getResilience().add(resilience);
+        coordinator = new NotifierCoordinator(List.of(new StubUmsNotifier(new StubProvider(properties))), properties);
+    }
+
+    @TearDown
+    public void tearDown() {
+        coordinator.destroy();
+    }
+
+    @Benchmark
+    public void send() {
+        coordinator.send(request);
+    }
+
+    static class StubUmsNotifier implements Notifier<UmsReqDto> {
+        private final StubProvider stubProvider;
+
+        StubUmsNotifier(StubProvider stubProvider) {
+            this.stubProvider = stubProvider;
+        }
+
+        @Override
+        public void send(UmsReqDto request) {
+            stubProvider.call("ums.send");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.playground.notifier.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 발송 한 건마다 붙는 계측 비용을 잰다: 히스토그램 기록, ChannelMetrics.start/complete(System.nanoTime 두 번 포함).
+ * 단일 스레드 값과 8스레드가 같은 히스토그램/카운터를 두고 경합할 때의 값을 함께 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyHistogramBenchmark {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final ChannelMetrics metrics = new ChannelMetrics();
+
+    /**
+     * 1µs ~ 100ms 사이의 지연 샘플을 스레드별로 미리 만들어 둔다 (버킷이 한 곳에 몰리지 않도록)
+     */
+    @State(Scope.Thread)
+    public static class Samples {
+        private static final int SIZE = 4096;
+
+        private final long[] values = new long[SIZE];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < SIZE; i++) {
+                values[i] = random.nextLong(TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+
+        long next() {
+            return values[next++ & (SIZE - 1)];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record(Samples samples) {
+        histogram.record(samples.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended(Samples samples) {
+        histogram.record(samples.next());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void channelMetrics() {
+        metrics.complete(metrics.start(), 1, true);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void channelMetricsContended() {
+        metrics.complete(metrics.start(), 1, true);
+    }
+}
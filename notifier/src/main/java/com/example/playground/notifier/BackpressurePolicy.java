@@ -0,0 +1,13 @@
+package com.example.playground.notifier;
+
+/**
+ * 채널 큐가 가득 찼을 때 sendAsync 호출자에게 적용할 정책.
+ */
+public enum BackpressurePolicy {
+    /** 큐에 자리가 날 때까지 block-timeout 만큼 대기하고, 그래도 없으면 반환된 future를 실패로 완료 */
+    BLOCK,
+    /** 호출자는 그대로 진행하고, 반환된 future만 실패로 완료 */
+    DROP,
+    /** 즉시 NotificationRejectedException을 던진다 */
+    FAIL_FAST
+}
@@ -0,0 +1,11 @@
+package com.example.playground.notifier;
+
+import java.util.List;
+
+/**
+ * 대량 발송 API를 제공하는 게이트웨이용 확장 SPI.
+ * 비동기 채널은 이 타입의 Notifier에 대해 요청을 모아(notifier.batch.*) sendAll로 한 번에 넘긴다.
+ */
+public interface BatchNotifier<T> extends Notifier<T> {
+    void sendAll(List<T> requests);
+}
@@ -0,0 +1,83 @@
+package com.example.playground.notifier;
+
+import java.util.concurrent.ExecutorService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 단건 발송 채널들이 함께 쓰는 스케줄러와 워커 풀.
+ * 모든 채널의 대기 건이 한 스케줄러의 우선순위 레인에 섞이므로, 워커가 밀릴 때도 채널과 관계없이
+ * TRANSACTIONAL 건이 BULK 건보다 먼저(weight 비율만큼) 처리된다.
+ * BatchNotifier 채널은 한 provider의 건끼리만 묶을 수 있어 채널 전용 스케줄러와 워커를 따로 둔다.
+ */
+@Slf4j
+class DeliveryDispatcher {
+
+    private final NotifierProperties.Async properties;
+    private final NotifierProperties.Scheduling scheduling;
+    private final PriorityResolver priorityResolver;
+    private final DeliveryScheduler scheduler;
+    private volatile ExecutorService workers;
+    private volatile boolean closed;
+
+    DeliveryDispatcher(NotifierProperties properties) {
+        this.properties = properties.getAsync();
+        this.scheduling = properties.getScheduling();
+        this.priorityResolver = new PriorityResolver(scheduling);
+        this.scheduler = new DeliveryScheduler(scheduling);
+    }
+
+    NotifierProperties.Scheduling scheduling() {
+        return scheduling;
+    }
+
+    PriorityResolver priorityResolver() {
+        return priorityResolver;
+    }
+
+    DeliveryScheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 첫 비동기 발송 때 공유 워커를 띄운다
+     */
+    void startIfNecessary() {
+        if (workers != null || closed) {
+            return;
+        }
+        synchronized (this) {
+            if (workers == null && !closed) {
+                ExecutorService executor = NotifierExecutors.newWorkerExecutor("notifier-dispatch", properties.isVirtualThreads());
+                for (int i = 0; i < properties.getWorkers(); i++) {
+                    executor.execute(this::drain);
+                }
+                workers = executor;
+            }
+        }
+    }
+
+    synchronized void close() {
+        closed = true;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                NotifierChannel.Delivery<Object> delivery = scheduler.take();
+                try {
+                    delivery.channel().deliver(delivery);
+                } catch (RuntimeException ex) {
+                    // 한 건의 예외로 공유 워커가 죽지 않도록 한다
+                    log.warn("[DeliveryDispatcher] delivery via {} failed unexpectedly", delivery.channel().name(), ex);
+                    delivery.future().completeExceptionally(ex);
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.playground.notifier;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 발송 대기열. 우선순위 레인마다 EDF(마감 시각이 이른 순) 힙을 두고,
+ * 레인 간에는 smooth weighted round-robin으로 꺼내 낮은 레인도 weight 비율만큼은 반드시 처리된다 (starvation-free).
+ * 여러 채널이 하나를 공유할 수 있으며, 용량 제한은 채널별 슬롯으로 적재하는 쪽(NotifierChannel)이 건다.
+ * 꺼내거나 지운 건은 Delivery.dequeued()로 채널 슬롯을 돌려준다. 마감이 지난 건의 폐기는 꺼낸 쪽이 판단한다.
+ * limiter가 미룬 건(Delivery.delayed)은 notBefore 시각까지 별도 힙에 두었다가 그 시각이 되면 레인으로 옮긴다.
+ */
+class DeliveryScheduler {
+
+    private static final PriorityClass[] CLASSES = PriorityClass.values();
+    private static final Comparator<NotifierChannel.Delivery<?>> EARLIEST_DEADLINE_FIRST =
+            Comparator.<NotifierChannel.Delivery<?>>comparingLong(NotifierChannel.Delivery::deadlineNanos)
+                    .thenComparingLong(NotifierChannel.Delivery::sequence);
+    private static final Comparator<NotifierChannel.Delivery<?>> EARLIEST_NOT_BEFORE_FIRST =
+            Comparator.<NotifierChannel.Delivery<?>>comparingLong(NotifierChannel.Delivery::notBeforeNanos)
+                    .thenComparingLong(NotifierChannel.Delivery::sequence);
+
+    private final int[] weights = new int[CLASSES.length];
+    private final int[] currentWeights = new int[CLASSES.length];
+    private final PriorityQueue<NotifierChannel.Delivery<?>>[] lanes;
+    private final PriorityQueue<NotifierChannel.Delivery<?>> delayed = new PriorityQueue<>(EARLIEST_NOT_BEFORE_FIRST);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int count;
+
+    @SuppressWarnings("unchecked")
+    DeliveryScheduler(NotifierProperties.Scheduling scheduling) {
+        this.lanes = new PriorityQueue[CLASSES.length];
+        for (PriorityClass priority : CLASSES) {
+            lanes[priority.ordinal()] = new PriorityQueue<>(EARLIEST_DEADLINE_FIRST);
+            weights[priority.ordinal()] = Math.max(1, scheduling.lane(priority).getWeight());
+        }
+    }
+
+    void add(NotifierChannel.Delivery<?> delivery) {
+        lock.lock();
+        try {
+            if (delivery.isDelayed(System.nanoTime())) {
+                // 기다리는 워커가 다음 깨어날 시각을 다시 계산하도록 깨운다
+                delayed.add(delivery);
+            } else {
+                lanes[delivery.priority().ordinal()].add(delivery);
+                count++;
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 타입 인자는 호출자가 보장한다 (한 채널 전용 스케줄러에서만 구체 타입으로 받는다)
+     */
+    <T> NotifierChannel.Delivery<T> take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (promoteDue() == 0) {
+                if (delayed.isEmpty()) {
+                    notEmpty.await();
+                } else {
+                    notEmpty.awaitNanos(delayed.peek().notBeforeNanos() - System.nanoTime());
+                }
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> NotifierChannel.Delivery<T> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            long deadline = System.nanoTime() + nanos;
+            while (promoteDue() == 0) {
+                nanos = deadline - System.nanoTime();
+                if (nanos <= 0) {
+                    return null;
+                }
+                if (!delayed.isEmpty()) {
+                    nanos = Math.min(nanos, delayed.peek().notBeforeNanos() - System.nanoTime());
+                }
+                notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> int drainTo(Collection<NotifierChannel.Delivery<T>> target, int maxElements) {
+        lock.lock();
+        try {
+            promoteDue();
+            int drained = 0;
+            while (drained < maxElements && count > 0) {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * channel의 대기 건을 모두 빼서 돌려준다 (채널 종료 시)
+     */
+    <T> List<NotifierChannel.Delivery<T>> remove(NotifierChannel<T> channel) {
+        List<NotifierChannel.Delivery<T>> removed = new ArrayList<>();
+        lock.lock();
+        try {
+            for (PriorityQueue<NotifierChannel.Delivery<?>> lane : lanes) {
+                Iterator<NotifierChannel.Delivery<?>> iterator = lane.iterator();
+                while (iterator.hasNext()) {
+                    NotifierChannel.Delivery<?> delivery = iterator.next();
+                    if (delivery.channel() == channel) {
+                        iterator.remove();
+                        count--;
+                        delivery.dequeued();
+                        removed.add(cast(delivery));
+                    }
+                }
+            }
+            Iterator<NotifierChannel.Delivery<?>> iterator = delayed.iterator();
+            while (iterator.hasNext()) {
+                NotifierChannel.Delivery<?> delivery = iterator.next();
+                if (delivery.channel() == channel) {
+                    iterator.remove();
+                    delivery.dequeued();
+                    removed.add(cast(delivery));
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * notBefore 시각이 지난 건을 레인으로 옮긴다
+     *
+     * @return 바로 꺼낼 수 있는 건수
+     */
+    private int promoteDue() {
+        long now = System.nanoTime();
+        while (!delayed.isEmpty() && !delayed.peek().isDelayed(now)) {
+            NotifierChannel.Delivery<?> delivery = delayed.poll();
+            lanes[delivery.priority().ordinal()].add(delivery);
+            count++;
+        }
+        return count;
+    }
+
+    private <T> NotifierChannel.Delivery<T> dequeue() {
+        // 비어 있지 않은 레인만 대상으로 smooth weighted round-robin
+        int selected = -1;
+        int totalWeight = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i].isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            totalWeight += weights[i];
+            if (selected < 0 || currentWeights[i] > currentWeights[selected]) {
+                selected = i;
+            }
+        }
+        currentWeights[selected] -= totalWeight;
+        count--;
+        NotifierChannel.Delivery<?> delivery = lanes[selected].poll();
+        delivery.dequeued();
+        if (count > 0 || !delayed.isEmpty()) {
+            // 한 번에 여러 건을 옮겼을 수 있으므로 다음 워커도 깨운다
+            notEmpty.signal();
+        }
+        return cast(delivery);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> NotifierChannel.Delivery<T> cast(NotifierChannel.Delivery<?> delivery) {
+        return (NotifierChannel.Delivery<T>) delivery;
+    }
+}
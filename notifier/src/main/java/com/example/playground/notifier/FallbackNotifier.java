@@ -0,0 +1,19 @@
+package com.example.playground.notifier;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 대체 발송 경로로만 쓰이는 Notifier 표시.
+ * 일반 라우팅/multicast 대상에서 빠지고, 제네릭 타입이 할당 가능한 채널의 서킷 브레이커가 OPEN일 때 대신 호출된다.
+ */
+@Documented
+@Inherited
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FallbackNotifier {
+}
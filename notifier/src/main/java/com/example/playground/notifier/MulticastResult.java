@@ -0,0 +1,26 @@
+package com.example.playground.notifier;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * NotifierCoordinator.multicast 결과. 매칭된 채널마다 결과와 소요 시간을 담는다.
+ */
+public record MulticastResult(List<ChannelOutcome> outcomes) {
+
+    public boolean allDelivered() {
+        return outcomes.stream().allMatch(outcome -> outcome.status() == Status.DELIVERED);
+    }
+
+    public enum Status {
+        DELIVERED,
+        FAILED,
+        /** deadline 안에 끝나지 않음. 큐에 남은 건은 취소되고, 이미 provider 호출이 시작된 건은 끝까지 진행될 수 있다 */
+        TIMED_OUT,
+        /** 중복 억제로 발송하지 않음 */
+        SUPPRESSED
+    }
+
+    public record ChannelOutcome(String channel, Status status, Duration elapsed, String error) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.playground.notifier;
+
+public class NotificationRejectedException extends RuntimeException {
+
+    public NotificationRejectedException(String message) {
+        super(message);
+    }
+}
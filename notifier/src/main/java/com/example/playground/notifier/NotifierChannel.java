@@ -0,0 +1,424 @@
+package com.example.playground.notifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+import com.example.playground.notifier.limit.ChannelLimiter;
+import com.example.playground.notifier.metrics.ChannelMetrics;
+import com.example.playground.notifier.resilience.CircuitBreaker;
+import com.example.playground.notifier.resilience.CircuitOpenException;
+import com.example.playground.notifier.resilience.Hedger;
+import com.example.playground.notifier.resilience.ResilienceProperties;
+import com.example.playground.notifier.resilience.ResilienceSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Notifier 하나에 대응하는 발송 채널.
+ * - 동기 발송은 호출 스레드에서 바로 notifier를 호출
+ * - 비동기 발송은 채널별 queue-capacity 슬롯 안에서 모든 채널이 공유하는 스케줄러(우선순위 레인 + EDF)에 적재하고
+ *   공유 워커가 꺼내 발송한다. 마감이 지난 건은 발송하지 않고 실패 처리.
+ *   limiter 한도를 넘은 건은 공유 워커를 재우지 않고 토큰이 돌아올 시각에 스케줄러로 되돌린다 (DELAY 정책, max-wait까지)
+ * - BatchNotifier는 채널 전용 스케줄러에서 워커가 최대 N건 또는 T밀리초 중 먼저 도달하는 시점까지 모아 sendAll로 발송
+ * - 실제 notifier 호출은 모두 채널 limiter(토큰 버킷 + bulkhead)를 거치며, 호출 지연/결과는 ChannelMetrics에 기록
+ * - notifier.resilience 설정이 있으면 서킷 브레이커가 OPEN인 동안 fallback notifier로 넘기거나 즉시 실패하고, 단건 발송은 헤지할 수 있다.
+ *   헤지한 두 번째 시도도 limiter를 거치므로 채널 한도를 넘겨 보내지 않는다
+ */
+@Slf4j
+class NotifierChannel<T> {
+
+    private final Class<T> type;
+    private final Notifier<T> notifier;
+    private final Notifier<T> fallback;
+    private final NotifierProperties.Async properties;
+    private final NotifierProperties.Batch batchProperties;
+    private final DeliveryDispatcher dispatcher;
+    // 단건 채널은 dispatcher의 공유 스케줄러, BatchNotifier 채널은 전용 스케줄러
+    private final DeliveryScheduler queue;
+    private final Semaphore slots;
+    private final PriorityResolver priorityResolver;
+    private final NotifierProperties.Scheduling scheduling;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ChannelLimiter limiter;
+    private final ChannelMetrics metrics = new ChannelMetrics();
+    private final CircuitBreaker breaker;
+    private final Hedger hedger;
+    private final ExecutorService hedgeExecutor;
+    private final LongAdder fallbacks = new LongAdder();
+    private volatile ExecutorService workers;
+    private volatile boolean closed;
+
+    /**
+     * @param fallback 브레이커 OPEN 시 대신 호출할 notifier, 없으면 null
+     */
+    NotifierChannel(Class<T> type, Notifier<T> notifier, Notifier<T> fallback, NotifierProperties properties, DeliveryDispatcher dispatcher) {
+        this.type = type;
+        this.notifier = notifier;
+        this.fallback = fallback;
+        this.properties = properties.getAsync();
+        this.batchProperties = properties.getBatch();
+        this.dispatcher = dispatcher;
+        this.scheduling = dispatcher.scheduling();
+        this.priorityResolver = dispatcher.priorityResolver();
+        this.queue = notifier instanceof BatchNotifier<T> ? new DeliveryScheduler(scheduling) : dispatcher.scheduler();
+        this.slots = new Semaphore(this.properties.getQueueCapacity());
+        this.limiter = properties.getLimits().stream()
+                .filter(limit -> limit.getType() == type)
+                .findFirst()
+                .map(ChannelLimiter::of)
+                .orElseGet(ChannelLimiter::unlimited);
+        ResilienceProperties resilience = properties.getResilience().stream()
+                .filter(candidate -> candidate.getType() == type)
+                .findFirst()
+                .orElse(null);
+        this.breaker = resilience == null ? null : new CircuitBreaker(resilience);
+        boolean hedging = resilience != null && resilience.getHedge().isEnabled();
+        this.hedgeExecutor = hedging
+                ? NotifierExecutors.newBoundedExecutor("notifier-" + name() + "-hedge", resilience.getHedge().getMaxConcurrency())
+                : null;
+        this.hedger = hedging ? new Hedger(resilience.getHedge(), hedgeExecutor) : null;
+    }
+
+    Class<T> type() {
+        return type;
+    }
+
+    Notifier<T> notifier() {
+        return notifier;
+    }
+
+    String name() {
+        return notifier.getClass().getSimpleName();
+    }
+
+    ChannelLimiter limiter() {
+        return limiter;
+    }
+
+    ChannelMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * 브레이커/헤지 상태, notifier.resilience 설정이 없는 채널이면 null
+     */
+    ResilienceSnapshot resilienceSnapshot() {
+        if (breaker == null) {
+            return null;
+        }
+        return new ResilienceSnapshot(breaker.snapshot(), hedger == null ? null : hedger.snapshot(), fallbacks.sum());
+    }
+
+    /**
+     * 헤지하면 두 번째 시도도 limiter 토큰·동시성 슬롯을 따로 쓴다. 바로 확보되지 않으면 두 번째 시도는 보내지 않는다.
+     */
+    void send(T request) {
+        guarded(1, attempt(request), fallback == null ? null : () -> fallback.send(request));
+    }
+
+    /**
+     * @param deadline 이 시간 안에 provider 호출이 시작되지 않으면 만료. null이면 레인 기본값을 따른다
+     */
+    CompletableFuture<Void> enqueue(T request, Duration deadline) {
+        if (closed) {
+            return CompletableFuture.failedFuture(closedException());
+        }
+        startWorkersIfNecessary();
+        PriorityClass priority = priorityResolver.resolve(request.getClass());
+        Duration effectiveDeadline = deadline != null ? deadline : scheduling.lane(priority).getDefaultDeadline();
+        long deadlineNanos = effectiveDeadline == null ? Delivery.NO_DEADLINE : System.nanoTime() + effectiveDeadline.toNanos();
+        Delivery<T> delivery = new Delivery<>(this, request, new CompletableFuture<>(), priority, deadlineNanos, sequence.incrementAndGet(),
+                Delivery.NOT_DELAYED, 0, true);
+        boolean accepted = switch (properties.getBackpressure()) {
+            case BLOCK -> acquireBlocking();
+            case DROP, FAIL_FAST -> slots.tryAcquire();
+        };
+        if (!accepted) {
+            NotificationRejectedException rejected = new NotificationRejectedException(
+                    "Notifier queue is full: " + name() + " (capacity=" + properties.getQueueCapacity() + ")");
+            if (properties.getBackpressure() == BackpressurePolicy.FAIL_FAST) {
+                throw rejected;
+            }
+            // BLOCK은 block-timeout만큼 기다리게 한 것으로 backpressure를 준 것이므로 호출자에게 예외를 던지지 않는다
+            log.warn("[NotifierChannel] rejected request for {} ({})", name(), properties.getBackpressure());
+            delivery.future().completeExceptionally(rejected);
+            return delivery.future();
+        }
+        queue.add(delivery);
+        if (closed) {
+            // close()가 큐를 비운 뒤에 들어온 건
+            failPending();
+        }
+        return delivery.future();
+    }
+
+    int queueDepth() {
+        return properties.getQueueCapacity() - slots.availablePermits();
+    }
+
+    /**
+     * 채널 전용 워커를 멈추고, 큐에 남아 발송되지 못한 건은 future를 실패로 완료한다. 이후 enqueue는 실패한 future를 돌려준다.
+     * 공유 워커는 DeliveryDispatcher.close()가 멈춘다.
+     */
+    synchronized void close() {
+        closed = true;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+        failPending();
+    }
+
+    private void failPending() {
+        List<Delivery<T>> pending = queue.remove(this);
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.warn("[NotifierChannel] {} closed with {} pending deliveries", name(), pending.size());
+        NotificationRejectedException closedException = closedException();
+        pending.forEach(delivery -> delivery.future().completeExceptionally(closedException));
+    }
+
+    private NotificationRejectedException closedException() {
+        return new NotificationRejectedException("Notifier channel is closed: " + name());
+    }
+
+    private Runnable attempt(T request) {
+        Runnable call = () -> notifier.send(request);
+        return hedger == null ? call : () -> hedger.call(call, () -> limiter.tryExecute(1, call));
+    }
+
+    /**
+     * 브레이커 → limiter → provider 순으로 호출한다. 브레이커가 막으면 토큰을 쓰지 않고 바로 fallback 또는 실패.
+     */
+    private void guarded(int messages, Runnable call, Runnable fallbackCall) {
+        guarded(messages, call, fallbackCall, limited -> {
+            limiter.execute(messages, limited);
+            return 0;
+        });
+    }
+
+    /**
+     * @param admission limited를 limiter 한도 안에서 실행한다. 실행하지 않고 미뤘으면 다시 시도할 때까지의 시간(ns)을 돌려준다
+     * @return 미뤘으면 다시 시도할 때까지의 시간(ns), 호출했거나 fallback으로 넘겼으면 0
+     */
+    private long guarded(int messages, Runnable call, Runnable fallbackCall, ToLongFunction<Runnable> admission) {
+        if (breaker != null && !breaker.tryAcquire()) {
+            if (fallbackCall == null) {
+                throw new CircuitOpenException(name());
+            }
+            fallbacks.add(messages);
+            fallbackCall.run();
+            return 0;
+        }
+        boolean[] called = new boolean[1];
+        long delayNanos;
+        try {
+            delayNanos = admission.applyAsLong(() -> {
+                called[0] = true;
+                timed(messages, call);
+            });
+        } catch (RuntimeException ex) {
+            if (breaker != null && !called[0]) {
+                breaker.release();
+            }
+            throw ex;
+        }
+        if (breaker != null && !called[0]) {
+            // 미룬 건은 다시 꺼낼 때 브레이커를 새로 거친다
+            breaker.release();
+        }
+        return delayNanos;
+    }
+
+    private void timed(int messages, Runnable call) {
+        long start = metrics.start();
+        boolean succeeded = false;
+        try {
+            call.run();
+            succeeded = true;
+        } finally {
+            metrics.complete(start, messages, succeeded);
+            if (breaker != null) {
+                breaker.onResult(System.nanoTime() - start, succeeded);
+            }
+        }
+    }
+
+    private boolean acquireBlocking() {
+        try {
+            return slots.tryAcquire(properties.getBlockTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void startWorkersIfNecessary() {
+        if (!(notifier instanceof BatchNotifier<T> batchNotifier)) {
+            dispatcher.startIfNecessary();
+            return;
+        }
+        if (workers != null) {
+            return;
+        }
+        synchronized (this) {
+            if (workers == null) {
+                ExecutorService executor = NotifierExecutors.newWorkerExecutor("notifier-" + name(), properties.isVirtualThreads());
+                for (int i = 0; i < properties.getWorkers(); i++) {
+                    executor.execute(() -> drainBatches(batchNotifier));
+                }
+                workers = executor;
+            }
+        }
+    }
+
+    private void drainBatches(BatchNotifier<T> batchNotifier) {
+        int maxSize = Math.min(batchProperties.getMaxSize(), limiter.maxPermitsPerCall());
+        long maxDelayNanos = batchProperties.getMaxDelay().toNanos();
+        List<Delivery<T>> batch = new ArrayList<>(maxSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxSize) {
+                    if (queue.drainTo(batch, maxSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Delivery<T> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batch.removeIf(this::skip);
+                if (!batch.isEmpty()) {
+                    deliverAll(batchNotifier, batch);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException ex) {
+            // 배치를 채우던 중 close()로 멈춘 경우 손에 든 건도 실패로 완료한다
+            NotificationRejectedException closedException = closedException();
+            batch.forEach(delivery -> delivery.future().completeExceptionally(closedException));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverAll(BatchNotifier<T> batchNotifier, List<Delivery<T>> batch) {
+        List<T> requests = new ArrayList<>(batch.size());
+        for (Delivery<T> delivery : batch) {
+            requests.add(delivery.request());
+        }
+        try {
+            // 대량 API는 헤지하지 않는다 (배치 전체가 중복 발송됨)
+            guarded(requests.size(), () -> batchNotifier.sendAll(requests), fallback == null ? null : () -> fallbackAll(requests));
+            batch.forEach(delivery -> delivery.future().complete(null));
+        } catch (Exception ex) {
+            log.warn("[NotifierChannel] {} batch of {} failed: {}", name(), batch.size(), ex.getMessage());
+            batch.forEach(delivery -> delivery.future().completeExceptionally(ex));
+        }
+    }
+
+    private void fallbackAll(List<T> requests) {
+        if (fallback instanceof BatchNotifier<T> batchFallback) {
+            batchFallback.sendAll(requests);
+        } else {
+            requests.forEach(fallback::send);
+        }
+    }
+
+    /**
+     * 호출자가 취소했거나(multicast 타임아웃) 마감이 지난 건이면 provider를 호출하지 않는다.
+     */
+    private boolean skip(Delivery<T> delivery) {
+        return delivery.future().isCancelled() || expire(delivery);
+    }
+
+    private boolean expire(Delivery<T> delivery) {
+        if (!delivery.isExpired(System.nanoTime())) {
+            return false;
+        }
+        metrics.expired();
+        delivery.future().completeExceptionally(new NotificationRejectedException(
+                "Delivery deadline exceeded before sending: " + name() + " (" + delivery.priority() + ")"));
+        return true;
+    }
+
+    /**
+     * 공유 워커(DeliveryDispatcher)가 꺼낸 단건을 발송한다. limiter가 미루면 워커를 재우지 않고 그 시각에 다시 꺼내도록 스케줄러에 되돌린다.
+     */
+    void deliver(Delivery<T> delivery) {
+        if (closed) {
+            delivery.future().completeExceptionally(closedException());
+            return;
+        }
+        if (skip(delivery)) {
+            return;
+        }
+        T request = delivery.request();
+        try {
+            long now = System.nanoTime();
+            long delayNanos = guarded(1, attempt(request), fallback == null ? null : () -> fallback.send(request),
+                    limited -> limiter.executeOrDelay(1, delivery.delayedNanos(now), limited));
+            if (delayNanos > 0) {
+                queue.add(delivery.delayed(now, delayNanos, slots.tryAcquire()));
+                if (closed) {
+                    failPending();
+                }
+                return;
+            }
+            delivery.future().complete(null);
+        } catch (Exception ex) {
+            log.warn("[NotifierChannel] {} failed: {}", name(), ex.getMessage());
+            delivery.future().completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * @param delayedSinceNanos limiter가 처음 미룬 시각, 미룬 적 없으면 NOT_DELAYED
+     * @param notBeforeNanos    미룬 건을 다시 꺼낼 수 있는 시각
+     * @param holdsSlot         채널 큐 슬롯을 쥐고 있는지. 미룰 때 슬롯을 다시 얻지 못했으면 false (이미 받아 둔 건이라 버리지 않는다)
+     */
+    record Delivery<T>(NotifierChannel<T> channel, T request, CompletableFuture<Void> future, PriorityClass priority,
+                       long deadlineNanos, long sequence, long delayedSinceNanos, long notBeforeNanos, boolean holdsSlot) {
+        static final long NO_DEADLINE = Long.MAX_VALUE;
+        static final long NOT_DELAYED = Long.MIN_VALUE;
+
+        /**
+         * 스케줄러에서 빠질 때 채널 큐 슬롯을 돌려준다
+         */
+        void dequeued() {
+            if (holdsSlot) {
+                channel.slots.release();
+            }
+        }
+
+        boolean isExpired(long nowNanos) {
+            return deadlineNanos != NO_DEADLINE && nowNanos - deadlineNanos > 0;
+        }
+
+        boolean isDelayed(long nowNanos) {
+            return delayedSinceNanos != NOT_DELAYED && notBeforeNanos - nowNanos > 0;
+        }
+
+        long delayedNanos(long nowNanos) {
+            return delayedSinceNanos == NOT_DELAYED ? 0 : nowNanos - delayedSinceNanos;
+        }
+
+        Delivery<T> delayed(long nowNanos, long delayNanos, boolean slotAcquired) {
+            return new Delivery<>(channel, request, future, priority, deadlineNanos, sequence,
+                    delayedSinceNanos == NOT_DELAYED ? nowNanos : delayedSinceNanos, nowNanos + delayNanos, slotAcquired);
+        }
+    }
+}
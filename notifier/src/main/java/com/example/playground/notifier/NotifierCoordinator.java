@@ -1,52 +1,309 @@
 package com.example.playground.notifier;
 
+import com.example.playground.notifier.dedup.NotificationDeduplicator;
+import com.example.playground.notifier.dto.NotificationMessage;
+import com.example.playground.notifier.limit.ChannelLimiter;
+import com.example.playground.notifier.metrics.ChannelMetrics;
+import com.example.playground.notifier.metrics.NotifierMetricsReport;
+import com.example.playground.notifier.resilience.ResilienceSnapshot;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.ResolvableType;
 import org.springframework.stereotype.Component;
 
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
-public class NotifierCoordinator {
-    private final Map<Class<?>, Notifier<?>> notifierMap;
+public class NotifierCoordinator implements DisposableBean {
+    private static final Route NO_ROUTE = new Route(null, null);
 
-    public NotifierCoordinator(List<Notifier<?>> notifiers) {
-        this.notifierMap = notifiers.stream()
+    private final Map<Class<?>, NotifierChannel<?>> channelMap;
+    // 요청 클래스별로 확정된 Notifier 캐시 (매칭 실패도 NO_ROUTE로 캐싱)
+    private final Map<Class<?>, Route> dispatchTable = new ConcurrentHashMap<>();
+    // 요청 클래스별 multicast 대상 채널 전체 캐시
+    private final Map<Class<?>, List<NotifierChannel<?>>> multicastTable = new ConcurrentHashMap<>();
+    private final NotificationDeduplicator deduplicator;
+    private final DeliveryDispatcher dispatcher;
+    private final LongAdder noMatch = new LongAdder();
+
+    public NotifierCoordinator(List<Notifier<?>> notifiers, NotifierProperties properties) {
+        this.dispatcher = new DeliveryDispatcher(properties);
+        List<Notifier<?>> fallbacks = notifiers.stream()
+                .filter(NotifierCoordinator::isFallback)
+                .toList();
+        this.channelMap = notifiers.stream()
+                .filter(notifier -> !isFallback(notifier))
+                .map(notifier -> newChannel(notifier, fallbacks, properties))
                 .collect(Collectors.toMap(
-                        this::getGenericType, // 제네릭 타입 자동 추출
+                        NotifierChannel::type,
                         Function.identity()
                 ));
+        this.deduplicator = properties.getDedup().isEnabled() ? new NotificationDeduplicator(properties.getDedup()) : null;
     }
 
-    @SuppressWarnings("unchecked")
     public <T> void send(T request) {
-        for (Map.Entry<Class<?>, Notifier<?>> entry : notifierMap.entrySet()) {
-            if (entry.getKey().isAssignableFrom(request.getClass())) {
-                Notifier<T> selectedNotifier = (Notifier<T>) entry.getValue();
-                log.info("📌 [NotifierCoordinator] Request class: {}", request.getClass().getSimpleName());
-                log.info("🔍 [NotifierCoordinator] Matched Notifier Type: {}", entry.getKey().getSimpleName());
-                log.info("🚀 [NotifierCoordinator] Selected Notifier: {}", selectedNotifier.getClass().getSimpleName());
-                selectedNotifier.send(request);
-                return;
+        NotifierChannel<T> channel = channel(request);
+        if (isDuplicate(request, channel)) {
+            return;
+        }
+        try {
+            channel.send(request);
+        } catch (RuntimeException ex) {
+            release(request, channel);
+            throw ex;
+        }
+    }
+
+    /**
+     * 채널 큐에 적재만 하고 즉시 반환한다. 발송 결과는 반환된 future로 전달된다.
+     * 큐가 가득 찬 경우의 동작은 notifier.async.backpressure 정책을 따른다.
+     */
+    public <T> CompletableFuture<Void> sendAsync(T request) {
+        return sendAsync(request, null);
+    }
+
+    /**
+     * deadline 안에 발송이 시작되지 못하면 provider를 호출하지 않고 future를 실패로 완료한다.
+     * 큐 안에서는 요청 타입의 우선순위 레인(notifier.scheduling.priorities)과 마감 시각 순으로 처리된다.
+     */
+    public <T> CompletableFuture<Void> sendAsync(T request, Duration deadline) {
+        NotifierChannel<T> channel = channel(request);
+        if (isDuplicate(request, channel)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return releaseOnFailure(request, channel, enqueue(channel, request, deadline));
+    }
+
+    /**
+     * 요청 타입에 할당 가능한 모든 채널에 병렬로 발송하고, 채널별 결과를 하나로 모아 돌려준다.
+     * deadline이 지나도 끝나지 않은 채널은 TIMED_OUT으로 보고하고 기다리지 않는다 (null이면 전부 기다림).
+     * TIMED_OUT 채널의 발송은 취소되어 큐에 남아 있던 건은 provider를 호출하지 않는다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<MulticastResult> multicast(T request, Duration deadline) {
+        List<NotifierChannel<?>> channels = multicastTable.computeIfAbsent(request.getClass(), this::resolveAll);
+        if (channels.isEmpty()) {
+            noMatch.increment();
+            throw new IllegalArgumentException("No suitable notifier found for " + request.getClass().getSimpleName());
+        }
+        List<CompletableFuture<MulticastResult.ChannelOutcome>> outcomes = new ArrayList<>(channels.size());
+        for (NotifierChannel<?> channel : channels) {
+            outcomes.add(deliver((NotifierChannel<T>) channel, request, deadline));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> new MulticastResult(outcomes.stream().map(CompletableFuture::join).toList()));
+    }
+
+    /**
+     * 채널별 rate limit / bulkhead 통과·지연·폐기 횟수
+     */
+    public Map<String, ChannelLimiter.Snapshot> limiterSnapshots() {
+        Map<String, ChannelLimiter.Snapshot> snapshots = new LinkedHashMap<>();
+        channelMap.values().forEach(channel -> snapshots.put(channel.name(), channel.limiter().snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * 채널별 성공/실패 건수, 처리 중 건수, 큐 깊이, provider 호출 지연 분포
+     */
+    public NotifierMetricsReport metricsReport() {
+        Map<String, ChannelMetrics.Snapshot> channels = new LinkedHashMap<>();
+        channelMap.values().forEach(channel -> channels.put(channel.name(), channel.metrics().snapshot(channel.queueDepth())));
+        return new NotifierMetricsReport(channels, noMatch.sum());
+    }
+
+    /**
+     * notifier.resilience 설정이 있는 채널의 서킷 브레이커 상태, 헤지/fallback 횟수
+     */
+    public Map<String, ResilienceSnapshot> resilienceSnapshots() {
+        Map<String, ResilienceSnapshot> snapshots = new LinkedHashMap<>();
+        channelMap.values().forEach(channel -> {
+            ResilienceSnapshot snapshot = channel.resilienceSnapshot();
+            if (snapshot != null) {
+                snapshots.put(channel.name(), snapshot);
             }
+        });
+        return snapshots;
+    }
+
+    /**
+     * 중복 억제 캐시 hit/miss, 비활성화 상태면 null
+     */
+    public NotificationDeduplicator.Snapshot dedupSnapshot() {
+        return deduplicator == null ? null : deduplicator.snapshot();
+    }
+
+    @Override
+    public void destroy() {
+        channelMap.values().forEach(NotifierChannel::close);
+        dispatcher.close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> NotifierChannel<T> channel(T request) {
+        Route route = route(request.getClass());
+        if (route == NO_ROUTE) {
+            noMatch.increment();
+            throw new IllegalArgumentException("No suitable notifier found for " + request.getClass().getSimpleName());
         }
-        throw new IllegalArgumentException("No suitable notifier found for " + request.getClass().getSimpleName());
+        if (log.isDebugEnabled()) {
+            log.debug("[NotifierCoordinator] request={}, matchedType={}, notifier={}",
+                    request.getClass().getSimpleName(), route.type().getSimpleName(), route.channel().name());
+        }
+        return (NotifierChannel<T>) route.channel();
     }
 
-    private Class<?> getGenericType(Notifier<?> notifier) {
-        for (Type type : notifier.getClass().getGenericInterfaces()) {
-            if (type instanceof ParameterizedType parameterizedType) {
-                Type rawType = parameterizedType.getRawType();
-                if (rawType instanceof Class<?> clazz && Notifier.class.isAssignableFrom(clazz)) {
-                    return (Class<?>) parameterizedType.getActualTypeArguments()[0];
-                }
+    private <T> CompletableFuture<MulticastResult.ChannelOutcome> deliver(NotifierChannel<T> channel, T request, Duration deadline) {
+        long start = System.nanoTime();
+        if (isDuplicate(request, channel)) {
+            return CompletableFuture.completedFuture(
+                    new MulticastResult.ChannelOutcome(channel.name(), MulticastResult.Status.SUPPRESSED, Duration.ZERO, null));
+        }
+        CompletableFuture<Void> sending;
+        try {
+            sending = enqueue(channel, request, deadline);
+        } catch (RuntimeException ex) {
+            sending = CompletableFuture.failedFuture(ex);
+        }
+        CompletableFuture<MulticastResult.ChannelOutcome> outcome = releaseOnFailure(request, channel, sending)
+                .handle((ignored, ex) -> new MulticastResult.ChannelOutcome(
+                        channel.name(),
+                        ex == null ? MulticastResult.Status.DELIVERED : MulticastResult.Status.FAILED,
+                        Duration.ofNanos(System.nanoTime() - start),
+                        ex == null ? null : String.valueOf(ex.getMessage())));
+        if (deadline == null) {
+            return outcome;
+        }
+        // 결과 future에 타임아웃을 걸고, 시간이 지나면 발송 future를 취소해 아직 큐에 있는 건은 워커가 건너뛰게 한다
+        CompletableFuture<Void> cancellable = sending;
+        return outcome.completeOnTimeout(
+                new MulticastResult.ChannelOutcome(channel.name(), MulticastResult.Status.TIMED_OUT, deadline, null),
+                deadline.toNanos(), TimeUnit.NANOSECONDS)
+                .whenComplete((result, ignored) -> {
+                    if (result.status() == MulticastResult.Status.TIMED_OUT) {
+                        cancellable.cancel(false);
+                    }
+                });
+    }
+
+    private boolean isDuplicate(Object request, NotifierChannel<?> channel) {
+        if (deduplicator == null || !(request instanceof NotificationMessage message)) {
+            return false;
+        }
+        boolean duplicate = deduplicator.isDuplicate(message, channel.name());
+        if (duplicate && log.isDebugEnabled()) {
+            log.debug("[NotifierCoordinator] suppressed duplicate for memberId={} via {}", message.getMemberId(), channel.name());
+        }
+        return duplicate;
+    }
+
+    /**
+     * 채널이 적재를 거절(FAIL_FAST)하면 중복 억제 키를 지우고 예외를 그대로 던진다.
+     */
+    private <T> CompletableFuture<Void> enqueue(NotifierChannel<T> channel, T request, Duration deadline) {
+        try {
+            return channel.enqueue(request, deadline);
+        } catch (RuntimeException ex) {
+            release(request, channel);
+            throw ex;
+        }
+    }
+
+    /**
+     * 발송이 실패하거나 취소되면 중복 억제 키를 지운다.
+     * 반환 future는 키를 지운 뒤에 완료되므로, 호출자가 실패 콜백에서 곧바로 재시도해도 억제되지 않는다.
+     */
+    private <T> CompletableFuture<Void> releaseOnFailure(T request, NotifierChannel<T> channel, CompletableFuture<Void> sending) {
+        if (deduplicator == null || !(request instanceof NotificationMessage)) {
+            return sending;
+        }
+        return sending.whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                release(request, channel);
+            }
+        });
+    }
+
+    private void release(Object request, NotifierChannel<?> channel) {
+        if (deduplicator != null && request instanceof NotificationMessage message) {
+            deduplicator.release(message, channel.name());
+        }
+    }
+
+    private Route route(Class<?> requestType) {
+        Route route = dispatchTable.get(requestType);
+        if (route == null) {
+            route = dispatchTable.computeIfAbsent(requestType, this::resolve);
+        }
+        return route;
+    }
+
+    /**
+     * 요청 타입에 할당 가능한 Notifier 중 가장 구체적인 타입을 고른다.
+     * 예) SMSReqDto 요청은 UmsReqDto보다 SMSReqDto 전용 Notifier가 있으면 그쪽을 선택한다.
+     */
+    private Route resolve(Class<?> requestType) {
+        List<Class<?>> candidates = new ArrayList<>();
+        for (Class<?> type : channelMap.keySet()) {
+            if (type.isAssignableFrom(requestType)) {
+                candidates.add(type);
             }
         }
-        throw new IllegalStateException("Unable to determine generic type for Notifier: " + notifier.getClass().getName());
+        List<Class<?>> mostSpecific = candidates.stream()
+                .filter(type -> candidates.stream().noneMatch(other -> other != type && type.isAssignableFrom(other)))
+                .toList();
+        if (mostSpecific.isEmpty()) {
+            return NO_ROUTE;
+        }
+        if (mostSpecific.size() > 1) {
+            throw new IllegalStateException("Ambiguous notifiers for " + requestType.getSimpleName() + ": " + mostSpecific);
+        }
+        Class<?> type = mostSpecific.get(0);
+        return new Route(type, channelMap.get(type));
+    }
+
+    private List<NotifierChannel<?>> resolveAll(Class<?> requestType) {
+        return channelMap.values().stream()
+                .filter(channel -> channel.type().isAssignableFrom(requestType))
+                .toList();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private NotifierChannel<?> newChannel(Notifier<?> notifier, List<Notifier<?>> fallbacks, NotifierProperties properties) {
+        Class<?> type = getGenericType(notifier); // 제네릭 타입 자동 추출
+        Notifier<?> fallback = fallbacks.stream()
+                .filter(candidate -> getGenericType(candidate).isAssignableFrom(type))
+                .findFirst()
+                .orElse(null);
+        return new NotifierChannel(type, notifier, fallback, properties, dispatcher);
+    }
+
+    private static boolean isFallback(Notifier<?> notifier) {
+        return notifier.getClass().isAnnotationPresent(FallbackNotifier.class);
+    }
+
+    /**
+     * 상위 클래스를 거쳐 구현한 경우(예: @FallbackNotifier 하위 클래스)까지 Notifier<T>의 T를 찾는다
+     */
+    private Class<?> getGenericType(Notifier<?> notifier) {
+        Class<?> type = ResolvableType.forClass(notifier.getClass()).as(Notifier.class).getGeneric(0).resolve();
+        if (type == null) {
+            throw new IllegalStateException("Unable to determine generic type for Notifier: " + notifier.getClass().getName());
+        }
+        return type;
+    }
+
+    private record Route(Class<?> type, NotifierChannel<?> channel) {
     }
 }
@@ -0,0 +1,55 @@
+package com.example.playground.notifier;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 채널 워커/헤지용 Executor 생성.
+ * 툴체인은 Java 17이므로 가상 스레드 API는 리플렉션으로 찾고, 없으면 데몬 플랫폼 스레드로 대체한다.
+ */
+@Slf4j
+final class NotifierExecutors {
+
+    private NotifierExecutors() {
+    }
+
+    static ExecutorService newWorkerExecutor(String name, boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException ex) {
+                log.debug("[NotifierExecutors] virtual threads unavailable, falling back to platform threads");
+            }
+        }
+        return Executors.newCachedThreadPool(daemonThreads(name));
+    }
+
+    /**
+     * 스레드가 maxThreads개를 넘지 않는 실행기. 모두 사용 중이면 대기열에 쌓지 않고 RejectedExecutionException을 던진다.
+     * 유휴 스레드는 30초 뒤 정리된다.
+     */
+    static ExecutorService newBoundedExecutor(String name, int maxThreads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.playground.notifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.playground.notifier.limit.LimitProperties;
+import com.example.playground.notifier.resilience.ResilienceProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties("notifier")
+public class NotifierProperties {
+
+    private Async async = new Async();
+    private Batch batch = new Batch();
+    private Outbox outbox = new Outbox();
+    private List<LimitProperties> limits = new ArrayList<>();
+    private Dedup dedup = new Dedup();
+    private Scheduling scheduling = new Scheduling();
+    private List<ResilienceProperties> resilience = new ArrayList<>();
+    private Stub stub = new Stub();
+    /** 템플릿 id -> 패턴 ("{0}님, {1}원 결제되었습니다") */
+    private Map<String, String> templates = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Async {
+        /** 채널(Notifier)별 대기 큐 크기 */
+        private int queueCapacity = 1024;
+        /** 단건 채널이 함께 쓰는 워커 수 (BatchNotifier 채널은 채널마다 이만큼 따로 둔다) */
+        private int workers = 8;
+        /** 런타임이 지원하면(JDK 21+) 가상 스레드로 워커를 띄운다 */
+        private boolean virtualThreads = true;
+        private BackpressurePolicy backpressure = BackpressurePolicy.BLOCK;
+        /** BLOCK 정책에서 큐 자리를 기다리는 최대 시간 */
+        private Duration blockTimeout = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /** BatchNotifier 채널에서 한 번에 넘길 최대 건수 */
+        private int maxSize = 100;
+        /** 첫 요청 이후 배치를 채우기 위해 기다리는 최대 시간 */
+        private Duration maxDelay = Duration.ofMillis(20);
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        /** true면 NotificationOutbox.submit이 발송 전에 로컬 로그에 먼저 적재한다 */
+        private boolean enabled = false;
+        private Path directory = Path.of("data", "outbox");
+        /** 세그먼트 하나를 한 번에 mmap하므로 2GB 미만이어야 한다 */
+        private DataSize segmentSize = DataSize.ofMegabytes(16);
+        /** 그룹 fsync 주기. JVM이 아닌 OS/전원 장애 시 이 구간만큼 유실될 수 있다 */
+        private Duration flushInterval = Duration.ofMillis(10);
+        /** 발송에 실패한 레코드를 다시 보내기까지의 첫 대기 시간 (실패할 때마다 2배) */
+        private Duration retryDelay = Duration.ofSeconds(1);
+        /** 재발송 대기 시간 상한 */
+        private Duration maxRetryDelay = Duration.ofMinutes(1);
+        /** 이 횟수만큼 발송에 실패한 레코드는 error 로그를 남기고 ack 한다 (첫 시도 포함) */
+        private int maxAttempts = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class Dedup {
+        /** true면 window 안의 같은 memberId + message + 채널 요청을 발송하지 않는다 */
+        private boolean enabled = false;
+        private Duration window = Duration.ofMinutes(5);
+        private int maxEntries = 100_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Scheduling {
+        private Lane transactional = new Lane(8, Duration.ofSeconds(5));
+        private Lane standard = new Lane(4, null);
+        private Lane bulk = new Lane(1, Duration.ofMinutes(10));
+        /** 요청 타입별 레인 지정, 지정이 없으면 STANDARD */
+        private List<TypePriority> priorities = new ArrayList<>();
+
+        public Lane lane(PriorityClass priority) {
+            return switch (priority) {
+                case TRANSACTIONAL -> transactional;
+                case STANDARD -> standard;
+                case BULK -> bulk;
+            };
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Lane {
+        /** 레인 간 상대 처리 비율 */
+        private int weight;
+        /** sendAsync에 deadline을 주지 않았을 때 적용할 기본 마감, null이면 만료 없음 */
+        private Duration defaultDeadline;
+
+        public Lane() {
+        }
+
+        Lane(int weight, Duration defaultDeadline) {
+            this.weight = weight;
+            this.defaultDeadline = defaultDeadline;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class TypePriority {
+        private Class<?> type;
+        private PriorityClass priority = PriorityClass.STANDARD;
+    }
+
+    @Getter
+    @Setter
+    public static class Stub {
+        /** 모든 호출에 더하는 기본 지연 */
+        private Duration latency = Duration.ZERO;
+        /** slowLatency만큼 걸리는 호출 비율 (0.0 ~ 1.0) */
+        private double slowRate;
+        private Duration slowLatency = Duration.ofSeconds(1);
+        /** 예외로 끝나는 호출 비율 (0.0 ~ 1.0) */
+        private double errorRate;
+    }
+}
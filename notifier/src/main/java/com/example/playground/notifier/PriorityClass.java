@@ -0,0 +1,12 @@
+package com.example.playground.notifier;
+
+/**
+ * 비동기 채널 큐의 우선순위 레인. 레인 간에는 notifier.scheduling.* 의 weight 비율로 번갈아 꺼낸다.
+ */
+public enum PriorityClass {
+    /** 결제 완료 SMS 등 지연 SLO가 있는 트랜잭션성 발송 */
+    TRANSACTIONAL,
+    STANDARD,
+    /** 캠페인/마케팅 대량 발송 */
+    BULK
+}
@@ -0,0 +1,37 @@
+package com.example.playground.notifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 요청 타입 → 우선순위 레인. notifier.scheduling.priorities 중 가장 구체적인 타입 설정을 따르고, 없으면 STANDARD.
+ */
+class PriorityResolver {
+
+    private final List<NotifierProperties.TypePriority> priorities;
+    private final Map<Class<?>, PriorityClass> cache = new ConcurrentHashMap<>();
+
+    PriorityResolver(NotifierProperties.Scheduling scheduling) {
+        this.priorities = scheduling.getPriorities();
+    }
+
+    PriorityClass resolve(Class<?> requestType) {
+        PriorityClass priority = cache.get(requestType);
+        if (priority == null) {
+            priority = cache.computeIfAbsent(requestType, this::mostSpecific);
+        }
+        return priority;
+    }
+
+    private PriorityClass mostSpecific(Class<?> requestType) {
+        NotifierProperties.TypePriority best = null;
+        for (NotifierProperties.TypePriority candidate : priorities) {
+            if (candidate.getType().isAssignableFrom(requestType)
+                    && (best == null || best.getType().isAssignableFrom(candidate.getType()))) {
+                best = candidate;
+            }
+        }
+        return best == null ? PriorityClass.STANDARD : best.getPriority();
+    }
+}
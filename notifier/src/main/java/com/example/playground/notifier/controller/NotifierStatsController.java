@@ -0,0 +1,41 @@
+package com.example.playground.notifier.controller;
+
+import com.example.playground.notifier.NotifierCoordinator;
+import com.example.playground.notifier.dedup.NotificationDeduplicator;
+import com.example.playground.notifier.limit.ChannelLimiter;
+import com.example.playground.notifier.metrics.NotifierMetricsReport;
+import com.example.playground.notifier.resilience.ResilienceSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/notifier")
+@RequiredArgsConstructor
+public class NotifierStatsController {
+
+    private final NotifierCoordinator notifierCoordinator;
+
+    @GetMapping("/metrics")
+    public NotifierMetricsReport metrics() {
+        return notifierCoordinator.metricsReport();
+    }
+
+    @GetMapping("/limits")
+    public Map<String, ChannelLimiter.Snapshot> limits() {
+        return notifierCoordinator.limiterSnapshots();
+    }
+
+    @GetMapping("/resilience")
+    public Map<String, ResilienceSnapshot> resilience() {
+        return notifierCoordinator.resilienceSnapshots();
+    }
+
+    @GetMapping("/dedup")
+    public NotificationDeduplicator.Snapshot dedup() {
+        return notifierCoordinator.dedupSnapshot();
+    }
+}
@@ -1,20 +1,50 @@
 package com.example.playground.notifier.controller;
 
+import com.example.playground.notifier.MulticastResult;
+import com.example.playground.notifier.dto.PaymentReqDto;
+import com.example.playground.notifier.service.PaymentBatchService;
 import com.example.playground.notifier.service.PaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequiredArgsConstructor
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentBatchService paymentBatchService;
 
     @PostMapping("/pay")
     public ResponseEntity<Void> testPayment() {
         paymentService.payment();
         return ResponseEntity.ok(null);
     }
+
+    /**
+     * 결제 완료 알림을 매칭되는 모든 채널로 병렬 발송하고, deadlineMs 안에 모인 채널별 결과를 응답한다.
+     */
+    @PostMapping("/pay/multicast")
+    public CompletableFuture<MulticastResult> multicastPayment(@RequestParam(defaultValue = "1000") long deadlineMs) {
+        return paymentService.paymentMulticast(new PaymentReqDto("memberId", 10_000), Duration.ofMillis(deadlineMs));
+    }
+
+    /**
+     * 한 줄에 결제 하나인 NDJSON 본문을 받아, 처리가 끝나는 대로 줄 단위 결과를 스트리밍한다.
+     * 본문을 직접 읽어야 하므로 @RequestBody 대신 서블릿 스트림을 사용한다.
+     */
+    @PostMapping(value = "/pay/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void batchPayment(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        paymentBatchService.process(request.getInputStream(), response.getOutputStream());
+    }
 }
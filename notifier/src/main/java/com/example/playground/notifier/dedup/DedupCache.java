@@ -0,0 +1,115 @@
+package com.example.playground.notifier.dedup;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * long 키 전용 TTL 캐시. 엔트리 객체 없이 stripe별 long 배열 두 개(key, 만료시각)만 사용한다.
+ * - stripe 단위로만 잠그므로 전역 락이 없다
+ * - stripe 안에서는 open addressing(선형 탐색, 최대 PROBE_LIMIT칸)이며, 자리가 없으면 가장 먼저 만료될 엔트리를 밀어낸다
+ */
+class DedupCache {
+
+    private static final int STRIPES = 64;
+    private static final int PROBE_LIMIT = 8;
+    private static final long EMPTY = 0L;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    DedupCache(int maxEntries, long ttlNanos) {
+        int slotsPerStripe = Integer.highestOneBit(Math.max(PROBE_LIMIT, maxEntries / STRIPES - 1) << 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(slotsPerStripe);
+        }
+        this.ttlNanos = ttlNanos;
+    }
+
+    /**
+     * 유효한(만료 전) 동일 키가 있으면 false, 없으면 키를 기록하고 true.
+     */
+    boolean putIfAbsent(long key, long nowNanos) {
+        if (key == EMPTY) {
+            key = 1L;
+        }
+        long spread = key ^ (key >>> 32);
+        Stripe stripe = stripes[(int) spread & (STRIPES - 1)];
+        boolean added = stripe.putIfAbsent(key, (int) (spread >>> 6), nowNanos, nowNanos + ttlNanos);
+        (added ? misses : hits).increment();
+        return added;
+    }
+
+    /**
+     * 기록된 키를 지운다. 발송이 실패해 같은 요청을 다시 받아야 할 때 쓴다.
+     */
+    void remove(long key) {
+        if (key == EMPTY) {
+            key = 1L;
+        }
+        long spread = key ^ (key >>> 32);
+        stripes[(int) spread & (STRIPES - 1)].remove(key, (int) (spread >>> 6));
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private final class Stripe {
+        private final long[] keys;
+        private final long[] expiresAt;
+        private final int mask;
+
+        Stripe(int slots) {
+            this.keys = new long[slots];
+            this.expiresAt = new long[slots];
+            this.mask = slots - 1;
+        }
+
+        synchronized boolean putIfAbsent(long key, int hash, long now, long expiry) {
+            int free = -1;
+            int oldest = -1;
+            for (int i = 0; i < PROBE_LIMIT; i++) {
+                int slot = (hash + i) & mask;
+                boolean live = keys[slot] != EMPTY && expiresAt[slot] - now > 0;
+                if (live && keys[slot] == key) {
+                    return false;
+                }
+                if (!live) {
+                    if (free < 0) {
+                        free = slot;
+                    }
+                } else if (oldest < 0 || expiresAt[slot] - expiresAt[oldest] < 0) {
+                    oldest = slot;
+                }
+            }
+            int target = free;
+            if (target < 0) {
+                target = oldest;
+                evictions.increment();
+            }
+            keys[target] = key;
+            expiresAt[target] = expiry;
+            return true;
+        }
+
+        synchronized void remove(long key, int hash) {
+            for (int i = 0; i < PROBE_LIMIT; i++) {
+                int slot = (hash + i) & mask;
+                if (keys[slot] == key) {
+                    keys[slot] = EMPTY;
+                    return;
+                }
+            }
+        }
+    }
+}
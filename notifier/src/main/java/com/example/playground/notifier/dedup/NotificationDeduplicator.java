@@ -0,0 +1,65 @@
+package com.example.playground.notifier.dedup;
+
+import com.example.playground.notifier.NotifierProperties;
+import com.example.playground.notifier.dto.NotificationMessage;
+
+/**
+ * memberId + 본문(message 또는 templateId + args) + 채널 조합이 설정된 window 안에 다시 들어오면 중복으로 판단한다.
+ * 키는 64bit FNV-1a 해시만 저장하므로 해시 충돌 시 드물게 정상 요청이 억제될 수 있다.
+ * 발송 중이거나 성공한 요청만 기억하며, 실패·거절된 요청은 release로 지워 재시도를 막지 않는다.
+ */
+public class NotificationDeduplicator {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final DedupCache cache;
+
+    public NotificationDeduplicator(NotifierProperties.Dedup properties) {
+        this.cache = new DedupCache(properties.getMaxEntries(), properties.getWindow().toNanos());
+    }
+
+    /**
+     * 처음 보는 요청이면 키를 기록하고 false. 발송이 성공하지 못하면 release로 기록을 지워야 재시도가 억제되지 않는다.
+     */
+    public boolean isDuplicate(NotificationMessage message, String channel) {
+        return !cache.putIfAbsent(key(message, channel), System.nanoTime());
+    }
+
+    /**
+     * isDuplicate가 기록한 키를 지운다 (발송 실패·거절 시)
+     */
+    public void release(NotificationMessage message, String channel) {
+        cache.remove(key(message, channel));
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(cache.hits(), cache.misses(), cache.evictions());
+    }
+
+    private static long key(NotificationMessage message, String channel) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, message.getMemberId());
+        hash = mix(hash, message.getMessage());
+        if (message.isTemplated()) {
+            hash = mix(hash, message.getTemplateId());
+            for (Object arg : message.getArgs()) {
+                hash = mix(hash, arg instanceof String text ? text : String.valueOf(arg));
+            }
+        }
+        return mix(hash, channel);
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // 필드 경계 구분 ("ab"+"c"와 "a"+"bc"가 같은 해시가 되지 않도록)
+        return (hash ^ 0xff) * FNV_PRIME;
+    }
+
+    public record Snapshot(long hits, long misses, long evictions) {
+    }
+}
@@ -1,10 +1,27 @@
 package com.example.playground.notifier.dto;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 @Getter
-public class AppNotiReqDto {
+@NoArgsConstructor
+public class AppNotiReqDto implements NotificationMessage {
 
     String memberId;
     String message;
+    String templateId;
+    Object[] args;
+
+    public AppNotiReqDto(String memberId, String message) {
+        this.memberId = memberId;
+        this.message = message;
+    }
+
+    public static AppNotiReqDto template(String memberId, String templateId, Object... args) {
+        AppNotiReqDto request = new AppNotiReqDto();
+        request.memberId = memberId;
+        request.templateId = templateId;
+        request.args = args;
+        return request;
+    }
 }
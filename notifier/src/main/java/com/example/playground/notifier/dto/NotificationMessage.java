@@ -0,0 +1,19 @@
+package com.example.playground.notifier.dto;
+
+/**
+ * 수신자/본문을 가진 발송 요청 공통 뷰. 중복 발송 판별 등 채널과 무관한 처리에서 사용한다.
+ * 본문은 완성된 message 또는 templateId + args 중 하나로 전달된다.
+ */
+public interface NotificationMessage {
+    String getMemberId();
+
+    String getMessage();
+
+    String getTemplateId();
+
+    Object[] getArgs();
+
+    default boolean isTemplated() {
+        return getTemplateId() != null;
+    }
+}
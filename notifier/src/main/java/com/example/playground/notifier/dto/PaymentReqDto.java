@@ -0,0 +1,7 @@
+package com.example.playground.notifier.dto;
+
+/**
+ * /pay/batch NDJSON 한 줄
+ */
+public record PaymentReqDto(String memberId, long amount) {
+}
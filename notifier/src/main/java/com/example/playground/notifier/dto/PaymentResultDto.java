@@ -0,0 +1,12 @@
+package com.example.playground.notifier.dto;
+
+/**
+ * /pay/batch 응답 NDJSON 한 줄. line은 요청 본문의 줄 번호(1부터)이며, 완료 순서대로 내려가므로 요청 순서와 다를 수 있다.
+ */
+public record PaymentResultDto(long line, String memberId, Status status, String error) {
+
+    public enum Status {
+        OK,
+        FAILED
+    }
+}
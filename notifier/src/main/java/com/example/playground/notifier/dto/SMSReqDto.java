@@ -8,4 +8,12 @@ public class SMSReqDto extends UmsReqDto{
     public SMSReqDto(String memberId, String message) {
         super(memberId, message);
     }
+
+    private SMSReqDto(String memberId, String templateId, Object[] args) {
+        super(memberId, null, templateId, args);
+    }
+
+    public static SMSReqDto template(String memberId, String templateId, Object... args) {
+        return new SMSReqDto(memberId, templateId, args);
+    }
 }
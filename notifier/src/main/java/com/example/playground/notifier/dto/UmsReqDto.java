@@ -1,12 +1,30 @@
 package com.example.playground.notifier.dto;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
 @Getter
-@AllArgsConstructor
-public class UmsReqDto {
+public class UmsReqDto implements NotificationMessage {
 
     String memberId;
     String message;
+    String templateId;
+    Object[] args;
+
+    public UmsReqDto(String memberId, String message) {
+        this(memberId, message, null, null);
+    }
+
+    protected UmsReqDto(String memberId, String message, String templateId, Object[] args) {
+        this.memberId = memberId;
+        this.message = message;
+        this.templateId = templateId;
+        this.args = args;
+    }
+
+    /**
+     * 완성된 문자열 대신 미리 등록된 템플릿 id와 인자로 본문을 전달한다. 렌더링은 발송 시점에 Notifier가 수행한다.
+     */
+    public static UmsReqDto template(String memberId, String templateId, Object... args) {
+        return new UmsReqDto(memberId, null, templateId, args);
+    }
 }
@@ -2,16 +2,21 @@ package com.example.playground.notifier.impl;
 
 import com.example.playground.notifier.Notifier;
 import com.example.playground.notifier.dto.AppNotiReqDto;
+import com.example.playground.notifier.template.TemplateRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class AppNotifier implements Notifier<AppNotiReqDto> {
 
+    private final TemplateRegistry templateRegistry;
+
     @Override
     public void send(AppNotiReqDto request) {
-        log.info("[App Notifier] Sending message: " + request.getMessage());
+        templateRegistry.render(request, message -> log.info("[App Notifier] Sending message: {}", message));
         // 앱 알림 발송 로직
     }
 }
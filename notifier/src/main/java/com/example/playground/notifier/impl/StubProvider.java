@@ -0,0 +1,37 @@
+package com.example.playground.notifier.impl;
+
+import com.example.playground.notifier.NotifierProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 실제 게이트웨이 대신 호출되는 프로세스 내 stub provider.
+ * notifier.stub.* 로 지연/느린 호출/오류를 주입해 서킷 브레이커와 헤지 동작을 로컬에서 확인하고 벤치마크한다.
+ * 설정은 호출마다 읽으므로 실행 중 바꿔도 바로 반영된다. stub 프로필에서만 등록된다.
+ */
+@Component
+@Profile("stub")
+@RequiredArgsConstructor
+public class StubProvider {
+
+    private final NotifierProperties properties;
+
+    public void call(String operation) {
+        NotifierProperties.Stub stub = properties.getStub();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = stub.getLatency().toNanos();
+        if (stub.getSlowRate() > 0 && random.nextDouble() < stub.getSlowRate()) {
+            latency = stub.getSlowLatency().toNanos();
+        }
+        if (latency > 0) {
+            LockSupport.parkNanos(latency);
+        }
+        if (stub.getErrorRate() > 0 && random.nextDouble() < stub.getErrorRate()) {
+            throw new IllegalStateException("Stub provider failure: " + operation);
+        }
+    }
+}
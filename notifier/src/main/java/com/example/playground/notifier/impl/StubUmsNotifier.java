@@ -0,0 +1,35 @@
+package com.example.playground.notifier.impl;
+
+import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.template.TemplateRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * stub 프로필 전용 UmsNotifier. 발송마다 StubProvider로 notifier.stub.* 의 지연/오류를 주입한다.
+ */
+@Component
+@Profile("stub")
+public class StubUmsNotifier extends UmsNotifier {
+
+    private final StubProvider stubProvider;
+
+    public StubUmsNotifier(TemplateRegistry templateRegistry, StubProvider stubProvider) {
+        super(templateRegistry);
+        this.stubProvider = stubProvider;
+    }
+
+    @Override
+    public void send(UmsReqDto request) {
+        super.send(request);
+        stubProvider.call("ums.send");
+    }
+
+    @Override
+    public void sendAll(List<UmsReqDto> requests) {
+        super.sendAll(requests);
+        stubProvider.call("ums.sendAll");
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.playground.notifier.impl;
+
+import com.example.playground.notifier.BatchNotifier;
+import com.example.playground.notifier.FallbackNotifier;
+import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.template.TemplateRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@FallbackNotifier
+@RequiredArgsConstructor
+public class UmsFallbackNotifier implements BatchNotifier<UmsReqDto> {
+
+    private final TemplateRegistry templateRegistry;
+
+    @Override
+    public void send(UmsReqDto request) {
+        templateRegistry.render(request, message -> log.info("[UMS Fallback Notifier] Sending message: {}", message));
+        // 보조 문자 게이트웨이 발송 로직
+    }
+
+    @Override
+    public void sendAll(List<UmsReqDto> requests) {
+        log.info("[UMS Fallback Notifier] Sending bulk messages: count={}", requests.size());
+        // 보조 문자 게이트웨이 대량 발송 로직
+    }
+}
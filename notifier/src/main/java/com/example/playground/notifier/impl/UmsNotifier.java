@@ -1,17 +1,35 @@
 package com.example.playground.notifier.impl;
 
-import com.example.playground.notifier.Notifier;
+import com.example.playground.notifier.BatchNotifier;
 import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.template.TemplateRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
+/**
+ * stub 프로필에서는 StubUmsNotifier가 대신 등록된다.
+ */
 @Slf4j
 @Component
-public class UmsNotifier implements Notifier<UmsReqDto> {
+@Profile("!stub")
+@RequiredArgsConstructor
+public class UmsNotifier implements BatchNotifier<UmsReqDto> {
+
+    private final TemplateRegistry templateRegistry;
 
     @Override
     public void send(UmsReqDto request) {
-        log.info("[UMS Notifier] Sending message: " + request.getMessage());
+        templateRegistry.render(request, message -> log.info("[UMS Notifier] Sending message: {}", message));
         // 문자 발송 로직
     }
+
+    @Override
+    public void sendAll(List<UmsReqDto> requests) {
+        log.info("[UMS Notifier] Sending bulk messages: count={}", requests.size());
+        // 문자 대량 발송 로직 (게이트웨이 bulk API 1회 호출)
+    }
 }
@@ -0,0 +1,188 @@
+package com.example.playground.notifier.limit;
+
+import com.example.playground.notifier.NotificationRejectedException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 채널(요청 타입) 단위의 토큰 버킷 + 동시성 bulkhead.
+ * 한도를 넘은 요청은 정책에 따라 지연(DELAY)되거나 버려지고(SHED), 각 횟수를 카운터로 남긴다.
+ */
+public class ChannelLimiter {
+
+    private static final ChannelLimiter UNLIMITED = new ChannelLimiter(null, Integer.MAX_VALUE, null, OverLimitPolicy.SHED, 0);
+    // 동시성 슬롯은 언제 빌지 알 수 없으므로 미룰 때 이 간격으로 다시 시도한다
+    private static final long BULKHEAD_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TokenBucket tokenBucket;
+    private final int burst;
+    private final Semaphore bulkhead;
+    private final OverLimitPolicy policy;
+    private final long maxWaitNanos;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    private ChannelLimiter(TokenBucket tokenBucket, int burst, Semaphore bulkhead, OverLimitPolicy policy, long maxWaitNanos) {
+        this.tokenBucket = tokenBucket;
+        this.burst = burst;
+        this.bulkhead = bulkhead;
+        this.policy = policy;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    public static ChannelLimiter of(LimitProperties limit) {
+        boolean rateLimited = limit.getPermitsPerSecond() > 0;
+        return new ChannelLimiter(
+                rateLimited ? new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst()) : null,
+                rateLimited ? Math.max(1, limit.getBurst()) : Integer.MAX_VALUE,
+                limit.getMaxConcurrent() > 0 ? new Semaphore(limit.getMaxConcurrent()) : null,
+                limit.getPolicy(),
+                limit.getMaxWait().toNanos());
+    }
+
+    public static ChannelLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * 한 번의 호출로 예약할 수 있는 최대 건수. 배치 크기를 이 값 이하로 맞춰야 버스트 한도 때문에 항상 버려지는 일이 없다.
+     */
+    public int maxPermitsPerCall() {
+        return burst;
+    }
+
+    /**
+     * 동시성 슬롯 하나와 permits 건 분량의 토큰을 확보한 뒤 call을 실행한다.
+     * 슬롯을 먼저 잡으므로 bulkhead에서 버려진 요청은 토큰을 쓰지 않는다.
+     */
+    public void execute(int permits, Runnable call) {
+        if (this == UNLIMITED) {
+            call.run();
+            return;
+        }
+        long maxWait = policy == OverLimitPolicy.DELAY ? maxWaitNanos : 0;
+        if (bulkhead != null && !tryAcquire(maxWait)) {
+            throw shed("too many concurrent sends");
+        }
+        try {
+            if (tokenBucket != null) {
+                long wait = tokenBucket.reserve(permits, maxWait);
+                if (wait < 0) {
+                    throw shed("rate limit exceeded");
+                }
+                if (wait > 0) {
+                    delayed.increment();
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            admitted.increment();
+            call.run();
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * execute와 같지만 스레드를 재우지 않는다. DELAY 정책에서 한도를 넘었으면 call을 실행하지 않고 다시 시도할 때까지의 시간을 돌려주며,
+     * 호출자는 그 시간 뒤에 같은 건을 다시 넘긴다. 여러 채널이 나눠 쓰는 워커가 한 채널의 한도 때문에 잠들지 않도록 한다.
+     *
+     * @param delayedNanos 이 건이 이미 미뤄진 시간. maxWait에서 이만큼을 뺀 안에서만 더 미루고, 넘으면 버린다
+     * @return call을 실행했으면 0, 미뤘으면 다시 시도할 때까지의 시간(ns)
+     */
+    public long executeOrDelay(int permits, long delayedNanos, Runnable call) {
+        if (this == UNLIMITED) {
+            call.run();
+            return 0;
+        }
+        long remaining = policy == OverLimitPolicy.DELAY ? maxWaitNanos - delayedNanos : 0;
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            if (remaining <= 0) {
+                throw shed("too many concurrent sends");
+            }
+            return delay(delayedNanos, Math.min(BULKHEAD_RETRY_NANOS, remaining));
+        }
+        try {
+            if (tokenBucket != null) {
+                long wait = tokenBucket.tryReserve(permits);
+                if (wait > remaining) {
+                    throw shed("rate limit exceeded");
+                }
+                if (wait > 0) {
+                    return delay(delayedNanos, wait);
+                }
+            }
+            admitted.increment();
+            call.run();
+            return 0;
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    /**
+     * 기다리지 않고 동시성 슬롯과 토큰을 확보할 수 있을 때만 call을 실행한다 (헤지 두 번째 시도 등). 확보하지 못해도 shed로 세지 않는다.
+     *
+     * @return 실행했으면 true
+     */
+    public boolean tryExecute(int permits, Runnable call) {
+        if (this == UNLIMITED) {
+            call.run();
+            return true;
+        }
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            return false;
+        }
+        try {
+            if (tokenBucket != null && tokenBucket.tryReserve(permits) > 0) {
+                return false;
+            }
+            admitted.increment();
+            call.run();
+            return true;
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(admitted.sum(), delayed.sum(), shed.sum(),
+                bulkhead == null ? -1 : bulkhead.availablePermits());
+    }
+
+    private boolean tryAcquire(long maxWait) {
+        try {
+            return bulkhead.tryAcquire(maxWait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 같은 건을 여러 번 미뤄도 delayed는 처음 한 번만 센다
+     */
+    private long delay(long delayedNanos, long waitNanos) {
+        if (delayedNanos == 0) {
+            delayed.increment();
+        }
+        return waitNanos;
+    }
+
+    private NotificationRejectedException shed(String reason) {
+        shed.increment();
+        return new NotificationRejectedException(reason);
+    }
+
+    public record Snapshot(long admitted, long delayed, long shed, int availableConcurrency) {
+    }
+}
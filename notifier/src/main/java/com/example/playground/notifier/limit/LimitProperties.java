@@ -0,0 +1,25 @@
+package com.example.playground.notifier.limit;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * notifier.limits[n].* 한 건. type은 Notifier의 제네릭 타입(예: UmsReqDto)과 일치해야 적용된다.
+ */
+@Getter
+@Setter
+public class LimitProperties {
+
+    private Class<?> type;
+    /** 초당 허용 건수, 0 이하면 제한 없음 */
+    private double permitsPerSecond;
+    /** 순간적으로 허용하는 최대 토큰 수 */
+    private int burst = 1;
+    /** provider 동시 호출 수 상한, 0 이하면 제한 없음 */
+    private int maxConcurrent;
+    private OverLimitPolicy policy = OverLimitPolicy.DELAY;
+    /** DELAY 정책에서 토큰/슬롯을 기다리는 최대 시간 */
+    private Duration maxWait = Duration.ofMillis(200);
+}
@@ -0,0 +1,8 @@
+package com.example.playground.notifier.limit;
+
+public enum OverLimitPolicy {
+    /** 토큰/동시성 슬롯이 max-wait 안에 확보되면 그만큼 지연 후 발송 */
+    DELAY,
+    /** 즉시 확보되지 않으면 바로 버린다 */
+    SHED
+}
@@ -0,0 +1,61 @@
+package com.example.playground.notifier.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GCRA(virtual scheduling) 방식의 lock-free 토큰 버킷.
+ * 다음 토큰이 이론적으로 도착하는 시각(TAT) 하나만 CAS로 갱신한다.
+ */
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+    }
+
+    /**
+     * permits 만큼 예약하고 기다려야 하는 시간(ns)을 돌려준다. maxWaitNanos를 넘기면 예약하지 않고 -1.
+     */
+    long reserve(int permits, long maxWaitNanos) {
+        long cost = intervalNanos * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long tat = Math.max(current, now);
+            long next = tat + cost;
+            long wait = next - burstNanos - now;
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     * 지금 바로 쓸 수 있을 때만 permits 만큼 예약한다.
+     *
+     * @return 예약했으면 0, 아니면 예약하지 않고 토큰이 돌아올 때까지의 시간(ns)
+     */
+    long tryReserve(int permits) {
+        long cost = intervalNanos * permits;
+        while (true) {
+            long now = System.nanoTime();
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + cost;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.playground.notifier.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 채널 하나의 발송 결과 카운터, 처리 중 건수, provider 호출 지연 히스토그램.
+ */
+public class ChannelMetrics {
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failure = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * provider 호출 직전에 부르고, 반환값을 complete에 그대로 넘긴다.
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    public void complete(long startNanos, int messages, boolean succeeded) {
+        latency.record(System.nanoTime() - startNanos);
+        inFlight.decrement();
+        (succeeded ? success : failure).add(messages);
+    }
+
+    /**
+     * 마감이 지나 provider 호출 없이 폐기된 건
+     */
+    public void expired() {
+        expired.increment();
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public Snapshot snapshot(int queueDepth) {
+        return new Snapshot(success.sum(), failure.sum(), expired.sum(), inFlight.sum(), queueDepth, latency.snapshot());
+    }
+
+    public record Snapshot(long success, long failure, long expired, long inFlight, int queueDepth, LatencyHistogram.Snapshot latency) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.playground.notifier.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HdrHistogram 방식의 log-linear 지연 히스토그램 (ns 단위 기록).
+ * 2의 거듭제곱 구간마다 64개의 선형 하위 구간을 두어 상대 오차 약 1.6% 이내로 기록한다.
+ * 기록은 버킷 하나에 대한 원자적 증가뿐이라 락이 없고 할당도 없다.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        long maxValue = max.get();
+        return new Snapshot(total,
+                toMicros(Math.min(maxValue, percentile(copy, total, 0.50))),
+                toMicros(Math.min(maxValue, percentile(copy, total, 0.90))),
+                toMicros(Math.min(maxValue, percentile(copy, total, 0.95))),
+                toMicros(Math.min(maxValue, percentile(copy, total, 0.99))),
+                toMicros(Math.min(maxValue, percentile(copy, total, 0.999))),
+                toMicros(maxValue));
+    }
+
+    /**
+     * 기록된 건수. 스냅샷 없이 값 하나만 필요할 때 (예: 헤지 지연 계산)
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * quantile 지점의 지연(ns), 최대 기록값을 넘지 않는다
+     */
+    public long percentileNanos(double quantile) {
+        long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return Math.min(max.get(), percentile(copy, total, quantile));
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long valueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        // 구간 중앙값으로 보고한다
+        return lowerBound + ((1L << shift) >>> 1);
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * quantile));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return valueOf(i);
+            }
+        }
+        return valueOf(counts.length - 1);
+    }
+
+    private static double toMicros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    /**
+     * 지연 값은 모두 마이크로초
+     */
+    public record Snapshot(long count, double p50, double p90, double p95, double p99, double p999, double max) {
+    }
+}
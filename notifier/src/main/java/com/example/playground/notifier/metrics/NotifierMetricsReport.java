@@ -0,0 +1,9 @@
+package com.example.playground.notifier.metrics;
+
+import java.util.Map;
+
+/**
+ * GET /notifier/metrics 응답
+ */
+public record NotifierMetricsReport(Map<String, ChannelMetrics.Snapshot> channels, long noMatch) {
+}
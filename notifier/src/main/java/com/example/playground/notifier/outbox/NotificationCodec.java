@@ -0,0 +1,148 @@
+package com.example.playground.notifier.outbox;
+
+import com.example.playground.notifier.dto.AppNotiReqDto;
+import com.example.playground.notifier.dto.NotificationMessage;
+import com.example.playground.notifier.dto.SMSReqDto;
+import com.example.playground.notifier.dto.UmsReqDto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 아웃박스 레코드용 바이너리 포맷.
+ * [version 1byte][type tag 1byte][memberId][message][templateId][인자 수 int][인자...], 문자열은 [길이 int][UTF-8 bytes] (null은 길이 -1)
+ * 템플릿 인자는 문자열로 저장되므로 재발송 시에는 String 인자로 렌더링된다.
+ * 버전 바이트가 없던 이전 레코드([tag][memberId][message], 뒤에 템플릿 필드가 붙을 수 있음)도 읽는다.
+ */
+final class NotificationCodec {
+
+    // 이전 포맷의 첫 바이트(tag 1~3)와 겹치지 않도록 상위 비트를 세운다
+    private static final byte VERSION_2 = (byte) 0x82;
+
+    private static final byte UMS = 1;
+    private static final byte SMS = 2;
+    private static final byte APP = 3;
+
+    private NotificationCodec() {
+    }
+
+    static byte[] encode(Object request) {
+        if (request instanceof SMSReqDto sms) {
+            return encode(SMS, sms);
+        }
+        if (request instanceof UmsReqDto ums) {
+            return encode(UMS, ums);
+        }
+        if (request instanceof AppNotiReqDto app) {
+            return encode(APP, app);
+        }
+        throw new IllegalArgumentException("Unsupported outbox request type: " + request.getClass().getName());
+    }
+
+    static Object decode(ByteBuffer payload) {
+        byte first = payload.get();
+        if (first == VERSION_2) {
+            return decodeVersion2(payload.get(), payload);
+        }
+        if (first == UMS || first == SMS || first == APP) {
+            return decodeUnversioned(first, payload);
+        }
+        throw new IllegalStateException("Unknown outbox record format: " + first);
+    }
+
+    private static Object decodeVersion2(byte tag, ByteBuffer payload) {
+        String memberId = readString(payload);
+        String message = readString(payload);
+        String templateId = readString(payload);
+        return create(tag, memberId, message, templateId, readArgs(payload));
+    }
+
+    /**
+     * 버전 바이트 도입 전 레코드. 템플릿 필드가 없는 최초 포맷은 message 뒤에서 끝난다.
+     */
+    private static Object decodeUnversioned(byte tag, ByteBuffer payload) {
+        String memberId = readString(payload);
+        String message = readString(payload);
+        if (!payload.hasRemaining()) {
+            return create(tag, memberId, message, null, null);
+        }
+        String templateId = readString(payload);
+        return create(tag, memberId, message, templateId, readArgs(payload));
+    }
+
+    private static Object[] readArgs(ByteBuffer payload) {
+        Object[] args = new Object[payload.getInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = readString(payload);
+        }
+        return args;
+    }
+
+    private static Object create(byte tag, String memberId, String message, String templateId, Object[] args) {
+        if (templateId != null) {
+            return switch (tag) {
+                case UMS -> UmsReqDto.template(memberId, templateId, args);
+                case SMS -> SMSReqDto.template(memberId, templateId, args);
+                case APP -> AppNotiReqDto.template(memberId, templateId, args);
+                default -> throw new IllegalStateException("Unknown outbox record tag: " + tag);
+            };
+        }
+        return switch (tag) {
+            case UMS -> new UmsReqDto(memberId, message);
+            case SMS -> new SMSReqDto(memberId, message);
+            case APP -> new AppNotiReqDto(memberId, message);
+            default -> throw new IllegalStateException("Unknown outbox record tag: " + tag);
+        };
+    }
+
+    private static byte[] encode(byte tag, NotificationMessage request) {
+        byte[] memberIdBytes = toBytes(request.getMemberId());
+        byte[] messageBytes = toBytes(request.getMessage());
+        byte[] templateIdBytes = toBytes(request.getTemplateId());
+        Object[] args = request.getArgs() == null ? new Object[0] : request.getArgs();
+        byte[][] argBytes = new byte[args.length][];
+        int size = 2 + sizeOf(memberIdBytes) + sizeOf(messageBytes) + sizeOf(templateIdBytes) + Integer.BYTES;
+        for (int i = 0; i < args.length; i++) {
+            argBytes[i] = toBytes(args[i] == null ? null : String.valueOf(args[i]));
+            size += sizeOf(argBytes[i]);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION_2);
+        buffer.put(tag);
+        writeString(buffer, memberIdBytes);
+        writeString(buffer, messageBytes);
+        writeString(buffer, templateIdBytes);
+        buffer.putInt(args.length);
+        for (byte[] arg : argBytes) {
+            writeString(buffer, arg);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeOf(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.playground.notifier.outbox;
+
+import com.example.playground.notifier.NotifierCoordinator;
+import com.example.playground.notifier.NotifierProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 발송 요청을 로컬 아웃박스 로그에 먼저 적재한 뒤 NotifierCoordinator.sendAsync로 넘긴다.
+ * 발송이 성공하면 레코드를 ack 하고, 실패하면 ack하지 않은 채 retry-delay 뒤 다시 보낸다 (실패할 때마다 2배, max-retry-delay 상한).
+ * 다시 보내도 성공할 수 없는 실패(IllegalArgumentException)나 max-attempts번 실패한 레코드는 error 로그를 남기고 ack 해 버린다 (dead-letter).
+ * JVM이 죽어 ack되지 않은 레코드는 다음 기동 시 재발송한다 (at-least-once).
+ * notifier.outbox.enabled=false면 적재 없이 바로 sendAsync를 호출한다.
+ */
+@Slf4j
+@Component
+public class NotificationOutbox implements DisposableBean {
+
+    private final NotifierCoordinator notifierCoordinator;
+    private final NotifierProperties.Outbox properties;
+    private final OutboxLog outboxLog;
+    // 그룹 fsync와 재발송 예약을 함께 맡는다
+    private final ScheduledExecutorService scheduler;
+    private final List<OutboxLog.PendingRecord> recovered;
+
+    public NotificationOutbox(NotifierCoordinator notifierCoordinator, NotifierProperties properties) throws IOException {
+        this.notifierCoordinator = notifierCoordinator;
+        this.properties = properties.getOutbox();
+        if (!this.properties.isEnabled()) {
+            this.outboxLog = null;
+            this.scheduler = null;
+            this.recovered = List.of();
+            return;
+        }
+        this.outboxLog = new OutboxLog(this.properties.getDirectory(), segmentBytes(this.properties.getSegmentSize()));
+        this.recovered = outboxLog.open();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notifier-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalNanos = this.properties.getFlushInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(outboxLog::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> CompletableFuture<Void> submit(T request) {
+        if (outboxLog == null) {
+            return notifierCoordinator.sendAsync(request);
+        }
+        OutboxLog.RecordRef ref = outboxLog.append(NotificationCodec.encode(request));
+        return dispatch(request, ref);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        if (recovered.isEmpty()) {
+            return;
+        }
+        log.info("[NotificationOutbox] replaying {} unacknowledged notifications", recovered.size());
+        for (OutboxLog.PendingRecord record : recovered) {
+            try {
+                dispatch(NotificationCodec.decode(record.payload()), record.ref());
+            } catch (RuntimeException ex) {
+                // 다음 기동에도 읽을 수 없으므로 남겨 두면 세그먼트가 지워지지 않는다
+                log.error("[NotificationOutbox] dead-lettered undecodable record", ex);
+                outboxLog.ack(record.ref());
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (outboxLog != null) {
+            scheduler.shutdownNow();
+            outboxLog.close();
+        }
+    }
+
+    /**
+     * @return 세그먼트 하나를 MappedByteBuffer 하나로 매핑하므로 int 범위를 넘으면 기동을 막는다
+     */
+    static int segmentBytes(DataSize segmentSize) {
+        long bytes = segmentSize.toBytes();
+        if (bytes <= 0 || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("notifier.outbox.segment-size must be between 1B and 2GB: " + segmentSize);
+        }
+        return (int) bytes;
+    }
+
+    private <T> CompletableFuture<Void> dispatch(T request, OutboxLog.RecordRef ref) {
+        return dispatch(request, ref, 0);
+    }
+
+    /**
+     * @return 이번 시도의 결과. 재시도할 수 있는 실패면 레코드는 ack하지 않고 재발송을 예약한다
+     */
+    private <T> CompletableFuture<Void> dispatch(T request, OutboxLog.RecordRef ref, int failures) {
+        CompletableFuture<Void> delivery;
+        try {
+            delivery = notifierCoordinator.sendAsync(request);
+        } catch (RuntimeException ex) {
+            delivery = CompletableFuture.failedFuture(ex);
+        }
+        return delivery.whenComplete((ignored, ex) -> {
+            if (ex == null) {
+                outboxLog.ack(ref);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (!isRetryable(cause) || failures + 1 >= properties.getMaxAttempts()) {
+                log.error("[NotificationOutbox] dead-lettered {} after {} attempt(s)", request.getClass().getSimpleName(), failures + 1, cause);
+                outboxLog.ack(ref);
+            } else {
+                scheduleRetry(request, ref, failures + 1, cause);
+            }
+        });
+    }
+
+    /**
+     * @return 요청 자체가 잘못된 실패(맞는 Notifier 없음, 아웃박스가 모르는 타입 등)는 다시 보내도 같으므로 false.
+     *         NotificationRejectedException은 큐 포화·처리율 제한처럼 시간이 지나면 풀리는 경우가 많아 max-attempts까지 재시도한다
+     */
+    private static boolean isRetryable(Throwable cause) {
+        return !(cause instanceof IllegalArgumentException);
+    }
+
+    private <T> void scheduleRetry(T request, OutboxLog.RecordRef ref, int failures, Throwable cause) {
+        long delayNanos = Math.min(properties.getRetryDelay().toNanos() << Math.min(failures - 1, 20),
+                properties.getMaxRetryDelay().toNanos());
+        log.warn("[NotificationOutbox] delivery failed {} time(s), retry in {}ms: {}", failures, delayNanos / 1_000_000, cause.getMessage());
+        try {
+            scheduler.schedule(() -> dispatch(request, ref, failures), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException ex) {
+            // 종료 중: ack되지 않은 레코드는 다음 기동 시 재발송된다
+            log.debug("[NotificationOutbox] shutting down, retry deferred to next startup");
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.playground.notifier.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 세그먼트 단위로 나뉜 memory-mapped append 로그.
+ * - 레코드: [length int][crc32 int][state byte][payload]
+ * - state는 PENDING으로 기록되고 ack 시 같은 위치를 ACKED로 덮어쓴다
+ * - fsync(force)는 flush()에서 dirty 세그먼트만 모아서 수행 (그룹 fsync)
+ * - 가득 찬(sealed) 세그먼트는 모든 레코드가 ack되면 파일째 삭제
+ */
+@Slf4j
+class OutboxLog implements AutoCloseable {
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + 1;
+    private static final int STATE_OFFSET = Integer.BYTES + Integer.BYTES;
+    private static final byte PENDING = 1;
+    private static final byte ACKED = 2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private Segment active;
+    private long nextSequence;
+
+    OutboxLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 기존 세그먼트를 읽어 ack되지 않은 레코드를 돌려준다. 기존 세그먼트는 모두 sealed 처리되고 이후 append는 새 세그먼트에 기록된다.
+     */
+    synchronized List<PendingRecord> open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+        List<PendingRecord> pending = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = Segment.map(this, file, (int) Files.size(file));
+            pending.addAll(segment.recover());
+            nextSequence = Math.max(nextSequence, sequenceOf(file) + 1);
+            segments.add(segment);
+            segment.seal();
+        }
+        return pending;
+    }
+
+    synchronized RecordRef append(byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Outbox record larger than segment: " + recordSize);
+        }
+        if (active == null || active.remaining() < recordSize) {
+            roll();
+        }
+        return active.append(payload);
+    }
+
+    void ack(RecordRef ref) {
+        ref.segment().ack(ref.position());
+    }
+
+    void flush() {
+        for (Segment segment : segments) {
+            segment.forceIfDirty();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        for (Segment segment : segments) {
+            segment.closeChannel();
+        }
+    }
+
+    private void roll() {
+        if (active != null) {
+            active.seal();
+        }
+        Path file = directory.resolve(String.format("outbox-%020d.log", nextSequence++));
+        try {
+            active = Segment.map(this, file, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        segments.add(active);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("outbox-".length(), name.length() - ".log".length()));
+    }
+
+    private void remove(Segment segment) {
+        segments.remove(segment);
+    }
+
+    record RecordRef(Segment segment, int position) {
+    }
+
+    record PendingRecord(RecordRef ref, ByteBuffer payload) {
+    }
+
+    static final class Segment {
+        private final OutboxLog owner;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicBoolean deleted = new AtomicBoolean();
+        private volatile boolean sealed;
+        private int writePosition;
+
+        private Segment(OutboxLog owner, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.owner = owner;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment map(OutboxLog owner, Path file, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(owner, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        int remaining() {
+            return buffer.capacity() - writePosition;
+        }
+
+        RecordRef append(byte[] payload) {
+            int position = writePosition;
+            buffer.put(position + HEADER_SIZE, payload);
+            buffer.put(position + STATE_OFFSET, PENDING);
+            buffer.putInt(position + Integer.BYTES, checksum(payload));
+            buffer.putInt(position, payload.length);
+            writePosition = position + HEADER_SIZE + payload.length;
+            pending.incrementAndGet();
+            dirty.set(true);
+            return new RecordRef(this, position);
+        }
+
+        void ack(int position) {
+            buffer.put(position + STATE_OFFSET, ACKED);
+            dirty.set(true);
+            if (pending.decrementAndGet() == 0 && sealed) {
+                delete();
+            }
+        }
+
+        void seal() {
+            sealed = true;
+            if (pending.get() == 0) {
+                delete();
+            }
+        }
+
+        List<PendingRecord> recover() {
+            List<PendingRecord> records = new ArrayList<>();
+            int position = 0;
+            while (position + HEADER_SIZE <= buffer.capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || position + HEADER_SIZE + length > buffer.capacity()) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                buffer.get(position + HEADER_SIZE, payload);
+                if (buffer.getInt(position + Integer.BYTES) != checksum(payload)) {
+                    // 전원 장애 등으로 끝부분이 찢어진 레코드: 이후는 신뢰할 수 없으므로 중단
+                    log.warn("[OutboxLog] corrupted record at {}:{}, stop replay of segment", file.getFileName(), position);
+                    break;
+                }
+                if (buffer.get(position + STATE_OFFSET) == PENDING) {
+                    pending.incrementAndGet();
+                    records.add(new PendingRecord(new RecordRef(this, position), ByteBuffer.wrap(payload)));
+                }
+                position += HEADER_SIZE + length;
+            }
+            writePosition = position;
+            return records;
+        }
+
+        void forceIfDirty() {
+            if (!deleted.get() && dirty.compareAndSet(true, false)) {
+                buffer.force();
+            }
+        }
+
+        void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                log.warn("[OutboxLog] failed to close {}", file.getFileName(), ex);
+            }
+        }
+
+        private void delete() {
+            if (!deleted.compareAndSet(false, true)) {
+                return;
+            }
+            owner.remove(this);
+            closeChannel();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("[OutboxLog] failed to delete acknowledged segment {}", file.getFileName(), ex);
+            }
+        }
+
+        private static int checksum(byte[] payload) {
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue();
+        }
+    }
+}
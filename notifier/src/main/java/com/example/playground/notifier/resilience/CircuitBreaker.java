@@ -0,0 +1,142 @@
+package com.example.playground.notifier.resilience;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 최근 N건(count 기반 sliding window)의 실패/느린 호출 비율로 provider 상태를 판단하는 서킷 브레이커.
+ * CLOSED → (실패율 초과) OPEN → (openDuration 경과) HALF_OPEN → (시험 호출 결과) CLOSED 또는 OPEN
+ * 상태 전이와 윈도우 갱신은 모두 this 모니터 안에서 일어나며, 호출 한 건당 임계 구역은 수십 ns 수준이다.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    // true = 실패(또는 느린 호출)
+    private final boolean[] window;
+    private final LongAdder notPermitted = new LongAdder();
+
+    private State state = State.CLOSED;
+    private int head;
+    private int buffered;
+    private int failures;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenResults;
+    private int halfOpenFailures;
+
+    public CircuitBreaker(ResilienceProperties properties) {
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallNanos = properties.getSlowCallThreshold() == null ? Long.MAX_VALUE : properties.getSlowCallThreshold().toNanos();
+        this.window = new boolean[Math.max(1, properties.getSlidingWindowSize())];
+        this.minimumCalls = Math.min(window.length, Math.max(1, properties.getMinimumCalls()));
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+    }
+
+    /**
+     * 호출 전에 확인한다. true를 받은 호출은 반드시 onResult 또는 release 중 하나로 끝내야 한다.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                notPermitted.increment();
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == halfOpenCalls) {
+                notPermitted.increment();
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    /**
+     * provider를 호출하지 못하고 끝난 경우 (limiter shed 등) 허가만 반납한다.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermits > halfOpenResults) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onResult(long elapsedNanos, boolean succeeded) {
+        boolean failed = !succeeded || elapsedNanos >= slowCallNanos;
+        switch (state) {
+            case CLOSED -> {
+                record(failed);
+                if (buffered >= minimumCalls && failures * 100 >= failureRateThreshold * buffered) {
+                    transitionTo(State.OPEN);
+                }
+            }
+            case HALF_OPEN -> {
+                halfOpenResults++;
+                if (failed) {
+                    halfOpenFailures++;
+                }
+                // 남은 시험 호출이 모두 성공해도 임계치를 넘는 시점에 바로 다시 OPEN
+                if (halfOpenFailures * 100 >= failureRateThreshold * halfOpenCalls) {
+                    transitionTo(State.OPEN);
+                } else if (halfOpenResults == halfOpenCalls) {
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // OPEN 전이 전에 시작된 호출의 늦은 결과는 무시
+            }
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, buffered, buffered == 0 ? 0 : failures * 100.0 / buffered, notPermitted.sum());
+    }
+
+    private void record(boolean failed) {
+        if (buffered == window.length) {
+            if (window[head]) {
+                failures--;
+            }
+        } else {
+            buffered++;
+        }
+        window[head] = failed;
+        if (failed) {
+            failures++;
+        }
+        head = (head + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        halfOpenPermits = 0;
+        halfOpenResults = 0;
+        halfOpenFailures = 0;
+        if (next == State.OPEN) {
+            openedAt = System.nanoTime();
+        } else if (next == State.CLOSED) {
+            head = 0;
+            buffered = 0;
+            failures = 0;
+        }
+    }
+
+    /**
+     * @param failureRate 현재 윈도우의 실패(느린 호출 포함) 비율 %
+     */
+    public record Snapshot(State state, int bufferedCalls, double failureRate, long notPermitted) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.playground.notifier.resilience;
+
+import com.example.playground.notifier.NotificationRejectedException;
+
+public class CircuitOpenException extends NotificationRejectedException {
+
+    public CircuitOpenException(String channel) {
+        super("Circuit breaker is open: " + channel);
+    }
+}
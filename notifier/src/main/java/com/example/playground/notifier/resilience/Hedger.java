@@ -0,0 +1,190 @@
+package com.example.playground.notifier.resilience;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+import com.example.playground.notifier.metrics.LatencyHistogram;
+
+/**
+ * 헤지 요청: 첫 시도가 관측 지연의 p95(설정값)를 넘기면 같은 요청을 한 번 더 보내고 먼저 성공한 쪽을 취한다.
+ * 기준 지연은 개별 시도의 지연만으로 계산하며 (헤지된 결과를 섞으면 기준이 점점 내려간다), 히스토그램 스캔 비용 때문에 주기적으로만 갱신한다.
+ * 두 번째 시도는 호출자가 따로 줄 수 있어, 한도(토큰·동시성 슬롯)를 확보하지 못하면 보내지 않고 첫 시도만 기다리게 할 수 있다.
+ */
+public class Hedger {
+
+    private static final long REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ResilienceProperties.Hedge properties;
+    private final Executor executor;
+    private final LatencyHistogram attempts = new LatencyHistogram();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long delayNanos = -1;
+    private volatile long refreshedAt = System.nanoTime() - REFRESH_INTERVAL_NANOS;
+
+    public Hedger(ResilienceProperties.Hedge properties, Executor executor) {
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    public void call(Runnable call) {
+        call(call, () -> {
+            call.run();
+            return true;
+        });
+    }
+
+    /**
+     * @param hedge 두 번째 시도. 보내지 못했으면(한도 초과 등) false를 돌려주고, 그때는 첫 시도 결과만 기다린다
+     */
+    public void call(Runnable call, BooleanSupplier hedge) {
+        long delay = delayNanos();
+        if (delay < 0) {
+            attempt(call);
+            return;
+        }
+        CompletableFuture<Void> primary = submit(call);
+        if (primary == null) {
+            // 헤지 실행기가 가득 차면 헤지 없이 호출 스레드에서 보낸다
+            attempt(call);
+            return;
+        }
+        try {
+            primary.get(delay, TimeUnit.NANOSECONDS);
+            return;
+        } catch (TimeoutException ex) {
+            hedged.increment();
+        } catch (ExecutionException ex) {
+            throw propagate(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for notifier", ex);
+        }
+        CompletableFuture<Void> backup = submitHedge(hedge);
+        try {
+            (backup == null ? primary : firstSuccess(primary, backup)).get();
+        } catch (ExecutionException ex) {
+            throw propagate(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for notifier", ex);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long delay = delayNanos;
+        return new Snapshot(hedged.sum(), hedgeWins.sum(), rejected.sum(), delay < 0 ? -1 : delay / 1_000.0);
+    }
+
+    /**
+     * @return 실행기가 받아 주지 않으면 null
+     */
+    private CompletableFuture<Void> submit(Runnable call) {
+        try {
+            return CompletableFuture.runAsync(() -> attempt(call), executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    /**
+     * @return 실행기가 받아 주지 않으면 null. hedge가 false면 HedgeSkippedException으로 완료된다
+     */
+    private CompletableFuture<Void> submitHedge(BooleanSupplier hedge) {
+        try {
+            return CompletableFuture.runAsync(() -> {
+                long start = System.nanoTime();
+                if (!hedge.getAsBoolean()) {
+                    rejected.increment();
+                    throw new HedgeSkippedException();
+                }
+                attempts.record(System.nanoTime() - start);
+            }, executor);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            return null;
+        }
+    }
+
+    private void attempt(Runnable call) {
+        long start = System.nanoTime();
+        call.run();
+        attempts.record(System.nanoTime() - start);
+    }
+
+    private long delayNanos() {
+        long now = System.nanoTime();
+        if (now - refreshedAt >= REFRESH_INTERVAL_NANOS) {
+            refreshedAt = now;
+            delayNanos = attempts.count() < properties.getMinSamples()
+                    ? -1
+                    : Math.max(properties.getMinDelay().toNanos(), attempts.percentileNanos(properties.getQuantile()));
+        }
+        return delayNanos;
+    }
+
+    /**
+     * 둘 중 먼저 성공한 결과로 완료, 둘 다 실패하면 나중 실패로 완료 (두 번째 시도를 보내지 않았으면 첫 시도 실패로 완료)
+     */
+    private CompletableFuture<Void> firstSuccess(CompletableFuture<Void> primary, CompletableFuture<Void> backup) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<Void> future : List.of(primary, backup)) {
+            future.whenComplete((ignored, ex) -> {
+                if (ex == null) {
+                    if (result.complete(null) && future == backup) {
+                        hedgeWins.increment();
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(skipped(ex) ? primary.handle((value, failure) -> failure).join() : ex);
+                }
+            });
+        }
+        return result;
+    }
+
+    private static boolean skipped(Throwable ex) {
+        return ex instanceof HedgeSkippedException || ex instanceof CompletionException && ex.getCause() instanceof HedgeSkippedException;
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * 두 번째 시도를 보내지 않음 (스택 없음)
+     */
+    private static final class HedgeSkippedException extends RuntimeException {
+
+        HedgeSkippedException() {
+            super("hedge skipped", null, false, false);
+        }
+    }
+
+    /**
+     * @param rejected   헤지 실행기가 가득 차거나 한도를 확보하지 못해 헤지 없이 보낸(또는 두 번째 시도를 못 보낸) 횟수
+     * @param delayMicros 현재 헤지 기준 지연, 관측 건수가 부족하면 -1
+     */
+    public record Snapshot(long hedged, long hedgeWins, long rejected, double delayMicros) {
+    }
+}
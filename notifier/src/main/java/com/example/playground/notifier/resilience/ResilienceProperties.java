@@ -0,0 +1,44 @@
+package com.example.playground.notifier.resilience;
+
+import java.time.Duration;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * notifier.resilience[n].* 한 건. type은 Notifier의 제네릭 타입(예: UmsReqDto)과 일치해야 적용된다.
+ */
+@Getter
+@Setter
+public class ResilienceProperties {
+
+    private Class<?> type;
+    /** 최근 호출 중 실패(느린 호출 포함) 비율이 이 값(%) 이상이면 OPEN */
+    private int failureRateThreshold = 50;
+    /** 이보다 오래 걸린 호출은 성공해도 실패로 집계 */
+    private Duration slowCallThreshold = Duration.ofSeconds(2);
+    /** 실패율을 계산하는 최근 호출 수 (count 기반 sliding window) */
+    private int slidingWindowSize = 50;
+    /** 윈도우에 이만큼 쌓이기 전에는 판단하지 않음 */
+    private int minimumCalls = 20;
+    /** OPEN 유지 시간, 지나면 HALF_OPEN으로 시험 호출을 허용 */
+    private Duration openDuration = Duration.ofSeconds(10);
+    /** HALF_OPEN에서 허용하는 시험 호출 수 */
+    private int halfOpenCalls = 5;
+    private Hedge hedge = new Hedge();
+
+    @Getter
+    @Setter
+    public static class Hedge {
+        /** 멱등한 provider에만 켤 것 (같은 메시지가 두 번 나갈 수 있음) */
+        private boolean enabled;
+        /** 첫 시도가 관측 지연의 이 분위수를 넘기면 두 번째 시도를 보낸다 */
+        private double quantile = 0.95;
+        /** 헤지 지연 하한 */
+        private Duration minDelay = Duration.ofMillis(20);
+        /** 관측 건수가 이보다 적으면 헤지하지 않음 */
+        private int minSamples = 100;
+        /** 헤지 실행기 스레드 상한. 모두 사용 중이면 헤지 없이 호출 스레드에서 보낸다 */
+        private int maxConcurrency = 32;
+    }
+}
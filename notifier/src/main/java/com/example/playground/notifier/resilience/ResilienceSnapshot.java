@@ -0,0 +1,8 @@
+package com.example.playground.notifier.resilience;
+
+/**
+ * @param hedge     헤지가 꺼져 있으면 null
+ * @param fallbacks 브레이커 OPEN 동안 fallback notifier로 넘긴 건수
+ */
+public record ResilienceSnapshot(CircuitBreaker.Snapshot breaker, Hedger.Snapshot hedge, long fallbacks) {
+}
@@ -0,0 +1,85 @@
+package com.example.playground.notifier.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * NDJSON 본문을 한 줄씩 읽되, maxLength 문자를 넘는 줄은 보관하지 않고 개행까지 읽어 버린다.
+ * BufferedReader.readLine은 줄 길이 제한이 없어 개행 없는 큰 본문 하나로 힙을 다 쓸 수 있다.
+ */
+final class NdjsonLineReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final int maxLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder line = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean truncated;
+
+    NdjsonLineReader(Reader reader, int maxLength) {
+        this.reader = reader;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * 다음 줄로 넘어간다. 본문이 끝났으면 false
+     */
+    boolean next() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        boolean read = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                stripCarriageReturn();
+                return read;
+            }
+            read = true;
+            char c = buffer[position++];
+            if (c == '\n') {
+                stripCarriageReturn();
+                return true;
+            }
+            if (truncated) {
+                continue;
+            }
+            // 한도에 딱 맞는 줄 뒤의 \r은 CRLF일 수 있으므로 한 글자 더 받아 둔다
+            if (line.length() > maxLength || (line.length() == maxLength && c != '\r')) {
+                truncated = true;
+                line.setLength(0);
+                continue;
+            }
+            line.append(c);
+        }
+    }
+
+    /**
+     * 현재 줄. truncated()면 빈 문자열
+     */
+    String line() {
+        return line.toString();
+    }
+
+    /**
+     * 현재 줄이 maxLength를 넘어 버려졌는지
+     */
+    boolean truncated() {
+        return truncated;
+    }
+
+    private void stripCarriageReturn() {
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int count = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.playground.notifier.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("payment.batch")
+public class PaymentBatchProperties {
+
+    /** 레코드를 동시에 처리하는 워커 수 */
+    private int parallelism = 8;
+    /** 요청 하나당 처리 중이거나 응답을 기다리는 레코드 수 상한 (업로드 크기와 무관하게 메모리를 고정) */
+    private int window = 256;
+    /** 한 줄(레코드 하나)의 최대 문자 수, 넘는 줄은 읽어 버리고 FAILED로 응답 */
+    private int maxLineLength = 64 * 1024;
+}
@@ -0,0 +1,152 @@
+package com.example.playground.notifier.service;
+
+import com.example.playground.notifier.dto.PaymentReqDto;
+import com.example.playground.notifier.dto.PaymentResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * NDJSON 결제 요청을 한 줄씩 읽어 워커에서 병렬 처리하고, 끝난 순서대로 결과 줄을 바로 내려보낸다.
+ * - 본문 전체를 버퍼링하지 않는다 (읽기/쓰기 모두 스트리밍), max-line-length를 넘는 줄은 그 줄만 실패로 응답한다
+ * - 처리 중 + 아직 쓰지 못한 결과 수를 window로 묶어, 업로드 크기와 상관없이 메모리가 일정하다
+ * - 알림은 PaymentService → NotificationOutbox → NotifierCoordinator.sendAsync로 파이프라인 처리된다
+ */
+@Slf4j
+@Service
+public class PaymentBatchService implements DisposableBean {
+
+    private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final int window;
+    private final int maxLineLength;
+    private final ExecutorService workers;
+
+    public PaymentBatchService(PaymentService paymentService, ObjectMapper objectMapper, PaymentBatchProperties properties) {
+        this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.window = properties.getWindow();
+        this.maxLineLength = properties.getMaxLineLength();
+        AtomicInteger sequence = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-batch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void process(InputStream body, OutputStream output) throws IOException {
+        NdjsonLineReader reader = new NdjsonLineReader(new InputStreamReader(body, StandardCharsets.UTF_8), maxLineLength);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        BlockingQueue<PaymentResultDto> completed = new LinkedBlockingQueue<>();
+        int inFlight = 0;
+        long lineNumber = 0;
+        try {
+            while (reader.next()) {
+                lineNumber++;
+                if (reader.truncated()) {
+                    // 너무 긴 줄은 파싱하지 않고 그 줄만 실패로 응답한 뒤 다음 줄을 계속 처리한다
+                    log.warn("payment batch line {} exceeds {} characters", lineNumber, maxLineLength);
+                    write(writer, new PaymentResultDto(lineNumber, null, PaymentResultDto.Status.FAILED,
+                            "line exceeds " + maxLineLength + " characters"));
+                    writer.flush();
+                    continue;
+                }
+                String line = reader.line();
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (inFlight == window) {
+                    // window가 찼으면 하나가 끝날 때까지 기다렸다가 써서 자리를 만든다
+                    writeNext(writer, completed);
+                    inFlight--;
+                }
+                submit(lineNumber, line, completed);
+                inFlight++;
+                inFlight -= writeCompleted(writer, completed);
+            }
+            while (inFlight > 0) {
+                writeNext(writer, completed);
+                inFlight--;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("payment batch interrupted");
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * process는 제출한 줄마다 결과 하나를 take로 기다리므로, Error가 새어 나가도 FAILED 결과는 반드시 넣는다
+     */
+    private void submit(long lineNumber, String line, BlockingQueue<PaymentResultDto> completed) {
+        workers.execute(() -> {
+            PaymentResultDto result;
+            try {
+                result = handle(lineNumber, line);
+            } catch (Throwable ex) {
+                log.error("payment batch line {} failed", lineNumber, ex);
+                completed.add(new PaymentResultDto(lineNumber, null, PaymentResultDto.Status.FAILED, String.valueOf(ex)));
+                throw ex;
+            }
+            completed.add(result);
+        });
+    }
+
+    private PaymentResultDto handle(long lineNumber, String line) {
+        String memberId = null;
+        try {
+            PaymentReqDto request = objectMapper.readValue(line, PaymentReqDto.class);
+            memberId = request.memberId();
+            paymentService.payment(request);
+            return new PaymentResultDto(lineNumber, memberId, PaymentResultDto.Status.OK, null);
+        } catch (Exception ex) {
+            log.warn("payment batch line {} failed: {}", lineNumber, ex.getMessage());
+            return new PaymentResultDto(lineNumber, memberId, PaymentResultDto.Status.FAILED, ex.getMessage());
+        }
+    }
+
+    private void writeNext(Writer writer, BlockingQueue<PaymentResultDto> completed) throws IOException, InterruptedException {
+        write(writer, completed.take());
+        writer.flush();
+    }
+
+    private int writeCompleted(Writer writer, BlockingQueue<PaymentResultDto> completed) throws IOException {
+        int written = 0;
+        PaymentResultDto result;
+        while ((result = completed.poll()) != null) {
+            write(writer, result);
+            written++;
+        }
+        if (written > 0) {
+            writer.flush();
+        }
+        return written;
+    }
+
+    private void write(Writer writer, PaymentResultDto result) throws IOException {
+        writer.write(objectMapper.writeValueAsString(result));
+        writer.write('\n');
+    }
+}
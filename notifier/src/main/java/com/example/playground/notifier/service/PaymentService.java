@@ -1,25 +1,50 @@
 package com.example.playground.notifier.service;
 
-import com.example.playground.notifier.Notifier;
+import com.example.playground.notifier.MulticastResult;
 import com.example.playground.notifier.NotifierCoordinator;
+import com.example.playground.notifier.dto.PaymentReqDto;
+import com.example.playground.notifier.dto.SMSReqDto;
 import com.example.playground.notifier.dto.UmsReqDto;
-import com.example.playground.notifier.impl.UmsNotifier;
+import com.example.playground.notifier.outbox.NotificationOutbox;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
 
+    private final NotificationOutbox notificationOutbox;
     private final NotifierCoordinator notifierCoordinator;
 
     public void payment() {
         log.info("payment method");
+        payment(new PaymentReqDto("memberId", 10_000));
+    }
+
+    public void payment(PaymentReqDto request) {
+        // Do something...
+
+        // 아웃박스에 적재 후 발송은 채널 워커에 맡기고 결제 응답은 기다리지 않는다
+        notificationOutbox.submit(UmsReqDto.template(request.memberId(), "payment-complete", request.memberId(), request.amount()))
+                .exceptionally(ex -> {
+                    log.warn("notification failed: {}", ex.getMessage());
+                    return null;
+                });
+    }
 
+    /**
+     * 결제 완료 알림을 요청 타입을 받을 수 있는 모든 채널에 동시에 보내고 채널별 결과를 돌려준다.
+     * deadline 안에 끝나지 않은 채널은 TIMED_OUT으로 보고되며 큐에 남은 발송은 취소된다.
+     */
+    public CompletableFuture<MulticastResult> paymentMulticast(PaymentReqDto request, Duration deadline) {
         // Do something...
 
-        notifierCoordinator.send(new UmsReqDto("memberId", "message"));
+        return notifierCoordinator.multicast(
+                SMSReqDto.template(request.memberId(), "payment-complete", request.memberId(), request.amount()), deadline);
     }
 }
@@ -0,0 +1,91 @@
+package com.example.playground.notifier.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * "{0}님, {1}원 결제되었습니다" 형태의 패턴을 한 번만 파싱해 둔 표현.
+ * 렌더링 시에는 리터럴 조각과 인자를 순서대로 버퍼에 이어 붙이기만 한다.
+ */
+public final class MessageTemplate {
+
+    private final String id;
+    private final String[] literals;
+    private final int[] argIndexes;
+    private final int arity;
+
+    private MessageTemplate(String id, String[] literals, int[] argIndexes) {
+        this.id = id;
+        this.literals = literals;
+        this.argIndexes = argIndexes;
+        int max = -1;
+        for (int index : argIndexes) {
+            max = Math.max(max, index);
+        }
+        this.arity = max + 1;
+    }
+
+    /**
+     * {숫자} 만 placeholder로 취급하고, 그 외의 중괄호는 그대로 리터럴로 남긴다.
+     */
+    public static MessageTemplate compile(String id, String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> argIndexes = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            int close = c == '{' ? pattern.indexOf('}', i + 1) : -1;
+            if (close > i + 1 && isDigits(pattern, i + 1, close)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                argIndexes.add(Integer.parseInt(pattern, i + 1, close, 10));
+                i = close + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(id, literals.toArray(String[]::new),
+                argIndexes.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String id() {
+        return id;
+    }
+
+    void renderTo(StringBuilder out, Object[] args) {
+        int provided = args == null ? 0 : args.length;
+        if (provided < arity) {
+            throw new IllegalArgumentException("Template " + id + " expects " + arity + " args but got " + provided);
+        }
+        for (int i = 0; i < argIndexes.length; i++) {
+            out.append(literals[i]);
+            appendArg(out, args[argIndexes[i]]);
+        }
+        out.append(literals[literals.length - 1]);
+    }
+
+    private static void appendArg(StringBuilder out, Object arg) {
+        // 자주 쓰는 타입은 String.valueOf 를 거치지 않고 바로 붙여 중간 문자열 할당을 피한다
+        if (arg instanceof CharSequence text) {
+            out.append(text);
+        } else if (arg instanceof Integer number) {
+            out.append(number.intValue());
+        } else if (arg instanceof Long number) {
+            out.append(number.longValue());
+        } else {
+            out.append(arg);
+        }
+    }
+
+    private static boolean isDigits(String pattern, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isDigit(pattern.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.playground.notifier.template;
+
+import com.example.playground.notifier.NotifierProperties;
+import com.example.playground.notifier.dto.NotificationMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * notifier.templates.* 에 등록된 템플릿을 기동 시 한 번 컴파일해 두고, 풀링된 버퍼로 렌더링한다.
+ * 워커가 가상 스레드일 수 있어 ThreadLocal 대신 공유 버퍼 풀을 쓴다.
+ */
+@Component
+public class TemplateRegistry {
+
+    private static final int POOL_SIZE = 64;
+    private static final int INITIAL_CAPACITY = 256;
+    // 큰 메시지로 늘어난 버퍼는 풀에 돌려놓지 않아 메모리를 계속 붙잡지 않게 한다
+    private static final int MAX_POOLED_CAPACITY = 8 * 1024;
+
+    private final Map<String, MessageTemplate> templates;
+    private final BlockingQueue<StringBuilder> buffers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public TemplateRegistry(NotifierProperties properties) {
+        this.templates = properties.getTemplates().entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(
+                        Map.Entry::getKey,
+                        entry -> MessageTemplate.compile(entry.getKey(), entry.getValue())));
+    }
+
+    /**
+     * 본문을 렌더링해 sink에 넘긴다. sink에 전달된 CharSequence는 호출이 끝나면 재사용되므로 밖으로 보관하면 안 된다.
+     */
+    public void render(NotificationMessage message, Consumer<CharSequence> sink) {
+        if (!message.isTemplated()) {
+            sink.accept(message.getMessage());
+            return;
+        }
+        MessageTemplate template = templates.get(message.getTemplateId());
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown message template: " + message.getTemplateId());
+        }
+        StringBuilder buffer = acquire();
+        try {
+            template.renderTo(buffer, message.getArgs());
+            sink.accept(buffer);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    private StringBuilder acquire() {
+        StringBuilder buffer = buffers.poll();
+        return buffer != null ? buffer : new StringBuilder(INITIAL_CAPACITY);
+    }
+
+    private void release(StringBuilder buffer) {
+        if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+            buffer.setLength(0);
+            buffers.offer(buffer);
+        }
+    }
+}
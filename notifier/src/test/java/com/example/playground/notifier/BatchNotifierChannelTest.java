@@ -0,0 +1,101 @@
+package com.example.playground.notifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.dto.UmsReqDto;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BatchNotifierChannelTest {
+
+    private final RecordingBatchNotifier notifier = new RecordingBatchNotifier();
+    private NotifierChannel<UmsReqDto> channel;
+    private DeliveryDispatcher dispatcher;
+
+    @AfterEach
+    void close() {
+        channel.close();
+        dispatcher.close();
+    }
+
+    @Test
+    void shouldFlushAsSoonAsBatchIsFull() throws Exception {
+        channel = newChannel(3, Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = enqueue("a", "b", "c");
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        assertThat(notifier.batches).containsExactly(List.of("a", "b", "c"));
+    }
+
+    @Test
+    void shouldFlushPartialBatchAfterMaxDelay() throws Exception {
+        channel = newChannel(100, Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = enqueue("a", "b");
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(notifier.batches).containsExactly(List.of("a", "b"));
+    }
+
+    @Test
+    void shouldFailOnlyTheBatchWhoseSendAllFailed() throws Exception {
+        channel = newChannel(2, Duration.ofSeconds(10));
+        notifier.failing = "bad";
+
+        List<CompletableFuture<Void>> failed = enqueue("bad", "b");
+        for (CompletableFuture<Void> future : failed) {
+            assertThat(catchThrowable(() -> future.get(5, TimeUnit.SECONDS))).hasCauseInstanceOf(IllegalStateException.class);
+        }
+        List<CompletableFuture<Void>> delivered = enqueue("c", "d");
+        CompletableFuture.allOf(delivered.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(notifier.batches).containsExactly(List.of("c", "d"));
+    }
+
+    private List<CompletableFuture<Void>> enqueue(String... messages) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String message : messages) {
+            futures.add(channel.enqueue(new UmsReqDto("memberId", message), null));
+        }
+        return futures;
+    }
+
+    private NotifierChannel<UmsReqDto> newChannel(int maxSize, Duration maxDelay) {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getAsync().setWorkers(1);
+        properties.getBatch().setMaxSize(maxSize);
+        properties.getBatch().setMaxDelay(maxDelay);
+        return new NotifierChannel<>(UmsReqDto.class, notifier, null, properties, dispatcher = new DeliveryDispatcher(properties));
+    }
+
+    static class RecordingBatchNotifier implements BatchNotifier<UmsReqDto> {
+        final List<List<String>> batches = new CopyOnWriteArrayList<>();
+        volatile String failing;
+
+        @Override
+        public void send(UmsReqDto request) {
+            sendAll(List.of(request));
+        }
+
+        @Override
+        public void sendAll(List<UmsReqDto> requests) {
+            List<String> messages = requests.stream().map(UmsReqDto::getMessage).toList();
+            if (messages.contains(failing)) {
+                throw new IllegalStateException("gateway rejected batch");
+            }
+            batches.add(messages);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.playground.notifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.dto.AppNotiReqDto;
+import com.example.playground.notifier.dto.SMSReqDto;
+import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.limit.ChannelLimiter;
+import com.example.playground.notifier.limit.LimitProperties;
+import com.example.playground.notifier.limit.OverLimitPolicy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DeliveryDispatcherTest {
+
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private NotifierCoordinator coordinator;
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        coordinator.destroy();
+    }
+
+    @Test
+    void shouldServeTransactionalChannelBeforeBulkChannel() throws Exception {
+        coordinator = newCoordinator(BackpressurePolicy.BLOCK);
+        blockSharedWorker();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (String message : List.of("bulk-1", "bulk-2", "bulk-3")) {
+            futures.add(coordinator.sendAsync(new AppNotiReqDto("memberId", message)));
+        }
+        futures.add(coordinator.sendAsync(new SMSReqDto("memberId", "sms")));
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // 앱 푸시와 SMS는 서로 다른 채널이지만 같은 스케줄러의 레인에서 경쟁한다
+        assertThat(delivered).containsExactly("block", "sms", "bulk-1", "bulk-2", "bulk-3");
+    }
+
+    @Test
+    void shouldServeEarliestDeadlineFirstWithinLane() throws Exception {
+        coordinator = newCoordinator(BackpressurePolicy.BLOCK);
+        blockSharedWorker();
+
+        CompletableFuture<Void> late = coordinator.sendAsync(new AppNotiReqDto("memberId", "late"), Duration.ofSeconds(30));
+        CompletableFuture<Void> early = coordinator.sendAsync(new AppNotiReqDto("memberId", "early"), Duration.ofSeconds(10));
+        release.countDown();
+        CompletableFuture.allOf(late, early).get(5, TimeUnit.SECONDS);
+
+        assertThat(delivered).containsExactly("block", "early", "late");
+    }
+
+    @Test
+    void shouldLimitQueueCapacityPerChannel() throws Exception {
+        coordinator = newCoordinator(BackpressurePolicy.FAIL_FAST);
+        blockSharedWorker();
+
+        CompletableFuture<Void> queuedPush = coordinator.sendAsync(new AppNotiReqDto("memberId", "push"));
+        Throwable rejectedPush = catchThrowable(() -> coordinator.sendAsync(new AppNotiReqDto("memberId", "push-2")));
+        CompletableFuture<Void> queuedSms = coordinator.sendAsync(new SMSReqDto("memberId", "sms"));
+        release.countDown();
+        CompletableFuture.allOf(queuedPush, queuedSms).get(5, TimeUnit.SECONDS);
+
+        // 앱 푸시 채널이 가득 차도 다른 채널의 적재는 막히지 않는다
+        assertThat(rejectedPush).isInstanceOf(NotificationRejectedException.class);
+        assertThat(delivered).containsExactly("block", "sms", "push");
+    }
+
+    @Test
+    void shouldNotHoldSharedWorkerWhileThrottledChannelWaitsForToken() throws Exception {
+        LimitProperties pushLimit = new LimitProperties();
+        pushLimit.setType(AppNotiReqDto.class);
+        pushLimit.setPermitsPerSecond(2);
+        pushLimit.setPolicy(OverLimitPolicy.DELAY);
+        pushLimit.setMaxWait(Duration.ofSeconds(2));
+        coordinator = newCoordinator(BackpressurePolicy.BLOCK, List.of(pushLimit));
+
+        List<CompletableFuture<Void>> pushes = new ArrayList<>();
+        for (String message : List.of("push-1", "push-2", "push-3")) {
+            pushes.add(coordinator.sendAsync(new AppNotiReqDto("memberId", message)));
+        }
+        pushes.get(0).get(1, TimeUnit.SECONDS);
+        long startedAt = System.nanoTime();
+        coordinator.sendAsync(new SMSReqDto("memberId", "sms")).get(1, TimeUnit.SECONDS);
+        long smsMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        CompletableFuture.allOf(pushes.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // 워커가 1개뿐이어도 토큰을 기다리는 앱 푸시(초당 2건) 뒤에서 SMS가 500ms씩 밀리지 않는다
+        assertThat(smsMillis).isLessThan(200L);
+        assertThat(delivered).containsExactly("push-1", "sms", "push-2", "push-3");
+        ChannelLimiter.Snapshot snapshot = coordinator.limiterSnapshots().get("RecordingAppNotifier");
+        assertThat(snapshot.delayed()).isEqualTo(2L);
+        assertThat(snapshot.shed()).isZero();
+    }
+
+    /**
+     * 공유 워커 1개를 UMS 발송으로 붙잡아 이후 건이 모두 스케줄러에 쌓이게 한다
+     */
+    private void blockSharedWorker() throws InterruptedException {
+        coordinator.sendAsync(new UmsReqDto("memberId", "block"));
+        assertThat(blocked.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private NotifierCoordinator newCoordinator(BackpressurePolicy backpressure) {
+        return newCoordinator(backpressure, List.of());
+    }
+
+    private NotifierCoordinator newCoordinator(BackpressurePolicy backpressure, List<LimitProperties> limits) {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getLimits().addAll(limits);
+        properties.getAsync().setWorkers(1);
+        properties.getAsync().setBackpressure(backpressure);
+        properties.getAsync().setQueueCapacity(backpressure == BackpressurePolicy.FAIL_FAST ? 1 : 16);
+        properties.getScheduling().getPriorities().add(priority(SMSReqDto.class, PriorityClass.TRANSACTIONAL));
+        properties.getScheduling().getPriorities().add(priority(AppNotiReqDto.class, PriorityClass.BULK));
+        return new NotifierCoordinator(List.of(
+                new BlockingUmsNotifier(delivered, blocked, release),
+                new RecordingSmsNotifier(delivered),
+                new RecordingAppNotifier(delivered)), properties);
+    }
+
+    private static NotifierProperties.TypePriority priority(Class<?> type, PriorityClass priority) {
+        NotifierProperties.TypePriority typePriority = new NotifierProperties.TypePriority();
+        typePriority.setType(type);
+        typePriority.setPriority(priority);
+        return typePriority;
+    }
+
+    static class BlockingUmsNotifier implements Notifier<UmsReqDto> {
+        private final List<String> delivered;
+        private final CountDownLatch blocked;
+        private final CountDownLatch release;
+
+        BlockingUmsNotifier(List<String> delivered, CountDownLatch blocked, CountDownLatch release) {
+            this.delivered = delivered;
+            this.blocked = blocked;
+            this.release = release;
+        }
+
+        @Override
+        public void send(UmsReqDto request) {
+            blocked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.add(request.getMessage());
+        }
+    }
+
+    static class RecordingSmsNotifier implements Notifier<SMSReqDto> {
+        private final List<String> delivered;
+
+        RecordingSmsNotifier(List<String> delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void send(SMSReqDto request) {
+            delivered.add(request.getMessage());
+        }
+    }
+
+    static class RecordingAppNotifier implements Notifier<AppNotiReqDto> {
+        private final List<String> delivered;
+
+        RecordingAppNotifier(List<String> delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void send(AppNotiReqDto request) {
+            delivered.add(request.getMessage());
+        }
+    }
+}
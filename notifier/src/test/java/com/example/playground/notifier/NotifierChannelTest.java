@@ -0,0 +1,217 @@
+package com.example.playground.notifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.limit.LimitProperties;
+import com.example.playground.notifier.resilience.ResilienceProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class NotifierChannelTest {
+
+    private final BlockingUmsNotifier notifier = new BlockingUmsNotifier();
+    private NotifierChannel<UmsReqDto> channel;
+    private DeliveryDispatcher dispatcher;
+
+    @AfterEach
+    void close() {
+        notifier.release.countDown();
+        if (channel != null) {
+            channel.close();
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void shouldCompleteFutureAfterAsyncDelivery() throws Exception {
+        notifier.release.countDown();
+        channel = newChannel(BackpressurePolicy.BLOCK, Duration.ofSeconds(1));
+
+        channel.enqueue(new UmsReqDto("memberId", "hello"), null).get(1, TimeUnit.SECONDS);
+
+        assertThat(notifier.received).containsExactly("hello");
+    }
+
+    @Test
+    void shouldThrowWhenQueueIsFullWithFailFast() throws Exception {
+        channel = newChannel(BackpressurePolicy.FAIL_FAST, Duration.ofSeconds(1));
+        fillQueue();
+
+        Throwable thrown = catchThrowable(() -> channel.enqueue(new UmsReqDto("memberId", "rejected"), null));
+
+        assertThat(thrown).isInstanceOf(NotificationRejectedException.class);
+    }
+
+    @Test
+    void shouldFailFutureWithoutThrowingWhenQueueIsFullWithDrop() throws Exception {
+        channel = newChannel(BackpressurePolicy.DROP, Duration.ofSeconds(1));
+        fillQueue();
+
+        CompletableFuture<Void> dropped = channel.enqueue(new UmsReqDto("memberId", "dropped"), null);
+
+        assertThat(dropped).isCompletedExceptionally();
+        assertThat(catchThrowable(dropped::join)).hasCauseInstanceOf(NotificationRejectedException.class);
+    }
+
+    @Test
+    void shouldFailFutureWithoutThrowingAfterBlockTimeout() throws Exception {
+        channel = newChannel(BackpressurePolicy.BLOCK, Duration.ofMillis(50));
+        fillQueue();
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> rejected = channel.enqueue(new UmsReqDto("memberId", "rejected"), null);
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(catchThrowable(rejected::join)).hasCauseInstanceOf(NotificationRejectedException.class);
+    }
+
+    @Test
+    void shouldAcceptWhenSlotFreesWithinBlockTimeout() throws Exception {
+        channel = newChannel(BackpressurePolicy.BLOCK, Duration.ofSeconds(5));
+        fillQueue();
+        CompletableFuture.runAsync(() -> {
+            sleep(100);
+            notifier.release.countDown();
+        });
+
+        channel.enqueue(new UmsReqDto("memberId", "third"), null).get(5, TimeUnit.SECONDS);
+
+        assertThat(notifier.received).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void shouldFailQueuedFuturesOnClose() throws Exception {
+        channel = newChannel(BackpressurePolicy.BLOCK, Duration.ofSeconds(1));
+        CompletableFuture<Void> queued = fillQueue();
+
+        channel.close();
+
+        assertThat(catchThrowable(() -> queued.get(1, TimeUnit.SECONDS))).hasCauseInstanceOf(NotificationRejectedException.class);
+        CompletableFuture<Void> afterClose = channel.enqueue(new UmsReqDto("memberId", "late"), null);
+        assertThat(afterClose).isCompletedExceptionally();
+    }
+
+    @Test
+    void shouldTakeLimiterPermitForHedgedAttempt() throws Exception {
+        SlowFirstUmsNotifier slow = new SlowFirstUmsNotifier();
+        channel = newHedgingChannel(slow, 2);
+
+        channel.send(new UmsReqDto("memberId", "hedged"));
+
+        // 첫 시도가 느려 두 번째 시도가 먼저 끝났고, 두 시도 모두 limiter를 거쳤다
+        assertThat(slow.received).containsExactly("hedged");
+        assertThat(channel.limiter().snapshot().admitted()).isEqualTo(2L);
+        assertThat(channel.resilienceSnapshot().hedge().hedged()).isEqualTo(1L);
+        slow.release.countDown();
+    }
+
+    @Test
+    void shouldSkipHedgeWhenNoLimiterPermitIsLeft() throws Exception {
+        SlowFirstUmsNotifier slow = new SlowFirstUmsNotifier();
+        channel = newHedgingChannel(slow, 1);
+        CompletableFuture.runAsync(() -> {
+            sleep(100);
+            slow.release.countDown();
+        });
+
+        channel.send(new UmsReqDto("memberId", "primary"));
+
+        // 첫 시도가 동시성 슬롯 하나를 쥐고 있어 두 번째 시도는 보내지 않았다
+        assertThat(slow.received).containsExactly("primary");
+        assertThat(channel.limiter().snapshot().admitted()).isEqualTo(1L);
+        assertThat(channel.resilienceSnapshot().hedge().rejected()).isEqualTo(1L);
+    }
+
+    /**
+     * 워커 1개가 첫 건을 붙잡고 있는 동안 용량 1의 큐를 두 번째 건으로 채운다
+     *
+     * @return 큐에 남은 두 번째 건의 future
+     */
+    private CompletableFuture<Void> fillQueue() throws InterruptedException {
+        channel.enqueue(new UmsReqDto("memberId", "first"), null);
+        assertThat(notifier.started.await(1, TimeUnit.SECONDS)).isTrue();
+        return channel.enqueue(new UmsReqDto("memberId", "second"), null);
+    }
+
+    private NotifierChannel<UmsReqDto> newChannel(BackpressurePolicy backpressure, Duration blockTimeout) {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getAsync().setQueueCapacity(1);
+        properties.getAsync().setWorkers(1);
+        properties.getAsync().setBackpressure(backpressure);
+        properties.getAsync().setBlockTimeout(blockTimeout);
+        return new NotifierChannel<>(UmsReqDto.class, notifier, null, properties, dispatcher = new DeliveryDispatcher(properties));
+    }
+
+    private NotifierChannel<UmsReqDto> newHedgingChannel(Notifier<UmsReqDto> hedged, int maxConcurrent) {
+        NotifierProperties properties = new NotifierProperties();
+        LimitProperties limit = new LimitProperties();
+        limit.setType(UmsReqDto.class);
+        limit.setMaxConcurrent(maxConcurrent);
+        properties.getLimits().add(limit);
+        ResilienceProperties resilience = new ResilienceProperties();
+        resilience.setType(UmsReqDto.class);
+        resilience.getHedge().setEnabled(true);
+        resilience.getHedge().setMinSamples(0);
+        resilience.getHedge().setMinDelay(Duration.ofMillis(20));
+        properties.getResilience().add(resilience);
+        return new NotifierChannel<>(UmsReqDto.class, hedged, null, properties, dispatcher = new DeliveryDispatcher(properties));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 첫 호출만 release까지 붙잡고, 이후 호출은 바로 끝난다
+     */
+    static class SlowFirstUmsNotifier implements Notifier<UmsReqDto> {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void send(UmsReqDto request) {
+            if (calls.getAndIncrement() == 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted");
+                }
+            }
+            received.add(request.getMessage());
+        }
+    }
+
+    static class BlockingUmsNotifier implements Notifier<UmsReqDto> {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(UmsReqDto request) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted");
+            }
+            received.add(request.getMessage());
+        }
+    }
+}
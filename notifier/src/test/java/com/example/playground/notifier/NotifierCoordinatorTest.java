@@ -0,0 +1,226 @@
+package com.example.playground.notifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.dto.SMSReqDto;
+import com.example.playground.notifier.dto.UmsReqDto;
+import com.example.playground.notifier.resilience.CircuitBreaker;
+import com.example.playground.notifier.resilience.ResilienceProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class NotifierCoordinatorTest {
+
+    @Test
+    void shouldPickMostSpecificNotifierRegardlessOfRegistrationOrder() {
+        RecordingUmsNotifier umsNotifier = new RecordingUmsNotifier();
+        RecordingSmsNotifier smsNotifier = new RecordingSmsNotifier();
+
+        for (List<Notifier<?>> notifiers : List.of(
+                List.<Notifier<?>>of(umsNotifier, smsNotifier),
+                List.<Notifier<?>>of(smsNotifier, umsNotifier))) {
+            umsNotifier.received.clear();
+            smsNotifier.received.clear();
+            NotifierCoordinator coordinator = new NotifierCoordinator(notifiers, new NotifierProperties());
+
+            coordinator.send(new SMSReqDto("memberId", "sms"));
+            coordinator.send(new UmsReqDto("memberId", "ums"));
+
+            assertThat(smsNotifier.received).containsExactly("sms");
+            assertThat(umsNotifier.received).containsExactly("ums");
+        }
+    }
+
+    @Test
+    void shouldRejectRequestWithoutNotifierEveryTime() {
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(new RecordingUmsNotifier()), new NotifierProperties());
+
+        Throwable first = catchThrowable(() -> coordinator.send("plain string"));
+        Throwable second = catchThrowable(() -> coordinator.send("plain string"));
+
+        assertThat(first).isInstanceOf(IllegalArgumentException.class);
+        assertThat(second).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shouldRouteToFallbackWhileCircuitIsOpen() {
+        ResilienceProperties resilience = new ResilienceProperties();
+        resilience.setType(UmsReqDto.class);
+        resilience.setSlidingWindowSize(4);
+        resilience.setMinimumCalls(4);
+        resilience.setOpenDuration(Duration.ofMinutes(1));
+        NotifierProperties properties = new NotifierProperties();
+        properties.getResilience().add(resilience);
+        RecordingFallbackNotifier fallback = new RecordingFallbackNotifier();
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(new FailingUmsNotifier(), fallback), properties);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(catchThrowable(() -> coordinator.send(new UmsReqDto("memberId", "failing"))))
+                    .isInstanceOf(IllegalStateException.class);
+        }
+        coordinator.send(new UmsReqDto("memberId", "fallback"));
+
+        assertThat(fallback.received).containsExactly("fallback");
+        assertThat(coordinator.resilienceSnapshots().get("FailingUmsNotifier").breaker().state())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void shouldSuppressDuplicateOnlyAfterSuccessfulSend() {
+        FlakyUmsNotifier notifier = new FlakyUmsNotifier(1);
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(notifier), dedupProperties());
+
+        Throwable failed = catchThrowable(() -> coordinator.send(new UmsReqDto("memberId", "retry")));
+        coordinator.send(new UmsReqDto("memberId", "retry"));
+        coordinator.send(new UmsReqDto("memberId", "retry"));
+
+        assertThat(failed).isInstanceOf(IllegalStateException.class);
+        assertThat(notifier.received).containsExactly("retry");
+        assertThat(coordinator.dedupSnapshot().hits()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldAllowAsyncRetryFromFailureCallback() throws Exception {
+        FlakyUmsNotifier notifier = new FlakyUmsNotifier(1);
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(notifier), dedupProperties());
+
+        coordinator.sendAsync(new UmsReqDto("memberId", "retry"))
+                .exceptionallyCompose(ex -> coordinator.sendAsync(new UmsReqDto("memberId", "retry")))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(notifier.received).containsExactly("retry");
+        coordinator.destroy();
+    }
+
+    @Test
+    void shouldMulticastToEveryMatchingChannel() throws Exception {
+        RecordingUmsNotifier umsNotifier = new RecordingUmsNotifier();
+        RecordingSmsNotifier smsNotifier = new RecordingSmsNotifier();
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(umsNotifier, smsNotifier), new NotifierProperties());
+
+        MulticastResult result = coordinator.multicast(new SMSReqDto("memberId", "all"), Duration.ofSeconds(5)).get(5, TimeUnit.SECONDS);
+
+        assertThat(result.allDelivered()).isTrue();
+        assertThat(statuses(result)).containsEntry("RecordingUmsNotifier", MulticastResult.Status.DELIVERED)
+                .containsEntry("RecordingSmsNotifier", MulticastResult.Status.DELIVERED);
+        assertThat(umsNotifier.received).containsExactly("all");
+        assertThat(smsNotifier.received).containsExactly("all");
+        coordinator.destroy();
+    }
+
+    @Test
+    void shouldCancelQueuedSendOfTimedOutChannel() throws Exception {
+        NotifierProperties properties = dedupProperties();
+        properties.getAsync().setWorkers(1);
+        BlockingSmsNotifier smsNotifier = new BlockingSmsNotifier();
+        RecordingUmsNotifier umsNotifier = new RecordingUmsNotifier();
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(smsNotifier, umsNotifier), properties);
+        CompletableFuture<Void> blocking = coordinator.sendAsync(new SMSReqDto("memberId", "block"));
+        assertThat(smsNotifier.entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        MulticastResult first = coordinator.multicast(new SMSReqDto("memberId", "queued"), Duration.ofMillis(100)).get(1, TimeUnit.SECONDS);
+        MulticastResult second = coordinator.multicast(new SMSReqDto("memberId", "queued"), Duration.ofMillis(100)).get(1, TimeUnit.SECONDS);
+        smsNotifier.release.countDown();
+        blocking.get(1, TimeUnit.SECONDS);
+        coordinator.sendAsync(new SMSReqDto("memberId", "after")).get(1, TimeUnit.SECONDS);
+
+        // 공유 워커 하나가 막혀 있으므로 두 채널 모두 시간 안에 시작하지 못한다
+        assertThat(statuses(first)).containsEntry("BlockingSmsNotifier", MulticastResult.Status.TIMED_OUT)
+                .containsEntry("RecordingUmsNotifier", MulticastResult.Status.TIMED_OUT);
+        // 취소된 건은 중복 억제 키도 지워져 SUPPRESSED 되지 않고 다시 시도된다
+        assertThat(statuses(second)).containsEntry("BlockingSmsNotifier", MulticastResult.Status.TIMED_OUT)
+                .containsEntry("RecordingUmsNotifier", MulticastResult.Status.TIMED_OUT);
+        assertThat(smsNotifier.received).containsExactly("block", "after");
+        assertThat(umsNotifier.received).isEmpty();
+        coordinator.destroy();
+    }
+
+    private static Map<String, MulticastResult.Status> statuses(MulticastResult result) {
+        Map<String, MulticastResult.Status> statuses = new HashMap<>();
+        result.outcomes().forEach(outcome -> statuses.put(outcome.channel(), outcome.status()));
+        return statuses;
+    }
+
+    private static NotifierProperties dedupProperties() {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getDedup().setEnabled(true);
+        properties.getDedup().setMaxEntries(1024);
+        return properties;
+    }
+
+    static class RecordingUmsNotifier implements Notifier<UmsReqDto> {
+        final List<String> received = new ArrayList<>();
+
+        @Override
+        public void send(UmsReqDto request) {
+            received.add(request.getMessage());
+        }
+    }
+
+    static class RecordingSmsNotifier implements Notifier<SMSReqDto> {
+        final List<String> received = new ArrayList<>();
+
+        @Override
+        public void send(SMSReqDto request) {
+            received.add(request.getMessage());
+        }
+    }
+
+    static class FailingUmsNotifier implements Notifier<UmsReqDto> {
+
+        @Override
+        public void send(UmsReqDto request) {
+            throw new IllegalStateException("provider down");
+        }
+    }
+
+    static class FlakyUmsNotifier implements Notifier<UmsReqDto> {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures;
+
+        FlakyUmsNotifier(int failures) {
+            this.failures = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void send(UmsReqDto request) {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("provider down");
+            }
+            received.add(request.getMessage());
+        }
+    }
+
+    static class BlockingSmsNotifier implements Notifier<SMSReqDto> {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SMSReqDto request) {
+            if ("block".equals(request.getMessage())) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(request.getMessage());
+        }
+    }
+
+    @FallbackNotifier
+    static class RecordingFallbackNotifier extends RecordingUmsNotifier {
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.playground.notifier.limit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.NotificationRejectedException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ChannelLimiterTest {
+
+    @Test
+    void shouldNotSpendTokenWhenBulkheadSheds() throws Exception {
+        ChannelLimiter limiter = ChannelLimiter.of(limit(0.1, 2, 1));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> limiter.execute(1, () -> {
+            entered.countDown();
+            await(release);
+        }));
+        assertThat(entered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        Throwable shedByBulkhead = catchThrowable(() -> limiter.execute(1, () -> { }));
+        release.countDown();
+        holder.get(1, TimeUnit.SECONDS);
+
+        assertThat(shedByBulkhead).isInstanceOf(NotificationRejectedException.class).hasMessage("too many concurrent sends");
+        // 버스트 두 번째 토큰이 남아 있어야 한다
+        limiter.execute(1, () -> { });
+        assertThat(limiter.snapshot().admitted()).isEqualTo(2L);
+        assertThat(limiter.snapshot().shed()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldReleaseBulkheadWhenRateLimitSheds() {
+        ChannelLimiter limiter = ChannelLimiter.of(limit(0.1, 1, 1));
+        limiter.execute(1, () -> { });
+
+        Throwable shedByRate = catchThrowable(() -> limiter.execute(1, () -> { }));
+
+        assertThat(shedByRate).isInstanceOf(NotificationRejectedException.class).hasMessage("rate limit exceeded");
+        assertThat(limiter.snapshot().availableConcurrency()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseBulkheadWhenCallFails() {
+        ChannelLimiter limiter = ChannelLimiter.of(limit(0, 1, 1));
+
+        Throwable thrown = catchThrowable(() -> limiter.execute(1, () -> {
+            throw new IllegalStateException("provider down");
+        }));
+
+        assertThat(thrown).isInstanceOf(IllegalStateException.class);
+        assertThat(limiter.snapshot().availableConcurrency()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDelayInsteadOfShedWithinMaxWait() {
+        LimitProperties properties = limit(20, 1, 0);
+        properties.setPolicy(OverLimitPolicy.DELAY);
+        properties.setMaxWait(Duration.ofMillis(200));
+        ChannelLimiter limiter = ChannelLimiter.of(properties);
+        limiter.execute(1, () -> { });
+
+        long startedAt = System.nanoTime();
+        limiter.execute(1, () -> { });
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isGreaterThanOrEqualTo(30L);
+        assertThat(limiter.snapshot().delayed()).isEqualTo(1L);
+        assertThat(limiter.snapshot().shed()).isZero();
+    }
+
+    @Test
+    void shouldRunOnlyWhenPermitIsAvailableNowWithoutShedding() {
+        LimitProperties properties = limit(1, 1, 0);
+        properties.setPolicy(OverLimitPolicy.DELAY);
+        properties.setMaxWait(Duration.ofSeconds(5));
+        ChannelLimiter limiter = ChannelLimiter.of(properties);
+
+        assertThat(limiter.tryExecute(1, () -> { })).isTrue();
+        long startedAt = System.nanoTime();
+        boolean second = limiter.tryExecute(1, () -> { });
+
+        // DELAY 정책이어도 기다리지 않는다
+        assertThat(second).isFalse();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(100L);
+        assertThat(limiter.snapshot().admitted()).isEqualTo(1L);
+        assertThat(limiter.snapshot().shed()).isZero();
+    }
+
+    @Test
+    void shouldReturnDelayInsteadOfParkingAndShedPastMaxWait() {
+        LimitProperties properties = limit(10, 1, 0);
+        properties.setPolicy(OverLimitPolicy.DELAY);
+        properties.setMaxWait(Duration.ofMillis(150));
+        ChannelLimiter limiter = ChannelLimiter.of(properties);
+        AtomicInteger calls = new AtomicInteger();
+        assertThat(limiter.executeOrDelay(1, 0, calls::incrementAndGet)).isZero();
+
+        long firstDelay = limiter.executeOrDelay(1, 0, calls::incrementAndGet);
+        long secondDelay = limiter.executeOrDelay(1, TimeUnit.MILLISECONDS.toNanos(10), calls::incrementAndGet);
+        Throwable pastMaxWait = catchThrowable(() -> limiter.executeOrDelay(1, TimeUnit.MILLISECONDS.toNanos(140), calls::incrementAndGet));
+
+        // 다음 토큰(100ms 뒤)까지의 시간을 돌려주고 call은 실행하지 않는다. 같은 건을 다시 미뤄도 delayed는 한 번만 센다
+        assertThat(TimeUnit.NANOSECONDS.toMillis(firstDelay)).isBetween(50L, 100L);
+        assertThat(secondDelay).isPositive();
+        assertThat(pastMaxWait).isInstanceOf(NotificationRejectedException.class).hasMessage("rate limit exceeded");
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(limiter.snapshot().delayed()).isEqualTo(1L);
+        assertThat(limiter.snapshot().shed()).isEqualTo(1L);
+    }
+
+    private static LimitProperties limit(double permitsPerSecond, int burst, int maxConcurrent) {
+        LimitProperties properties = new LimitProperties();
+        properties.setPermitsPerSecond(permitsPerSecond);
+        properties.setBurst(burst);
+        properties.setMaxConcurrent(maxConcurrent);
+        properties.setPolicy(OverLimitPolicy.SHED);
+        return properties;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.playground.notifier.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ChannelMetricsTest {
+
+    @Test
+    void shouldCountMessagesButRecordOneSamplePerCall() {
+        ChannelMetrics metrics = new ChannelMetrics();
+
+        metrics.complete(metrics.start(), 10, true);
+        metrics.complete(metrics.start(), 1, false);
+        long pending = metrics.start();
+        metrics.expired();
+
+        ChannelMetrics.Snapshot snapshot = metrics.snapshot(3);
+        assertThat(snapshot.success()).isEqualTo(10L);
+        assertThat(snapshot.failure()).isEqualTo(1L);
+        assertThat(snapshot.expired()).isEqualTo(1L);
+        assertThat(snapshot.inFlight()).isEqualTo(1L);
+        assertThat(snapshot.queueDepth()).isEqualTo(3);
+        assertThat(snapshot.latency().count()).isEqualTo(2L);
+
+        metrics.complete(pending, 1, true);
+        assertThat(metrics.snapshot(0).inFlight()).isZero();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.playground.notifier.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldKeepRelativeErrorWithinOneBucket() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 7) {
+            long reported = LatencyHistogram.valueOf(LatencyHistogram.indexOf(value));
+
+            assertThat(Math.abs(reported - value) / (double) value).isLessThanOrEqualTo(1.0 / 64);
+        }
+    }
+
+    @Test
+    void shouldReportExactValuesBelowSubBucketCount() {
+        for (long value = 0; value < 64; value++) {
+            assertThat(LatencyHistogram.valueOf(LatencyHistogram.indexOf(value))).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void shouldReportPercentilesAndMaxInMicros() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(1000L);
+        assertThat(snapshot.p50()).isBetween(490.0, 510.0);
+        assertThat(snapshot.p99()).isBetween(980.0, 1000.0);
+        assertThat(snapshot.max()).isEqualTo(1000.0);
+        assertThat(histogram.count()).isEqualTo(1000L);
+        assertThat(histogram.percentileNanos(0.9)).isBetween(TimeUnit.MICROSECONDS.toNanos(890), TimeUnit.MICROSECONDS.toNanos(910));
+    }
+
+    @Test
+    void shouldReportZeroWhenEmptyAndClampNegativeSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.snapshot().p99()).isEqualTo(0.0);
+
+        histogram.record(-5);
+
+        assertThat(histogram.count()).isEqualTo(1L);
+        assertThat(histogram.percentileNanos(0.5)).isEqualTo(0L);
+    }
+
+    @Test
+    void shouldNotLoseConcurrentSamples() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(histogram.count()).isEqualTo(200_000L);
+        assertThat(histogram.snapshot().max()).isEqualTo(49_999 / 1000.0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.playground.notifier.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.playground.notifier.dto.AppNotiReqDto;
+import com.example.playground.notifier.dto.NotificationMessage;
+import com.example.playground.notifier.dto.SMSReqDto;
+import com.example.playground.notifier.dto.UmsReqDto;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NotificationCodecTest {
+
+    @Test
+    void shouldRoundTripPlainMessagesOfEveryType() {
+        for (NotificationMessage request : List.<NotificationMessage>of(
+                new UmsReqDto("member-1", "ums 본문"),
+                new SMSReqDto("member-2", "sms"),
+                new AppNotiReqDto("member-3", null))) {
+            NotificationMessage decoded = roundTrip(request);
+
+            assertThat(decoded.getClass()).isEqualTo(request.getClass());
+            assertThat(decoded.getMemberId()).isEqualTo(request.getMemberId());
+            assertThat(decoded.getMessage()).isEqualTo(request.getMessage());
+            assertThat(decoded.isTemplated()).isFalse();
+        }
+    }
+
+    @Test
+    void shouldRoundTripTemplatedMessageWithArgumentsAsStrings() {
+        NotificationMessage decoded = roundTrip(SMSReqDto.template("member-1", "payment-complete", "member-1", 10_000, null));
+
+        assertThat(decoded).isInstanceOf(SMSReqDto.class);
+        assertThat(decoded.getTemplateId()).isEqualTo("payment-complete");
+        assertThat(List.of(decoded.getArgs()[0], decoded.getArgs()[1])).containsExactly("member-1", "10000");
+        assertThat(decoded.getArgs()[2]).isNull();
+    }
+
+    @Test
+    void shouldPrefixRecordWithFormatVersion() {
+        byte[] encoded = NotificationCodec.encode(new UmsReqDto("member-1", "ums"));
+
+        assertThat(encoded[0]).isEqualTo((byte) 0x82);
+    }
+
+    @Test
+    void shouldDecodeRecordWrittenBeforeTemplates() {
+        // [tag][memberId][message]
+        ByteBuffer legacy = unversioned((byte) 2, "member-1", "sms");
+
+        NotificationMessage decoded = (NotificationMessage) NotificationCodec.decode(legacy.flip());
+
+        assertThat(decoded).isInstanceOf(SMSReqDto.class);
+        assertThat(decoded.getMemberId()).isEqualTo("member-1");
+        assertThat(decoded.getMessage()).isEqualTo("sms");
+        assertThat(decoded.isTemplated()).isFalse();
+    }
+
+    @Test
+    void shouldDecodeUnversionedTemplatedRecord() {
+        // [tag][memberId][message][templateId][argc][args]
+        ByteBuffer unversioned = unversioned((byte) 3, "member-1", null, "payment-complete");
+        unversioned.putInt(1);
+        putString(unversioned, "10000");
+
+        NotificationMessage decoded = (NotificationMessage) NotificationCodec.decode(unversioned.flip());
+
+        assertThat(decoded).isInstanceOf(AppNotiReqDto.class);
+        assertThat(decoded.getTemplateId()).isEqualTo("payment-complete");
+        assertThat(decoded.getArgs()[0]).isEqualTo("10000");
+    }
+
+    private static ByteBuffer unversioned(byte tag, String... fields) {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        buffer.put(tag);
+        for (String field : fields) {
+            putString(buffer, field);
+        }
+        return buffer;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static NotificationMessage roundTrip(NotificationMessage request) {
+        return (NotificationMessage) NotificationCodec.decode(ByteBuffer.wrap(NotificationCodec.encode(request)));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.playground.notifier.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.Notifier;
+import com.example.playground.notifier.NotifierCoordinator;
+import com.example.playground.notifier.NotifierProperties;
+import com.example.playground.notifier.dto.AppNotiReqDto;
+import com.example.playground.notifier.dto.UmsReqDto;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class NotificationOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRetryFailedDeliveryWithoutRestart() throws Exception {
+        FlakyUmsNotifier notifier = new FlakyUmsNotifier(2);
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(notifier), properties());
+        NotificationOutbox outbox = new NotificationOutbox(coordinator, properties());
+
+        Throwable firstAttempt = catchThrowable(() -> outbox.submit(new UmsReqDto("memberId", "hello")).get(1, TimeUnit.SECONDS));
+
+        assertThat(firstAttempt).hasCauseInstanceOf(IllegalStateException.class);
+        awaitDelivered(notifier, 1);
+        assertThat(notifier.attempts.get()).isEqualTo(3);
+        outbox.destroy();
+        coordinator.destroy();
+        assertThat(pendingAfterRestart()).isEmpty();
+    }
+
+    @Test
+    void shouldReplayUnacknowledgedRecordsOnNextStartup() throws Exception {
+        NotifierCoordinator downCoordinator = new NotifierCoordinator(List.of(new FlakyUmsNotifier(Integer.MAX_VALUE)), properties());
+        NotificationOutbox downOutbox = new NotificationOutbox(downCoordinator, properties());
+        catchThrowable(() -> downOutbox.submit(new UmsReqDto("memberId", "kept")).get(1, TimeUnit.SECONDS));
+        downOutbox.destroy();
+        downCoordinator.destroy();
+
+        FlakyUmsNotifier notifier = new FlakyUmsNotifier(0);
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(notifier), properties());
+        NotificationOutbox outbox = new NotificationOutbox(coordinator, properties());
+        outbox.replay();
+
+        awaitDelivered(notifier, 1);
+        assertThat(notifier.delivered).containsExactly("kept");
+        outbox.destroy();
+        coordinator.destroy();
+    }
+
+    @Test
+    void shouldAckRequestWithoutSuitableNotifierInsteadOfRetrying() throws Exception {
+        FlakyUmsNotifier notifier = new FlakyUmsNotifier(0);
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(notifier), properties());
+        NotificationOutbox outbox = new NotificationOutbox(coordinator, properties());
+
+        Throwable thrown = catchThrowable(() -> outbox.submit(new AppNotiReqDto("memberId", "no channel")).get(1, TimeUnit.SECONDS));
+        // 재시도가 예약됐다면 retry-delay 안에 다시 실패했을 것이다
+        Thread.sleep(100);
+
+        assertThat(thrown).hasRootCauseInstanceOf(IllegalArgumentException.class);
+        outbox.destroy();
+        coordinator.destroy();
+        assertThat(pendingAfterRestart()).isEmpty();
+    }
+
+    @Test
+    void shouldStopRetryingAfterMaxAttempts() throws Exception {
+        FlakyUmsNotifier notifier = new FlakyUmsNotifier(Integer.MAX_VALUE);
+        NotifierProperties properties = properties();
+        properties.getOutbox().setMaxAttempts(3);
+        NotifierCoordinator coordinator = new NotifierCoordinator(List.of(notifier), properties);
+        NotificationOutbox outbox = new NotificationOutbox(coordinator, properties);
+
+        catchThrowable(() -> outbox.submit(new UmsReqDto("memberId", "always failing")).get(1, TimeUnit.SECONDS));
+        // 20ms, 40ms 뒤 두 번 더 시도하고 멈춘다
+        Thread.sleep(300);
+
+        assertThat(notifier.attempts.get()).isEqualTo(3);
+        outbox.destroy();
+        coordinator.destroy();
+        assertThat(pendingAfterRestart()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectSegmentSizeThatCannotBeMapped() {
+        Throwable thrown = catchThrowable(() -> NotificationOutbox.segmentBytes(DataSize.ofGigabytes(3)));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        assertThat(NotificationOutbox.segmentBytes(DataSize.ofMegabytes(16))).isEqualTo(16 * 1024 * 1024);
+    }
+
+    private NotifierProperties properties() {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getOutbox().setEnabled(true);
+        properties.getOutbox().setDirectory(directory);
+        properties.getOutbox().setSegmentSize(DataSize.ofKilobytes(64));
+        properties.getOutbox().setRetryDelay(Duration.ofMillis(20));
+        return properties;
+    }
+
+    private List<OutboxLog.PendingRecord> pendingAfterRestart() throws Exception {
+        OutboxLog log = new OutboxLog(directory, 64 * 1024);
+        List<OutboxLog.PendingRecord> pending = log.open();
+        log.close();
+        return pending;
+    }
+
+    private static void awaitDelivered(FlakyUmsNotifier notifier, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (notifier.delivered.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(notifier.delivered).hasSize(count);
+        // 발송 future 완료 직후 ack가 기록될 시간을 준다
+        Thread.sleep(50);
+    }
+
+    static class FlakyUmsNotifier implements Notifier<UmsReqDto> {
+        final AtomicInteger attempts = new AtomicInteger();
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        private final int failures;
+
+        FlakyUmsNotifier(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public void send(UmsReqDto request) {
+            if (attempts.incrementAndGet() <= failures) {
+                throw new IllegalStateException("provider down");
+            }
+            delivered.add(request.getMessage());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.playground.notifier.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OutboxLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReplayOnlyUnacknowledgedRecordsAfterCrash() throws Exception {
+        OutboxLog crashed = new OutboxLog(directory, 4096);
+        crashed.open();
+        crashed.append(bytes("a"));
+        OutboxLog.RecordRef acked = crashed.append(bytes("b"));
+        crashed.append(bytes("c"));
+        crashed.ack(acked);
+        crashed.flush();
+
+        // close() 없이 새 인스턴스로 다시 연다 (프로세스 종료 흉내)
+        OutboxLog restarted = new OutboxLog(directory, 4096);
+        List<OutboxLog.PendingRecord> pending = restarted.open();
+
+        assertThat(pending.stream().map(record -> string(record.payload())).toList()).containsExactly("a", "c");
+        restarted.close();
+        crashed.close();
+    }
+
+    @Test
+    void shouldStopRecoveryAtTornRecord() throws Exception {
+        OutboxLog log = new OutboxLog(directory, 4096);
+        log.open();
+        log.append(bytes("intact"));
+        OutboxLog.RecordRef torn = log.append(bytes("torn"));
+        log.append(bytes("after"));
+        log.close();
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            // 두 번째 레코드 본문만 덮어써 CRC가 맞지 않게 만든다
+            channel.write(ByteBuffer.wrap(bytes("XXXX")), torn.position() + 9);
+        }
+
+        OutboxLog restarted = new OutboxLog(directory, 4096);
+        List<OutboxLog.PendingRecord> pending = restarted.open();
+
+        assertThat(pending.stream().map(record -> string(record.payload())).toList()).containsExactly("intact");
+        restarted.close();
+    }
+
+    @Test
+    void shouldDeleteSealedSegmentOnceEveryRecordIsAcknowledged() throws Exception {
+        // 레코드(9 + 1바이트) 두 개면 차는 세그먼트
+        OutboxLog log = new OutboxLog(directory, 20);
+        log.open();
+        OutboxLog.RecordRef first = log.append(bytes("1"));
+        OutboxLog.RecordRef second = log.append(bytes("2"));
+        log.append(bytes("3"));
+        assertThat(segmentFiles()).hasSize(2);
+
+        log.ack(first);
+        log.ack(second);
+
+        assertThat(segmentFiles()).hasSize(1);
+        log.close();
+    }
+
+    @Test
+    void shouldRejectRecordLargerThanSegment() throws Exception {
+        OutboxLog log = new OutboxLog(directory, 16);
+        log.open();
+
+        Throwable thrown = catchThrowable(() -> log.append(new byte[16]));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class);
+        log.close();
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer payload) {
+        return StandardCharsets.UTF_8.decode(payload).toString();
+    }
+}
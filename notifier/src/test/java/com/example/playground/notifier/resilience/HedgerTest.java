@@ -0,0 +1,79 @@
+package com.example.playground.notifier.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class HedgerTest {
+
+    @Test
+    void shouldRunInlineWhenExecutorIsFull() {
+        Hedger hedger = new Hedger(hedge(), new CountingExecutor(0));
+        List<Thread> threads = new ArrayList<>();
+
+        hedger.call(() -> threads.add(Thread.currentThread()));
+
+        assertThat(threads).containsExactly(Thread.currentThread());
+        assertThat(hedger.snapshot().rejected()).isEqualTo(1L);
+        assertThat(hedger.snapshot().hedged()).isZero();
+    }
+
+    @Test
+    void shouldWaitForPrimaryWhenBackupIsRejected() {
+        Hedger hedger = new Hedger(hedge(), new CountingExecutor(1));
+        AtomicInteger calls = new AtomicInteger();
+
+        hedger.call(() -> {
+            calls.incrementAndGet();
+            sleep(100);
+        });
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(hedger.snapshot().hedged()).isEqualTo(1L);
+        assertThat(hedger.snapshot().rejected()).isEqualTo(1L);
+        assertThat(hedger.snapshot().hedgeWins()).isZero();
+    }
+
+    private static ResilienceProperties.Hedge hedge() {
+        ResilienceProperties.Hedge hedge = new ResilienceProperties.Hedge();
+        hedge.setEnabled(true);
+        hedge.setMinSamples(0);
+        hedge.setMinDelay(Duration.ofMillis(10));
+        return hedge;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 처음 capacity건만 받고 이후는 거절하는 실행기
+     */
+    static class CountingExecutor implements Executor {
+
+        private final AtomicInteger remaining;
+
+        CountingExecutor(int capacity) {
+            this.remaining = new AtomicInteger(capacity);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (remaining.getAndDecrement() <= 0) {
+                throw new RejectedExecutionException("full");
+            }
+            CompletableFuture.runAsync(command);
+        }
+    }
+}
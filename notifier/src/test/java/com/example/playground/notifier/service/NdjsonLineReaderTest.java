@@ -0,0 +1,43 @@
+package com.example.playground.notifier.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NdjsonLineReaderTest {
+
+    @Test
+    void shouldSplitLinesAndStripCarriageReturn() throws IOException {
+        assertThat(readAll("a\r\nbb\n\nccc", 8)).containsExactly("a", "bb", "", "ccc");
+    }
+
+    @Test
+    void shouldSkipOverlongLineAndContinueWithNext() throws IOException {
+        String overlong = "x".repeat(20_000);
+
+        assertThat(readAll("ok\n" + overlong + "\nnext\n", 16)).containsExactly("ok", "<truncated>", "next");
+    }
+
+    @Test
+    void shouldAcceptLineOfExactlyMaxLengthWithCrlf() throws IOException {
+        assertThat(readAll("1234\r\n12345\r\n", 4)).containsExactly("1234", "<truncated>");
+    }
+
+    @Test
+    void shouldReportOverlongLastLineWithoutNewline() throws IOException {
+        assertThat(readAll("ok\n" + "y".repeat(100), 10)).containsExactly("ok", "<truncated>");
+    }
+
+    private static List<String> readAll(String body, int maxLength) throws IOException {
+        NdjsonLineReader reader = new NdjsonLineReader(new StringReader(body), maxLength);
+        List<String> lines = new ArrayList<>();
+        while (reader.next()) {
+            lines.add(reader.truncated() ? "<truncated>" : reader.line());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.playground.notifier.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.playground.notifier.dto.PaymentReqDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class PaymentBatchServiceTest {
+
+    @Test
+    void shouldAnswerEveryLineEvenWhenWorkerThrowsError() throws Exception {
+        PaymentBatchProperties properties = new PaymentBatchProperties();
+        properties.setParallelism(2);
+        PaymentBatchService service = new PaymentBatchService(new ErrorPaymentService("boom"), new ObjectMapper(), properties);
+        String body = """
+                {"memberId":"a","amount":1}
+                {"memberId":"boom","amount":2}
+                {"memberId":"c","amount":3}
+                """;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // 결과 하나가 빠지면 process가 completed.take()에서 영원히 멈춘다
+        CompletableFuture.runAsync(() -> {
+            try {
+                service.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        service.destroy();
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.stream().filter(line -> line.contains("\"line\":2") && line.contains("FAILED")).count()).isEqualTo(1L);
+        assertThat(lines.stream().filter(line -> line.contains("OK")).count()).isEqualTo(2L);
+    }
+
+    /**
+     * failingMemberId 결제에서 Exception이 아닌 Error를 던진다
+     */
+    static class ErrorPaymentService extends PaymentService {
+        private final String failingMemberId;
+
+        ErrorPaymentService(String failingMemberId) {
+            super(null, null);
+            this.failingMemberId = failingMemberId;
+        }
+
+        @Override
+        public void payment(PaymentReqDto request) {
+            if (request.memberId().equals(failingMemberId)) {
+                throw new AssertionError("payment invariant broken");
+            }
+        }
+    }
+}
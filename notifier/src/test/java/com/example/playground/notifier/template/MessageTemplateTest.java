@@ -0,0 +1,38 @@
+package com.example.playground.notifier.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.jupiter.api.Test;
+
+class MessageTemplateTest {
+
+    @Test
+    void shouldRenderArgumentsInPlaceholderOrder() {
+        MessageTemplate template = MessageTemplate.compile("greeting", "{1}, {0}님 ({1})");
+
+        assertThat(render(template, "kim", 10_000L)).isEqualTo("10000, kim님 (10000)");
+    }
+
+    @Test
+    void shouldKeepNonNumericBracesAsLiterals() {
+        MessageTemplate template = MessageTemplate.compile("literal", "{name} {} {0}{");
+
+        assertThat(render(template, 7)).isEqualTo("{name} {} 7{");
+    }
+
+    @Test
+    void shouldRejectMissingArguments() {
+        MessageTemplate template = MessageTemplate.compile("payment", "{0}님, {1}원");
+
+        Throwable thrown = catchThrowable(() -> render(template, "kim"));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("expects 2 args");
+    }
+
+    private static String render(MessageTemplate template, Object... args) {
+        StringBuilder out = new StringBuilder();
+        template.renderTo(out, args);
+        return out.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.playground.notifier.template;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.example.playground.notifier.NotifierProperties;
+import com.example.playground.notifier.dto.UmsReqDto;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TemplateRegistryTest {
+
+    @Test
+    void shouldRenderTemplatedAndPlainMessages() {
+        TemplateRegistry registry = registry();
+        List<String> rendered = new ArrayList<>();
+
+        registry.render(UmsReqDto.template("kim", "payment-complete", "kim", 10_000), text -> rendered.add(text.toString()));
+        registry.render(UmsReqDto.template("lee", "payment-complete", "lee", 500), text -> rendered.add(text.toString()));
+        registry.render(new UmsReqDto("park", "plain"), text -> rendered.add(text.toString()));
+
+        // 풀에서 재사용한 버퍼에 이전 렌더링 결과가 남지 않아야 한다
+        assertThat(rendered).containsExactly("kim님, 10000원 결제가 완료되었습니다.", "lee님, 500원 결제가 완료되었습니다.", "plain");
+    }
+
+    @Test
+    void shouldRejectUnknownTemplate() {
+        TemplateRegistry registry = registry();
+
+        Throwable thrown = catchThrowable(() -> registry.render(UmsReqDto.template("kim", "missing"), text -> { }));
+
+        assertThat(thrown).isInstanceOf(IllegalArgumentException.class).hasMessage("Unknown message template: missing");
+    }
+
+    private static TemplateRegistry registry() {
+        NotifierProperties properties = new NotifierProperties();
+        properties.getTemplates().put("payment-complete", "{0}님, {1}원 결제가 완료되었습니다.");
+        return new TemplateRegistry(properties);
+    }
+}